@@ -0,0 +1,69 @@
+package com.icthh.xm.uaa.benchmark;
+
+import com.icthh.xm.uaa.domain.User;
+import com.icthh.xm.uaa.service.dto.UserDTO;
+import org.jboss.aerogear.security.otp.api.Base32;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Materialises a page of users the way Hibernate does (no-arg constructor and field population) and maps it
+ * to {@link UserDTO}, as the user listing endpoints do.
+ * <p>
+ * {@code eagerOtpSecret} reproduces the former {@code tfaOtpSecret = Base32.random()} field initializer,
+ * {@code lazyOtpSecret} the current entity. Compare {@code gc.alloc.rate.norm} of both.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserListingBenchmark {
+
+    @Param({"20", "200"})
+    private int pageSize;
+
+    @Benchmark
+    public List<UserDTO> lazyOtpSecret() {
+        List<UserDTO> page = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            page.add(new UserDTO(loadUser(i)));
+        }
+        return page;
+    }
+
+    @Benchmark
+    public List<UserDTO> eagerOtpSecret() {
+        List<UserDTO> page = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            User user = loadUser(i);
+            user.setTfaOtpSecret(Base32.random());
+            page.add(new UserDTO(user));
+        }
+        return page;
+    }
+
+    private static User loadUser(int i) {
+        User user = new User();
+        user.setId((long) i);
+        user.setUserKey("user-key-" + i);
+        user.setFirstName("First");
+        user.setLastName("Last");
+        user.setRoleKey("ROLE_USER");
+        user.setActivated(true);
+        return user;
+    }
+}
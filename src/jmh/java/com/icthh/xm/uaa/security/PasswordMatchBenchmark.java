@@ -0,0 +1,56 @@
+package com.icthh.xm.uaa.security;
+
+import com.codahale.metrics.MetricRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link CachePasswordHashEncoder#matches(CharSequence, String)} for a cached and a non cached password.
+ * The miss is dominated by bcrypt and shows the cost the cache saves.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PasswordMatchBenchmark {
+
+    private static final String PASSWORD = "P@ssw0rd";
+
+    private CachePasswordHashEncoder cachedEncoder;
+    private CachePasswordHashEncoder emptyCacheEncoder;
+    private String hash;
+
+    @Setup
+    public void setUp() {
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder();
+        hash = bcrypt.encode(PASSWORD);
+
+        cachedEncoder = new CachePasswordHashEncoder(bcrypt, new PasswordHashCache(1000, 3600, new MetricRegistry()));
+        cachedEncoder.matches(PASSWORD, hash);
+        // zero size cache never keeps an entry
+        emptyCacheEncoder = new CachePasswordHashEncoder(bcrypt, new PasswordHashCache(0, 3600, new MetricRegistry()));
+    }
+
+    @Benchmark
+    public boolean cacheHit() {
+        return cachedEncoder.matches(PASSWORD, hash);
+    }
+
+    @Benchmark
+    public boolean cacheMiss() {
+        return emptyCacheEncoder.matches(PASSWORD, hash);
+    }
+}
@@ -0,0 +1,90 @@
+package com.icthh.xm.uaa.security;
+
+import com.icthh.xm.commons.tenant.TenantContext;
+import com.icthh.xm.commons.tenant.TenantContextHolder;
+import com.icthh.xm.commons.tenant.TenantKey;
+import com.icthh.xm.uaa.config.ApplicationProperties;
+import com.icthh.xm.uaa.domain.User;
+import com.icthh.xm.uaa.domain.properties.TenantProperties;
+import com.icthh.xm.uaa.service.TenantPropertiesService;
+import com.icthh.xm.uaa.service.UserService;
+import com.icthh.xm.uaa.service.dto.UserLoginDto;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.OAuth2Request;
+import org.springframework.security.oauth2.provider.token.store.KeyStoreKeyFactory;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static com.icthh.xm.uaa.config.Constants.KEYSTORE_ALIAS;
+import static com.icthh.xm.uaa.config.Constants.KEYSTORE_PATH;
+import static com.icthh.xm.uaa.config.Constants.KEYSTORE_PSWRD;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Collaborators of the token issuing path with the database and configuration replaced by stub-only mocks
+ * (stub-only mocks do not record invocations, so they do not grow during a benchmark run).
+ */
+final class TokenBenchmarkFixture {
+
+    static final String TENANT = "XM";
+    static final String CLIENT = "webapp";
+    static final String LOGIN = "admin@xm.com";
+    static final String USER_KEY = "admin-user-key";
+    static final String ROLE = "ROLE_ADMIN";
+
+    private static final UsernamePasswordAuthenticationToken USER = userAuthentication();
+    private static final OAuth2Request REQUEST = new OAuth2Request(
+        Map.of("grant_type", "password", "username", LOGIN), CLIENT, USER.getAuthorities(), true,
+        null, null, null, null, null);
+
+    final TenantProperties tenantProperties = new TenantProperties();
+    final TenantContextHolder tenantContextHolder = stub(TenantContextHolder.class);
+    final TenantPropertiesService tenantPropertiesService = stub(TenantPropertiesService.class);
+    final ApplicationProperties applicationProperties = new ApplicationProperties();
+    final UserService userService = stub(UserService.class);
+    final DomainJwtAccessTokenConverter converter;
+
+    TokenBenchmarkFixture() throws Exception {
+        TenantContext tenantContext = stub(TenantContext.class);
+        when(tenantContext.getTenantKey()).thenReturn(Optional.of(TenantKey.valueOf(TENANT)));
+        when(tenantContextHolder.getContext()).thenReturn(tenantContext);
+        when(tenantPropertiesService.getTenantProps()).thenReturn(tenantProperties);
+
+        User user = new User();
+        user.setUserKey(USER_KEY);
+        user.setActivated(true);
+        when(userService.findOneByLogin(anyString())).thenReturn(Optional.of(user));
+
+        converter = new DomainJwtAccessTokenConverter(tenantContextHolder, tenantPropertiesService,
+            new DomainJwtAccessTokenDetailsPostProcessor());
+        converter.setKeyPair(new KeyStoreKeyFactory(new ClassPathResource(KEYSTORE_PATH), KEYSTORE_PSWRD.toCharArray())
+            .getKeyPair(KEYSTORE_ALIAS));
+        converter.afterPropertiesSet();
+    }
+
+    /**
+     * New authentication on every call: token enhancement stores details in it.
+     */
+    static OAuth2Authentication authentication() {
+        return new OAuth2Authentication(REQUEST, USER);
+    }
+
+    private static UsernamePasswordAuthenticationToken userAuthentication() {
+        DomainUserDetails principal = new DomainUserDetails(LOGIN, "", List.of(new SimpleGrantedAuthority(ROLE)),
+            TENANT, USER_KEY, null, null, false, null, null, null, null, null, false, null,
+            List.of(new UserLoginDto("LOGIN.EMAIL", null, LOGIN)), "en");
+        return new UsernamePasswordAuthenticationToken(principal, "", principal.getAuthorities());
+    }
+
+    static <T> T stub(Class<T> type) {
+        return mock(type, withSettings().stubOnly());
+    }
+}
@@ -0,0 +1,106 @@
+package com.icthh.xm.uaa.security;
+
+import com.icthh.xm.uaa.repository.kafka.SystemTopicProducer;
+import com.icthh.xm.uaa.security.oauth2.otp.OtpGenerator;
+import com.icthh.xm.uaa.security.oauth2.otp.OtpSendStrategy;
+import com.icthh.xm.uaa.security.oauth2.otp.OtpStore;
+import com.icthh.xm.uaa.security.provider.DefaultAuthenticationRefreshProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.jwt.JwtHelper;
+import org.springframework.security.oauth2.common.DefaultOAuth2AccessToken;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.security.oauth2.common.util.JsonParserFactory;
+import org.springframework.security.oauth2.provider.ClientDetailsService;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.TokenRequest;
+import org.springframework.security.oauth2.provider.token.store.JwtTokenStore;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static com.icthh.xm.uaa.security.TokenBenchmarkFixture.CLIENT;
+import static com.icthh.xm.uaa.security.TokenBenchmarkFixture.authentication;
+import static com.icthh.xm.uaa.security.TokenBenchmarkFixture.stub;
+
+/**
+ * Per-token CPU and allocation of issuing, refreshing, enhancing and parsing tokens.
+ * Run with {@code ./gradlew jmh -PjmhIncludes=TokenServicesBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TokenServicesBenchmark {
+
+    private DomainJwtAccessTokenConverter converter;
+    private DomainTokenServices tokenServices;
+    private String refreshTokenValue;
+    private TokenRequest refreshRequest;
+    private Map<String, ?> claims;
+
+    @Setup
+    public void setUp() throws Exception {
+        TokenBenchmarkFixture fixture = new TokenBenchmarkFixture();
+        converter = fixture.converter;
+
+        UserSecurityValidator userSecurityValidator = new UserSecurityValidator(fixture.userService,
+            new UserActivationCache(fixture.tenantContextHolder, stub(SystemTopicProducer.class),
+                fixture.applicationProperties));
+        TokenConstraintsService tokenConstraintsService = new TokenConstraintsService(
+            fixture.tenantPropertiesService, fixture.applicationProperties, stub(ClientDetailsService.class),
+            new ClientDetailsCache(fixture.tenantContextHolder, fixture.applicationProperties),
+            fixture.tenantContextHolder);
+
+        tokenServices = new DomainTokenServices();
+        tokenServices.setTokenStore(new JwtTokenStore(converter));
+        tokenServices.setTokenEnhancer(converter);
+        tokenServices.setTenantPropertiesService(fixture.tenantPropertiesService);
+        tokenServices.setTenantContextHolder(fixture.tenantContextHolder);
+        tokenServices.setTokenConstraintsService(tokenConstraintsService);
+        tokenServices.setAuthenticationRefreshProvider(new DefaultAuthenticationRefreshProvider());
+        tokenServices.setUserService(fixture.userService);
+        tokenServices.setUserSecurityValidator(userSecurityValidator);
+        tokenServices.setOtpGenerator(stub(OtpGenerator.class));
+        tokenServices.setOtpSendStrategy(stub(OtpSendStrategy.class));
+        tokenServices.setOtpStore(stub(OtpStore.class));
+        tokenServices.afterPropertiesSet();
+
+        OAuth2AccessToken token = tokenServices.createAccessToken(authentication());
+        refreshTokenValue = token.getRefreshToken().getValue();
+        refreshRequest = new TokenRequest(
+            Map.of("grant_type", "refresh_token", "refresh_token", refreshTokenValue), CLIENT, null, "refresh_token");
+        claims = JsonParserFactory.create().parseMap(JwtHelper.decode(token.getValue()).getClaims());
+    }
+
+    @Benchmark
+    public OAuth2AccessToken createAccessToken() {
+        return tokenServices.createAccessToken(authentication());
+    }
+
+    @Benchmark
+    public OAuth2AccessToken refreshAccessToken() {
+        return tokenServices.refreshAccessToken(refreshTokenValue, refreshRequest);
+    }
+
+    @Benchmark
+    public OAuth2AccessToken enhance() {
+        return converter.enhance(new DefaultOAuth2AccessToken(UUID.randomUUID().toString()), authentication());
+    }
+
+    @Benchmark
+    public OAuth2Authentication extractAuthentication() {
+        return converter.extractAuthentication(claims);
+    }
+}
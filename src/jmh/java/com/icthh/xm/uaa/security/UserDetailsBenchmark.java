@@ -0,0 +1,56 @@
+package com.icthh.xm.uaa.security;
+
+import com.icthh.xm.uaa.domain.User;
+import com.icthh.xm.uaa.domain.UserLogin;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.icthh.xm.uaa.security.TokenBenchmarkFixture.LOGIN;
+import static com.icthh.xm.uaa.security.TokenBenchmarkFixture.ROLE;
+import static com.icthh.xm.uaa.security.TokenBenchmarkFixture.TENANT;
+import static com.icthh.xm.uaa.security.TokenBenchmarkFixture.USER_KEY;
+
+/**
+ * {@link DomainUserDetailsService#buildDomainUserDetails(String, String, User)} for a user loaded by login.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserDetailsBenchmark {
+
+    private User user;
+
+    @Setup
+    public void setUp() {
+        user = new User();
+        user.setUserKey(USER_KEY);
+        user.setActivated(true);
+        user.setPassword("$2a$10$VEjxo0jq2YG9Rbk2HmX9S.k1uZBGYUHdUcid3g/vfiEl7lwWgOH/K");
+        user.setRoleKey(ROLE);
+
+        UserLogin login = new UserLogin();
+        login.setTypeKey("LOGIN.EMAIL");
+        login.setLogin(LOGIN);
+        login.setUser(user);
+        user.setLogins(List.of(login));
+    }
+
+    @Benchmark
+    public DomainUserDetails buildDomainUserDetails() {
+        return DomainUserDetailsService.buildDomainUserDetails(LOGIN, TENANT, user);
+    }
+}
@@ -0,0 +1,72 @@
+package com.icthh.xm.uaa.security.oauth2.idp.jwk;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.jwt.JwtHelper;
+import org.springframework.security.jwt.crypto.sign.RsaSigner;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.interfaces.RSAPrivateKey;
+import java.security.interfaces.RSAPublicKey;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static com.icthh.xm.uaa.security.oauth2.idp.jwk.JwkDefinition.CryptoAlgorithm.RS256;
+import static com.icthh.xm.uaa.security.oauth2.idp.jwk.JwkDefinition.PublicKeyUse.SIG;
+
+/**
+ * {@link JwkVerifyingJwtAccessTokenConverter#decode(String)} of an IDP token with the JWK set already loaded,
+ * i.e. header parsing, signature verification and claims parsing.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwkDecodeBenchmark {
+
+    private static final String KEY_ID = "idp-key";
+
+    private JwkVerifyingJwtAccessTokenConverter converter;
+    private String token;
+
+    @Setup
+    public void setUp() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        KeyPair keyPair = generator.generateKeyPair();
+        RSAPublicKey publicKey = (RSAPublicKey) keyPair.getPublic();
+
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        RsaJwkDefinition definition = new RsaJwkDefinition(KEY_ID, SIG, RS256,
+            encoder.encodeToString(publicKey.getModulus().toByteArray()),
+            encoder.encodeToString(publicKey.getPublicExponent().toByteArray()));
+
+        JwkDefinitionSource source = new JwkDefinitionSource();
+        source.getJwkDefinitions().put(KEY_ID, new JwkDefinitionSource.JwkDefinitionHolder(definition,
+            JwkDefinitionSource.createRsaVerifier(definition)));
+        converter = new JwkVerifyingJwtAccessTokenConverter(source);
+
+        long exp = TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis()) + TimeUnit.DAYS.toSeconds(1);
+        String claims = "{\"sub\":\"admin@xm.com\",\"email\":\"admin@xm.com\",\"given_name\":\"Admin\","
+            + "\"family_name\":\"Xm\",\"aud\":\"webapp\",\"exp\":" + exp + "}";
+        token = JwtHelper.encode(claims, new RsaSigner((RSAPrivateKey) keyPair.getPrivate()),
+            Map.of("kid", KEY_ID)).getEncoded();
+    }
+
+    @Benchmark
+    public Map<String, Object> decode() {
+        return converter.decode(token);
+    }
+}
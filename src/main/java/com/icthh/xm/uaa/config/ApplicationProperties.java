@@ -29,6 +29,10 @@ public class ApplicationProperties {
     private final ReCaptcha reCaptcha = new ReCaptcha();
     private final Lep lep = new Lep();
     private final Communication communication = new Communication();
+    private final UserImport userImport = new UserImport();
+    private final UserSearch userSearch = new UserSearch();
+    private final AuditWriter auditWriter = new AuditWriter();
+    private final LdapSearch ldapSearch = new LdapSearch();
 
     private List<String> tenantIgnoredPathList;
     private List<String> timelineIgnoredHttpMethods = Collections.emptyList();
@@ -83,6 +87,23 @@ public class ApplicationProperties {
         private Integer passwordEncoderStrength;
         private Boolean enablePasswordHashCaching;
         private Integer enablePasswordHashCacheSize;
+        private Integer passwordHashCacheTtlSeconds;
+        private Integer verifiedTokenCacheSize;
+        private Integer userActivationCacheSize;
+        private Integer userActivationCacheTtlSeconds;
+        private Integer onlineUsersCacheSize;
+        private boolean onlineUsersBroadcastEnabled;
+        private Integer clientDetailsCacheTtlSeconds;
+        private final PasswordHashing passwordHashing = new PasswordHashing();
+    }
+
+    @Getter
+    @Setter
+    public static class PasswordHashing {
+        private boolean enabled;
+        private int poolSize = Runtime.getRuntime().availableProcessors();
+        private int queueCapacity = 200;
+        private int tenantQueueCapacity = 100;
     }
 
     @Getter
@@ -108,6 +129,49 @@ public class ApplicationProperties {
         private boolean enabled;
     }
 
+    @Getter
+    @Setter
+    public static class UserImport {
+        private int batchSize = 500;
+        private int hashingThreads = 2;
+    }
+
+    @Getter
+    @Setter
+    public static class AuditWriter {
+        private boolean enabled;
+        private int capacity = 10000;
+        private int batchSize = 100;
+        private long flushIntervalMillis = 1000;
+        private OverflowPolicy overflowPolicy = OverflowPolicy.SPILL;
+
+        /**
+         * What to do with an audit event when the queue is full.
+         */
+        public enum OverflowPolicy {
+            /** wait for the writer to free space */
+            BLOCK,
+            /** discard the event */
+            DROP,
+            /** write the event in a separate transaction on the calling thread */
+            SPILL
+        }
+    }
+
+    @Getter
+    @Setter
+    public static class UserSearch {
+        private int maxResults = 500;
+        private int timeoutMillis = 2000;
+    }
+
+    @Getter
+    @Setter
+    public static class LdapSearch {
+        private int cacheTtlSeconds;
+        private int cacheMaxSize = 1000;
+    }
+
     @Getter
     @Setter
     public static class DomainEvent {
@@ -14,6 +14,7 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 import org.springframework.context.annotation.Profile;
+import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.scheduling.annotation.AsyncConfigurer;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.annotation.EnableScheduling;
@@ -56,6 +57,20 @@ public class AsyncConfiguration implements AsyncConfigurer, SchedulingConfigurer
         taskRegistrar.setScheduler(scheduledTaskExecutor());
     }
 
+    /**
+     * Executor hashing generated passwords of imported users, shared by all imports so the number of hashing threads
+     * does not grow with concurrent imports.
+     */
+    @Bean(name = "userImportHashingExecutor")
+    public AsyncTaskExecutor userImportHashingExecutor(ApplicationProperties applicationProperties) {
+        int threads = Math.max(1, applicationProperties.getUserImport().getHashingThreads());
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setThreadNamePrefix("uaa-user-import-");
+        return executor;
+    }
+
     @Bean
     public Executor scheduledTaskExecutor() {
         return Executors.newScheduledThreadPool(jHipsterProperties.getAsync().getCorePoolSize());
@@ -50,6 +50,9 @@ public final class Constants {
     public static final String UPDATE_PROFILE_EVENT_TYPE = "UPDATE_PROFILE";
     public static final String UPDATE_ACCOUNT_EVENT_TYPE = "UPDATE_ACCOUNT";
     public static final String DELETE_PROFILE_EVENT_TYPE = "DELETE_PROFILE";
+    public static final String USER_ACTIVATION_CHANGED_EVENT_TYPE = "USER_ACTIVATION_CHANGED";
+    public static final String USER_ONLINE_EVENT_TYPE = "USER_ONLINE";
+    public static final String USER_OFFLINE_EVENT_TYPE = "USER_OFFLINE";
     public static final String AUTH_ADDITIONAL_DETAILS = "additionalDetails";
 
     public static final String CREATE_TOKEN_TIME = "createTokenTime";
@@ -86,6 +89,9 @@ public final class Constants {
     public static final String SYSTEM_EVENT_PROP_LAST_MODIFIED_DATE = "lastModifiedDate";
     public static final String SYSTEM_EVENT_PROP_USER_KEY = "userKey";
     public static final String SYSTEM_EVENT_PROP_ROLE_KEY = "roleKey";
+    public static final String SYSTEM_EVENT_PROP_LOGINS = "logins";
+    public static final String SYSTEM_EVENT_PROP_PRINCIPAL = "principal";
+    public static final String SYSTEM_EVENT_PROP_PRINCIPALS = "principals";
 
     public static final String DEFAULT_CONFIG_PATH = "config/specs/default-uaa.yml";
     public static final String DEFAULT_LOGINS_CONFIG_PATH = "config/specs/default-logins.yml";
@@ -17,6 +17,7 @@ import org.hibernate.MultiTenancyStrategy;
 import org.hibernate.cfg.AvailableSettings;
 import org.hibernate.context.spi.CurrentTenantIdentifierResolver;
 import org.hibernate.engine.jdbc.connections.spi.MultiTenantConnectionProvider;
+import org.hibernate.jpa.boot.internal.EntityManagerFactoryBuilderImpl;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
@@ -139,6 +140,7 @@ public class DatabaseConfiguration {
                        currentTenantIdentifierResolverImpl);
         properties.put(JPA_VALIDATION_FACTORY, localValidatorFactoryBean);
         properties.put(AvailableSettings.BEAN_CONTAINER, new SpringBeanContainer(beanFactory));
+        properties.put(EntityManagerFactoryBuilderImpl.METADATA_BUILDER_CONTRIBUTOR, new JsonbSqlFunctionsContributor());
         if (databaseSourceInterceptorCustomizer != null) {
             databaseSourceInterceptorCustomizer.customize(properties);
         }
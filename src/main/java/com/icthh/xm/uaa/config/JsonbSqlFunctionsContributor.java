@@ -0,0 +1,23 @@
+package com.icthh.xm.uaa.config;
+
+import org.hibernate.boot.MetadataBuilder;
+import org.hibernate.boot.spi.MetadataBuilderContributor;
+import org.hibernate.dialect.function.SQLFunctionTemplate;
+import org.hibernate.type.StandardBasicTypes;
+
+/**
+ * Registers PostgreSQL jsonb operators as HQL/criteria functions.
+ */
+public class JsonbSqlFunctionsContributor implements MetadataBuilderContributor {
+
+    /**
+     * {@code jsonb @> jsonb} containment, served by the GIN index on {@code jhi_user.data}.
+     */
+    public static final String JSONB_CONTAINS = "xm_jsonb_contains";
+
+    @Override
+    public void contribute(MetadataBuilder metadataBuilder) {
+        metadataBuilder.applySqlFunction(JSONB_CONTAINS,
+            new SQLFunctionTemplate(StandardBasicTypes.BOOLEAN, "(?1 @> cast(?2 as jsonb))"));
+    }
+}
@@ -4,6 +4,7 @@ import com.icthh.xm.commons.repository.JwksRepository;
 import com.icthh.xm.commons.security.oauth2.OAuth2Properties;
 import com.icthh.xm.commons.tenant.TenantContextHolder;
 import com.icthh.xm.commons.tenant.spring.config.TenantContextConfiguration;
+import com.icthh.xm.uaa.security.CachingJwtTokenStore;
 import com.icthh.xm.uaa.security.DomainJwtAccessTokenConverter;
 
 import com.icthh.xm.uaa.security.DomainJwtAccessTokenDetailsPostProcessor;
@@ -149,7 +150,8 @@ public class UaaAccessTokenConverterConfiguration {
     @Bean
     @Primary
     public JwtTokenStore tokenStore(JwtAccessTokenConverter jwtAccessTokenConverter) throws Exception {
-        return new JwtTokenStore(jwtAccessTokenConverter);
+        return new CachingJwtTokenStore(jwtAccessTokenConverter,
+            applicationProperties.getSecurity().getVerifiedTokenCacheSize());
     }
 
     private PrivateKey initPrivateKeyFromKeystore(InputStream stream) throws KeyStoreException, UnrecoverableKeyException,
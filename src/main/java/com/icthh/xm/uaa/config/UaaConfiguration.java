@@ -5,6 +5,7 @@ import com.icthh.xm.commons.permission.service.PermissionMappingService;
 import com.icthh.xm.commons.tenant.TenantContextHolder;
 import com.icthh.xm.uaa.security.DomainTokenServices;
 import com.icthh.xm.uaa.security.DomainUserDetailsService;
+import com.icthh.xm.uaa.security.OnlineUsersCache;
 import com.icthh.xm.uaa.security.TokenConstraintsService;
 import com.icthh.xm.uaa.security.UserSecurityValidator;
 import com.icthh.xm.uaa.security.oauth2.AuthOtpTokenGranter;
@@ -148,6 +149,7 @@ public class UaaConfiguration extends AuthorizationServerConfigurerAdapter {
     private final UserSecurityValidator userSecurityValidator;
     private final XmJwkTokenStore jwkTokenStore;
     private final List<OtpGenerationStrategy> otpGenerationStrategies;
+    private final OnlineUsersCache onlineUsersCache;
 
     @Override
     public void configure(ClientDetailsServiceConfigurer clients) throws Exception {
@@ -223,6 +225,7 @@ public class UaaConfiguration extends AuthorizationServerConfigurerAdapter {
         tokenServices.setTokenConstraintsService(tokenConstraintsService);
         tokenServices.setUserService(userService);
         tokenServices.setUserSecurityValidator(userSecurityValidator);
+        tokenServices.setOnlineUsersCache(onlineUsersCache);
         // OTP settings
         tokenServices.setOtpGenerator(otpGenerator);
         tokenServices.setOtpStore(otpStore);
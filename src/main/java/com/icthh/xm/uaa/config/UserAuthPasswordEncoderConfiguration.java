@@ -1,10 +1,25 @@
 package com.icthh.xm.uaa.config;
 
+import com.codahale.metrics.MetricRegistry;
+import com.icthh.xm.commons.tenant.TenantContextHolder;
+import com.icthh.xm.uaa.domain.properties.TenantProperties;
+import com.icthh.xm.uaa.domain.properties.TenantProperties.Security.PasswordEncoding;
 import com.icthh.xm.uaa.security.CachePasswordHashEncoder;
+import com.icthh.xm.uaa.security.PasswordHashCache;
+import com.icthh.xm.uaa.security.hashing.AdaptivePasswordEncoder;
+import com.icthh.xm.uaa.security.hashing.BoundedPasswordEncoder;
+import com.icthh.xm.uaa.security.hashing.FairHashingExecutor;
+import com.icthh.xm.uaa.service.TenantPropertiesService;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.UnaryOperator;
 
 import static java.lang.Boolean.TRUE;
 
@@ -15,23 +30,60 @@ import static java.lang.Boolean.TRUE;
 @Configuration
 public class UserAuthPasswordEncoderConfiguration {
 
+    private static final int DEFAULT_BCRYPT_STRENGTH = 10;
+    private static final String PBKDF2 = "pbkdf2";
+
+    @Bean
+    public PasswordHashCache passwordHashCache(ApplicationProperties applicationProperties,
+                                               MetricRegistry metricRegistry) {
+        ApplicationProperties.Security security = applicationProperties.getSecurity();
+        return new PasswordHashCache(security.getEnablePasswordHashCacheSize(),
+            security.getPasswordHashCacheTtlSeconds(), metricRegistry);
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    @ConditionalOnProperty(value = "application.security.password-hashing.enabled", havingValue = "true")
+    public FairHashingExecutor passwordHashingExecutor(ApplicationProperties applicationProperties,
+                                                       MetricRegistry metricRegistry) {
+        ApplicationProperties.PasswordHashing hashing = applicationProperties.getSecurity().getPasswordHashing();
+        return new FairHashingExecutor(hashing.getPoolSize(), hashing.getQueueCapacity(),
+            hashing.getTenantQueueCapacity(), metricRegistry);
+    }
+
     @Bean("passwordEncoder")
-    public PasswordEncoder passwordEncoder(ApplicationProperties applicationProperties) {
+    public PasswordEncoder passwordEncoder(ApplicationProperties applicationProperties,
+                                           PasswordHashCache passwordHashCache,
+                                           ObjectProvider<FairHashingExecutor> passwordHashingExecutor,
+                                           ObjectProvider<TenantPropertiesService> tenantPropertiesService,
+                                           TenantContextHolder tenantContextHolder) {
         ApplicationProperties.Security security = applicationProperties.getSecurity();
-        Integer passwordEncoderStrength = security.getPasswordEncoderStrength();
-        PasswordEncoder passwordEncoder = getPasswordEncoder(passwordEncoderStrength);
+        FairHashingExecutor executor = passwordHashingExecutor.getIfAvailable();
+        UnaryOperator<PasswordEncoder> decorator = executor == null ? UnaryOperator.identity()
+            : encoder -> new BoundedPasswordEncoder(encoder, executor, tenantContextHolder);
+
+        PasswordEncoder passwordEncoder = new AdaptivePasswordEncoder(
+            getPasswordEncoderStrength(security.getPasswordEncoderStrength()),
+            () -> getPasswordEncoding(tenantPropertiesService),
+            Map.of(PBKDF2, new Pbkdf2PasswordEncoder()),
+            decorator);
+        // cache hits must not wait in the hashing queue
         if (TRUE.equals(security.getEnablePasswordHashCaching())) {
-            passwordEncoder = new CachePasswordHashEncoder(passwordEncoder, security.getEnablePasswordHashCacheSize());
+            passwordEncoder = new CachePasswordHashEncoder(passwordEncoder, passwordHashCache);
         }
         return passwordEncoder;
     }
 
-    private PasswordEncoder getPasswordEncoder(Integer passwordEncoderStrength) {
-        if (passwordEncoderStrength != null) {
-            return new BCryptPasswordEncoder(passwordEncoderStrength);
-        } else {
-            return new BCryptPasswordEncoder();
-        }
+    private int getPasswordEncoderStrength(Integer passwordEncoderStrength) {
+        // non positive values mean the bcrypt default, as in BCryptPasswordEncoder
+        return passwordEncoderStrength != null && passwordEncoderStrength > 0
+            ? passwordEncoderStrength : DEFAULT_BCRYPT_STRENGTH;
+    }
+
+    private Optional<PasswordEncoding> getPasswordEncoding(ObjectProvider<TenantPropertiesService> propertiesService) {
+        return Optional.ofNullable(propertiesService.getIfAvailable())
+            .flatMap(TenantPropertiesService::findTenantProps)
+            .map(TenantProperties::getSecurity)
+            .map(TenantProperties.Security::getPasswordEncoding);
     }
 
 }
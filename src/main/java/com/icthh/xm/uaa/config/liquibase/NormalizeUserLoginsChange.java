@@ -0,0 +1,66 @@
+package com.icthh.xm.uaa.config.liquibase;
+
+import com.icthh.xm.uaa.domain.UserLogin;
+import liquibase.change.custom.CustomTaskChange;
+import liquibase.database.Database;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.exception.CustomChangeException;
+import liquibase.exception.DatabaseException;
+import liquibase.exception.ValidationErrors;
+import liquibase.resource.ResourceAccessor;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Fills user_login.normalized_login of existing logins by {@link UserLogin#normalize(String)}, the normalizer
+ * used on writes. SQL lower() depends on the database collation and may differ from it for non-ASCII logins.
+ */
+public class NormalizeUserLoginsChange implements CustomTaskChange {
+
+    private static final int BATCH_SIZE = 1000;
+
+    private int updated;
+
+    @Override
+    public void execute(Database database) throws CustomChangeException {
+        JdbcConnection connection = (JdbcConnection) database.getConnection();
+        try (PreparedStatement select = connection.prepareStatement("select id, login from user_login");
+             PreparedStatement update = connection.prepareStatement(
+                 "update user_login set normalized_login = ? where id = ?");
+             ResultSet logins = select.executeQuery()) {
+            while (logins.next()) {
+                update.setString(1, UserLogin.normalize(logins.getString(2)));
+                update.setLong(2, logins.getLong(1));
+                update.addBatch();
+                if (++updated % BATCH_SIZE == 0) {
+                    update.executeBatch();
+                }
+            }
+            update.executeBatch();
+        } catch (DatabaseException | SQLException e) {
+            throw new CustomChangeException("Failed to normalize user logins", e);
+        }
+    }
+
+    @Override
+    public String getConfirmationMessage() {
+        return "Normalized " + updated + " user logins";
+    }
+
+    @Override
+    public void setUp() {
+        // no parameters
+    }
+
+    @Override
+    public void setFileOpener(ResourceAccessor resourceAccessor) {
+        // no resources
+    }
+
+    @Override
+    public ValidationErrors validate(Database database) {
+        return new ValidationErrors();
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * Liquibase custom changes.
+ */
+package com.icthh.xm.uaa.config.liquibase;
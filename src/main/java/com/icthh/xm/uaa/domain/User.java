@@ -9,6 +9,7 @@ import com.icthh.xm.uaa.validator.JsonData;
 import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.Cache;
 import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.jboss.aerogear.security.otp.api.Base32;
@@ -46,12 +47,15 @@ import static org.apache.commons.collections.CollectionUtils.isNotEmpty;
 @Entity
 @Table(name = "jhi_user")
 @Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE)
+@BatchSize(size = User.BATCH_SIZE)
 @Getter
 @Setter
 public class User extends AbstractAuditingEntity implements Serializable {
 
     private static final long serialVersionUID = 1L;
 
+    static final int BATCH_SIZE = 100;
+
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sequenceGenerator")
     @SequenceGenerator(name = "sequenceGenerator")
@@ -63,8 +67,8 @@ public class User extends AbstractAuditingEntity implements Serializable {
 
     @JsonIgnore
     @NotNull
-    @Size(min = 60, max = 60)
-    @Column(name = "password_hash", length = 60)
+    @Size(min = 60, max = 255)
+    @Column(name = "password_hash", length = 255)
     private String password;
 
     @JsonIgnore
@@ -99,7 +103,7 @@ public class User extends AbstractAuditingEntity implements Serializable {
     private OtpChannelType tfaOtpChannelType;
 
     @Transient
-    private transient String tfaOtpSecret = Base32.random();
+    private transient volatile String tfaOtpSecret;
 
     @Size(min = 2, max = 5)
     @Column(name = "lang_key", length = 5)
@@ -156,8 +160,13 @@ public class User extends AbstractAuditingEntity implements Serializable {
     @Column(name = "data")
     private Map<String, Object> data = new HashMap<>();
 
+    /**
+     * Logins of the users read by a query are initialized by one select per {@link #BATCH_SIZE} users,
+     * instead of one select per user. Unlike a fetch join this keeps the paging in the database.
+     */
     @JsonIgnore
     @OneToMany(mappedBy = "user", fetch = FetchType.EAGER, cascade = CascadeType.ALL, orphanRemoval = true)
+    @BatchSize(size = BATCH_SIZE)
     private List<UserLogin> logins = new ArrayList<>();
 
     @NotNull
@@ -182,6 +191,24 @@ public class User extends AbstractAuditingEntity implements Serializable {
     @Column(name = "password_attempts")
     private Integer passwordAttempts;
 
+    /**
+     * Random TOTP secret, generated on first use rather than for every loaded entity. Concurrent callers get
+     * the same secret.
+     */
+    public String getTfaOtpSecret() {
+        String secret = tfaOtpSecret;
+        if (secret == null) {
+            synchronized (this) {
+                secret = tfaOtpSecret;
+                if (secret == null) {
+                    secret = Base32.random();
+                    tfaOtpSecret = secret;
+                }
+            }
+        }
+        return secret;
+    }
+
     public Integer getPasswordAttempts() {
         return requireNonNullElse(passwordAttempts, 0);
     }
@@ -9,12 +9,16 @@ import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
+import javax.persistence.PrePersist;
+import javax.persistence.PreUpdate;
 import javax.persistence.SequenceGenerator;
 import javax.persistence.Table;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Size;
+import java.util.Locale;
 
+import lombok.AccessLevel;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.Setter;
@@ -28,7 +32,7 @@ import org.hibernate.annotations.CacheConcurrencyStrategy;
 @ToString(exclude = {"user"})
 @Getter
 @Setter
-@EqualsAndHashCode(exclude = {"user"})
+@EqualsAndHashCode(exclude = {"user", "normalizedLogin"})
 public class UserLogin {
 
     private static final long serialVersionUID = 1L;
@@ -52,6 +56,14 @@ public class UserLogin {
     @Size(max = 255)
     private String login;
 
+    /**
+     * Lower-cased {@link #login}, used for case insensitive lookups.
+     */
+    @JsonIgnore
+    @Setter(AccessLevel.NONE)
+    @Column(name = "normalized_login")
+    private String normalizedLogin;
+
     @Column(nullable = false)
     private boolean removed = false;
 
@@ -60,4 +72,18 @@ public class UserLogin {
     @JoinColumn(name = "user_key", referencedColumnName = "user_key")
     private User user;
 
+    public void setLogin(String login) {
+        this.login = login;
+        this.normalizedLogin = normalize(login);
+    }
+
+    @PrePersist
+    @PreUpdate
+    void normalizeLogin() {
+        normalizedLogin = normalize(login);
+    }
+
+    public static String normalize(String login) {
+        return login != null ? login.toLowerCase(Locale.ROOT) : null;
+    }
 }
@@ -22,6 +22,7 @@ import java.util.Set;
 
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
@@ -52,6 +53,13 @@ public class TenantProperties {
     @JsonProperty("contextPermission")
     private ContextPermission contextPermission = new ContextPermission();
 
+    /**
+     * Paths of the user data attributes, e.g. {@code address.city}, searched by equality through
+     * the jsonb containment index instead of extracting the attribute from every row.
+     */
+    @JsonProperty("indexedDataAttributes")
+    private Set<String> indexedDataAttributes = new LinkedHashSet<>();
+
     @Getter
     @Setter
     @ToString
@@ -132,6 +140,9 @@ public class TenantProperties {
         @JsonProperty("apiKey")
         private ApiKey apiKey;
 
+        @JsonProperty("passwordEncoding")
+        private PasswordEncoding passwordEncoding;
+
         @Data
         @JsonIgnoreProperties(ignoreUnknown = true)
         public static class Idp {
@@ -152,6 +163,16 @@ public class TenantProperties {
         public static class ApiKey {
             private Long defaultTtlInSeconds;
         }
+
+        /**
+         * Algorithm and cost used for new password hashes. Stored hashes that differ are re-hashed on the next
+         * successful login.
+         */
+        @Data
+        public static class PasswordEncoding {
+            private String algorithm;
+            private Integer strength;
+        }
     }
 
     private PublicSettings publicSettings;
@@ -222,10 +243,14 @@ public class TenantProperties {
         private Boolean useNameWithoutDomain;
         private String authField;
         private Attribute attribute = new Attribute();
+        private int connectTimeoutMillis = 5000;
+        private int readTimeoutMillis = 10000;
+        private Pool pool = new Pool();
 
         @Getter
         @NoArgsConstructor
         @AllArgsConstructor
+        @EqualsAndHashCode
         @ToString
         public static class Attribute {
 
@@ -236,12 +261,28 @@ public class TenantProperties {
         @Getter
         @NoArgsConstructor
         @AllArgsConstructor
+        @EqualsAndHashCode
         @ToString
         public static class Role {
 
             private String defaultRole;
             private Map<String, String> mapping;
         }
+
+        /**
+         * Connection pool of the system user context, used for group and template search.
+         */
+        @Data
+        public static class Pool {
+
+            private int minIdle = 0;
+            private int maxTotal = 8;
+            private long maxWaitMillis = 5000;
+            private boolean testOnBorrow = true;
+            private boolean testWhileIdle = true;
+            private long evictionRunMillis = 60000;
+            private long minEvictableIdleMillis = 300000;
+        }
     }
 
     @Data
@@ -0,0 +1,205 @@
+package com.icthh.xm.uaa.repository;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import com.icthh.xm.commons.tenant.PlainTenant;
+import com.icthh.xm.commons.tenant.TenantContextHolder;
+import com.icthh.xm.commons.tenant.TenantKey;
+import com.icthh.xm.uaa.config.ApplicationProperties;
+import com.icthh.xm.uaa.config.ApplicationProperties.AuditWriter.OverflowPolicy;
+import com.icthh.xm.uaa.domain.PersistentAuditEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.PreDestroy;
+
+/**
+ * Writes audit events in the background, so authentication does not wait for a separate audit commit.
+ * <p>
+ * Events are queued with the tenant of the calling thread. A single writer collects them until the batch is full or
+ * the flush interval since its first event has passed, and inserts them with one transaction per tenant, so the
+ * inserts are sent in JDBC batches. When the queue is full the configured {@link OverflowPolicy} applies.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(value = "application.audit-writer.enabled", havingValue = "true")
+public class AsyncAuditEventWriter {
+
+    private static final String METRIC_PREFIX = "audit-writer";
+    private static final long POLL_MILLIS = 100;
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = 10000;
+
+    private final PersistenceAuditEventRepository persistenceAuditEventRepository;
+    private final TenantContextHolder tenantContextHolder;
+    private final TransactionTemplate transactionTemplate;
+
+    private final BlockingQueue<PendingEvent> queue;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final OverflowPolicy overflowPolicy;
+
+    private final Timer flushTime;
+    private final Counter dropped;
+    private final Counter spilled;
+    private final Counter failed;
+
+    private final Thread worker;
+    private volatile boolean running = true;
+
+    public AsyncAuditEventWriter(PersistenceAuditEventRepository persistenceAuditEventRepository,
+                                 PlatformTransactionManager transactionManager,
+                                 TenantContextHolder tenantContextHolder,
+                                 ApplicationProperties applicationProperties,
+                                 MetricRegistry metricRegistry) {
+        this.persistenceAuditEventRepository = persistenceAuditEventRepository;
+        this.tenantContextHolder = tenantContextHolder;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        ApplicationProperties.AuditWriter properties = applicationProperties.getAuditWriter();
+        this.queue = new ArrayBlockingQueue<>(properties.getCapacity());
+        this.batchSize = properties.getBatchSize();
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(properties.getFlushIntervalMillis());
+        this.overflowPolicy = properties.getOverflowPolicy();
+
+        this.flushTime = metricRegistry.timer(MetricRegistry.name(METRIC_PREFIX, "flush-time"));
+        this.dropped = metricRegistry.counter(MetricRegistry.name(METRIC_PREFIX, "dropped"));
+        this.spilled = metricRegistry.counter(MetricRegistry.name(METRIC_PREFIX, "spilled"));
+        this.failed = metricRegistry.counter(MetricRegistry.name(METRIC_PREFIX, "failed"));
+        metricRegistry.gauge(MetricRegistry.name(METRIC_PREFIX, "queue-depth"), () -> (Gauge<Integer>) queue::size);
+
+        this.worker = new Thread(this::work, METRIC_PREFIX);
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    /**
+     * Queue the event for writing to the schema of the current tenant.
+     *
+     * @param event the audit event
+     */
+    public void write(PersistentAuditEvent event) {
+        TenantKey tenantKey = tenantContextHolder.getContext().getTenantKey().orElse(null);
+        PendingEvent pending = new PendingEvent(tenantKey, event);
+        if (queue.offer(pending)) {
+            return;
+        }
+
+        switch (overflowPolicy) {
+            case BLOCK:
+                try {
+                    queue.put(pending);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    dropped.inc();
+                }
+                break;
+            case DROP:
+                dropped.inc();
+                log.debug("Audit event queue is full, event dropped: {} {}", event.getPrincipal(),
+                    event.getAuditEventType());
+                break;
+            default:
+                spilled.inc();
+                transactionTemplate.execute(status -> persistenceAuditEventRepository.save(event));
+        }
+    }
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    /**
+     * Stop the writer and write the queued events.
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        worker.join(SHUTDOWN_TIMEOUT_MILLIS);
+        List<PendingEvent> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            flush(remaining);
+        }
+    }
+
+    private void work() {
+        List<PendingEvent> batch = new ArrayList<>(batchSize);
+        long deadline = 0;
+        // on shutdown the queued events are written before the writer stops
+        while (running || !batch.isEmpty() || !queue.isEmpty()) {
+            try {
+                PendingEvent next = running ? queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS) : queue.poll();
+                if (next != null) {
+                    if (batch.isEmpty()) {
+                        deadline = System.nanoTime() + flushIntervalNanos;
+                    }
+                    batch.add(next);
+                    queue.drainTo(batch, batchSize - batch.size());
+                }
+                if (!batch.isEmpty()
+                    && (!running || batch.size() >= batchSize || System.nanoTime() - deadline >= 0)) {
+                    flush(batch);
+                    batch.clear();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("Audit event writer failed", e);
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<PendingEvent> batch) {
+        Map<TenantKey, List<PersistentAuditEvent>> tenantEvents = new LinkedHashMap<>();
+        batch.forEach(pending -> tenantEvents.computeIfAbsent(pending.tenantKey, key -> new ArrayList<>())
+            .add(pending.event));
+
+        try (Timer.Context ignored = flushTime.time()) {
+            tenantEvents.forEach(this::flush);
+        }
+    }
+
+    private void flush(TenantKey tenantKey, List<PersistentAuditEvent> events) {
+        try {
+            if (tenantKey != null) {
+                tenantContextHolder.getPrivilegedContext().setTenant(new PlainTenant(tenantKey));
+            }
+            transactionTemplate.execute(status -> persistenceAuditEventRepository.saveAll(events));
+            log.debug("Audit events written for tenant {}: {}", tenantKey, events.size());
+        } catch (Exception e) {
+            failed.inc(events.size());
+            log.error("Audit events write failed for tenant {}, lost: {}", tenantKey, events.size(), e);
+        } finally {
+            if (tenantKey != null) {
+                tenantContextHolder.getPrivilegedContext().destroyCurrentContext();
+            }
+        }
+    }
+
+    private static class PendingEvent {
+
+        private final TenantKey tenantKey;
+        private final PersistentAuditEvent event;
+
+        PendingEvent(TenantKey tenantKey, PersistentAuditEvent event) {
+            this.tenantKey = tenantKey;
+            this.event = event;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.icthh.xm.uaa.repository;
+
+import com.icthh.xm.commons.permission.repository.PermittedRepository;
+import com.icthh.xm.commons.permission.service.PermissionCheckService;
+import com.icthh.xm.uaa.domain.Client;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collections;
+import java.util.List;
+
+@Repository
+public class ClientPermittedRepository extends PermittedRepository {
+
+    private final KeysetRepository keysetRepository;
+
+    public ClientPermittedRepository(PermissionCheckService permissionCheckService,
+                                     KeysetRepository keysetRepository) {
+        super(permissionCheckService);
+        this.keysetRepository = keysetRepository;
+    }
+
+    /**
+     * Find permitted clients with id greater than the given one, without a count query.
+     * @param afterId the last id of the previous page, null for the first page
+     * @param limit the maximum number of clients
+     * @param privilegeKey the privilege key
+     * @return permitted clients ordered by id
+     */
+    public List<Client> findAllAfterId(Long afterId, int limit, String privilegeKey) {
+        return keysetRepository.findPermittedAfterId(getType(), null, Collections.emptyMap(), afterId, limit,
+            privilegeKey);
+    }
+
+    private Class<Client> getType() {
+        return Client.class;
+    }
+}
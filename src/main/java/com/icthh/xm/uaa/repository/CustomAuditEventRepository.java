@@ -10,6 +10,7 @@ import java.time.Instant;
 import java.util.Date;
 import java.util.List;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.actuate.audit.AuditEvent;
 import org.springframework.boot.actuate.audit.AuditEventRepository;
 import org.springframework.stereotype.Repository;
@@ -29,6 +30,7 @@ public class CustomAuditEventRepository implements AuditEventRepository {
     private final AuditEventConverter auditEventConverter;
     private final ApplicationProperties applicationProperties;
     private final SeparateTransactionExecutor separateTransactionExecutor;
+    private final ObjectProvider<AsyncAuditEventWriter> asyncAuditEventWriter;
 
     public List<AuditEvent> find(Date after) {
         Iterable<PersistentAuditEvent> persistentAuditEvents =
@@ -65,14 +67,19 @@ public class CustomAuditEventRepository implements AuditEventRepository {
         if (!AUTHORIZATION_FAILURE.equals(event.getType())
                 && !Constants.ANONYMOUS_USER.equals(event.getPrincipal())
                 && applicationProperties.isAuditEventsEnabled()) {
-            separateTransactionExecutor.doInSeparateTransaction(() -> {
-                PersistentAuditEvent persistentAuditEvent = new PersistentAuditEvent();
-                persistentAuditEvent.setPrincipal(event.getPrincipal());
-                persistentAuditEvent.setAuditEventType(event.getType());
-                persistentAuditEvent.setAuditEventDate(event.getTimestamp());
-                persistentAuditEvent.setData(auditEventConverter.convertDataToStrings(event.getData()));
-                return persistenceAuditEventRepository.save(persistentAuditEvent);
-            });
+            PersistentAuditEvent persistentAuditEvent = new PersistentAuditEvent();
+            persistentAuditEvent.setPrincipal(event.getPrincipal());
+            persistentAuditEvent.setAuditEventType(event.getType());
+            persistentAuditEvent.setAuditEventDate(event.getTimestamp());
+            persistentAuditEvent.setData(auditEventConverter.convertDataToStrings(event.getData()));
+
+            AsyncAuditEventWriter writer = asyncAuditEventWriter.getIfAvailable();
+            if (writer != null) {
+                writer.write(persistentAuditEvent);
+            } else {
+                separateTransactionExecutor.doInSeparateTransaction(
+                    () -> persistenceAuditEventRepository.save(persistentAuditEvent));
+            }
         }
     }
 
@@ -0,0 +1,115 @@
+package com.icthh.xm.uaa.repository;
+
+import com.icthh.xm.commons.permission.service.PermissionCheckService;
+import com.icthh.xm.commons.permission.service.translator.SpelToJpqlTranslator;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import lombok.RequiredArgsConstructor;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Reads entities by specification in pages ordered by id, seeking by the last id of the previous page.
+ * Unlike the offset paging no rows are skipped and no count query is executed, so any page is as fast as the first.
+ */
+@Repository
+@RequiredArgsConstructor
+public class KeysetRepository {
+
+    private static final String ID = "id";
+    // alias of the entity in permission conditions translated from SpEL
+    private static final String RETURN_OBJECT = "returnObject";
+
+    private final EntityManager entityManager;
+    private final PermissionCheckService permissionCheckService;
+
+    /**
+     * Find entities matching the specification with id greater than the given one.
+     *
+     * @param type          the entity type, with the Long id attribute
+     * @param specification the specification, may be null
+     * @param afterId       the last id of the previous page, null for the first page
+     * @param limit         the maximum number of entities
+     * @param <T>           the entity type
+     * @return entities ordered by id
+     */
+    public <T> List<T> findAllAfterId(Class<T> type, Specification<T> specification, Long afterId, int limit) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+
+        // ids are selected first, so the limit is applied by the database even if the specification joins logins
+        CriteriaQuery<Long> idQuery = builder.createQuery(Long.class);
+        Root<T> root = idQuery.from(type);
+        List<Predicate> predicates = new ArrayList<>();
+        Predicate predicate = specification != null ? specification.toPredicate(root, idQuery, builder) : null;
+        if (predicate != null) {
+            predicates.add(predicate);
+        }
+        if (afterId != null) {
+            predicates.add(builder.greaterThan(root.get(ID), afterId));
+        }
+        // a user matching by several logins must take one slot of the limit, ordering by id keeps distinct valid
+        idQuery.select(root.get(ID))
+            .distinct(true)
+            .where(predicates.toArray(new Predicate[0]))
+            .orderBy(builder.asc(root.get(ID)));
+        List<Long> ids = entityManager.createQuery(idQuery).setMaxResults(limit).getResultList();
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        CriteriaQuery<T> query = builder.createQuery(type);
+        Root<T> entity = query.from(type);
+        query.select(entity)
+            .where(entity.get(ID).in(ids))
+            .orderBy(builder.asc(entity.get(ID)));
+        return entityManager.createQuery(query).getResultList();
+    }
+
+    /**
+     * Find entities matching the JPQL condition and the resource condition of the privilege, with id greater than the
+     * given one. Unlike {@code PermittedRepository.findByCondition} no count query is executed.
+     *
+     * @param type            the entity type, with the Long id attribute
+     * @param whereCondition  the JPQL condition, may refer to the entity as {@code returnObject}, may be null
+     * @param conditionParams the condition parameters
+     * @param afterId         the last id of the previous page, null for the first page
+     * @param limit           the maximum number of entities
+     * @param privilegeKey    the privilege key
+     * @param <T>             the entity type
+     * @return permitted entities ordered by id
+     */
+    public <T> List<T> findPermittedAfterId(Class<T> type, String whereCondition, Map<String, Object> conditionParams,
+                                            Long afterId, int limit, String privilegeKey) {
+        List<String> conditions = new ArrayList<>();
+        Map<String, Object> params = new HashMap<>(conditionParams);
+        if (StringUtils.isNotBlank(whereCondition)) {
+            conditions.add("(" + whereCondition + ")");
+        }
+        if (afterId != null) {
+            conditions.add(RETURN_OBJECT + "." + ID + " > :afterId");
+            params.put("afterId", afterId);
+        }
+        String permittedCondition = permissionCheckService.createCondition(
+            SecurityContextHolder.getContext().getAuthentication(), privilegeKey, new SpelToJpqlTranslator());
+        if (StringUtils.isNotBlank(permittedCondition)) {
+            conditions.add("(" + permittedCondition + ")");
+        }
+
+        String jpql = "select " + RETURN_OBJECT + " from " + type.getSimpleName() + " " + RETURN_OBJECT
+            + (conditions.isEmpty() ? "" : " where " + String.join(" and ", conditions))
+            + " order by " + RETURN_OBJECT + "." + ID + " asc";
+        TypedQuery<T> query = entityManager.createQuery(jpql, type).setMaxResults(limit);
+        params.forEach(query::setParameter);
+        return query.getResultList();
+    }
+}
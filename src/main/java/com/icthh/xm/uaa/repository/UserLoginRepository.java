@@ -1,16 +1,41 @@
 package com.icthh.xm.uaa.repository;
 
 import com.icthh.xm.uaa.domain.UserLogin;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface UserLoginRepository extends JpaRepository<UserLogin, Long> {
 
-    Optional<UserLogin> findOneByLoginIgnoreCase(final String login);
+    /**
+     * Case insensitive lookup, an equality query on the indexed normalized login.
+     */
+    default Optional<UserLogin> findOneByLoginIgnoreCase(final String login) {
+        return findOneByNormalizedLogin(UserLogin.normalize(login));
+    }
 
-    Optional<UserLogin> findOneByLoginIgnoreCaseAndUserIdNot(final String login, final Long id);
+    /**
+     * Case insensitive lookup of a login of another user, an equality query on the indexed normalized login.
+     */
+    default Optional<UserLogin> findOneByLoginIgnoreCaseAndUserIdNot(final String login, final Long id) {
+        return findOneByNormalizedLoginAndUserIdNot(UserLogin.normalize(login), id);
+    }
+
+    Optional<UserLogin> findOneByNormalizedLogin(final String normalizedLogin);
+
+    Optional<UserLogin> findOneByNormalizedLoginAndUserIdNot(final String normalizedLogin, final Long id);
+
+    List<UserLogin> findAllByNormalizedLoginIn(final Collection<String> normalizedLogins);
+
+    List<UserLogin> findAllByNormalizedLoginInAndUserIdNot(final Collection<String> normalizedLogins, final Long id);
+
+    @Query("select l.normalizedLogin from UserLogin l where l.normalizedLogin in :normalizedLogins")
+    List<String> findNormalizedLoginsIn(@Param("normalizedLogins") Collection<String> normalizedLogins);
 
     Optional<UserLogin> findOneByLogin(final String login);
 
@@ -8,13 +8,18 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Repository;
 
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 
 @Repository
 public class UserPermittedRepository extends PermittedRepository {
 
-    public UserPermittedRepository(PermissionCheckService permissionCheckService) {
+    private final KeysetRepository keysetRepository;
+
+    public UserPermittedRepository(PermissionCheckService permissionCheckService,
+                                   KeysetRepository keysetRepository) {
         super(permissionCheckService);
+        this.keysetRepository = keysetRepository;
     }
 
     /**
@@ -32,6 +37,23 @@ public class UserPermittedRepository extends PermittedRepository {
         return findByCondition(whereCondition, conditionParams, pageable, getType(), privilegeKey);
     }
 
+    /**
+     * Find permitted users, optionally by role key, with id greater than the given one, without a count query.
+     * @param afterId the last id of the previous page, null for the first page
+     * @param roleKey the role key, null for all roles
+     * @param limit the maximum number of users
+     * @param privilegeKey the privilege key
+     * @return permitted users ordered by id
+     */
+    public List<User> findAllAfterId(Long afterId, String roleKey, int limit, String privilegeKey) {
+        String whereCondition = roleKey != null ? "returnObject.roleKey = :roleKey" : null;
+        Map<String, Object> conditionParams = roleKey != null
+            ? Collections.singletonMap("roleKey", roleKey) : Collections.emptyMap();
+
+        return keysetRepository.findPermittedAfterId(getType(), whereCondition, conditionParams, afterId, limit,
+            privilegeKey);
+    }
+
     private Class<User> getType() {
         return User.class;
     }
@@ -1,15 +1,25 @@
 package com.icthh.xm.uaa.repository;
 
+import static org.hibernate.jpa.QueryHints.HINT_CACHE_MODE;
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
+
 import com.icthh.xm.commons.permission.access.repository.ResourceRepository;
 import com.icthh.xm.uaa.domain.User;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import java.util.stream.Stream;
+import javax.persistence.QueryHint;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 /**
  * Spring Data JPA repository for the User entity.
@@ -17,6 +27,8 @@ import org.springframework.stereotype.Repository;
 @Repository
 public interface UserRepository extends JpaRepository<User, Long>, ResourceRepository, JpaSpecificationExecutor<User> {
 
+    String STREAM_FETCH_SIZE = "500";
+
     Optional<User> findOneByUserKey(String userKey);
 
     Optional<User> findOneByActivationKey(String activationKey);
@@ -28,12 +40,51 @@ public interface UserRepository extends JpaRepository<User, Long>, ResourceRepos
     @EntityGraph(attributePaths = "logins")
     Optional<User> findOneWithLoginsByUserKey(String userKey);
 
-    @Override
-    @EntityGraph(attributePaths = "logins")
-    Page<User> findAll(Pageable pageable);
-
     List<User> findByRoleKey(String roleKey);
 
     @EntityGraph(attributePaths = "logins")
     List<User> findAllByUserKeyIn(List<String> userKeys);
+
+    /**
+     * Stream ids of all users through a forward-only cursor, to read the whole tenant in constant memory.
+     * Must be consumed and closed inside a transaction.
+     */
+    @QueryHints({
+        @QueryHint(name = HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE),
+        @QueryHint(name = HINT_READONLY, value = "true")
+    })
+    @Query("select u.id from User u order by u.id")
+    Stream<Long> streamAllIds();
+
+    /**
+     * Stream ids of users with the role, see {@link #streamAllIds()}.
+     */
+    @QueryHints({
+        @QueryHint(name = HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE),
+        @QueryHint(name = HINT_READONLY, value = "true")
+    })
+    @Query("select u.id from User u where u.roleKey = :roleKey order by u.id")
+    Stream<Long> streamIdsByRoleKey(@Param("roleKey") String roleKey);
+
+    /**
+     * Read users with logins by one query, bypassing the second level cache to not flood it on bulk reads.
+     */
+    @EntityGraph(attributePaths = "logins")
+    @QueryHints({
+        @QueryHint(name = HINT_READONLY, value = "true"),
+        @QueryHint(name = HINT_CACHE_MODE, value = "IGNORE")
+    })
+    List<User> findAllWithLoginsByIdIn(Collection<Long> ids);
+
+    /**
+     * Replaces the password hash only if it was not changed since {@code currentHash} was read.
+     *
+     * @return number of updated rows
+     */
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update User u set u.password = :newHash where u.userKey = :userKey and u.password = :currentHash")
+    int updatePasswordHash(@Param("userKey") String userKey,
+                           @Param("currentHash") String currentHash,
+                           @Param("newHash") String newHash);
 }
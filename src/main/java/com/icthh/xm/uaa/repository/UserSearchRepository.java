@@ -0,0 +1,158 @@
+package com.icthh.xm.uaa.repository;
+
+import com.icthh.xm.uaa.config.ApplicationProperties;
+import com.icthh.xm.uaa.domain.User;
+import com.icthh.xm.uaa.domain.UserLogin;
+import io.github.jhipster.service.filter.BooleanFilter;
+import io.github.jhipster.service.filter.Filter;
+import io.github.jhipster.service.filter.StringFilter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Ranked search of users by a char sequence in the first name, last name, authorities or any login.
+ * <p>
+ * Users matching the whole value rank above users matching its beginning, which rank above any other occurrence.
+ * On PostgreSQL the {@code like} conditions are served by the pg_trgm indexes on the searched columns, which the
+ * database keeps up to date on user and login writes; other databases run the same query without the indexes.
+ * The role key and activated filters are applied in the same query. The number of returned users and the query time
+ * are bounded by {@link ApplicationProperties.UserSearch}; the number of all matching users is counted by a separate
+ * query over the same conditions.
+ */
+@Repository
+@RequiredArgsConstructor
+public class UserSearchRepository {
+
+    private static final String TIMEOUT_HINT = "javax.persistence.query.timeout";
+
+    private static final String SEARCH_SELECT = "select m.id";
+    private static final String COUNT_SELECT = "select count(distinct m.id)";
+    private static final String SEARCH_QUERY = " from ("
+        + " select u.id as id, case"
+        + "  when upper(u.first_name) = :value or upper(u.last_name) = :value then 3"
+        + "  when upper(u.first_name) like :prefix or upper(u.last_name) like :prefix then 2"
+        + "  else 1 end as score"
+        + " from jhi_user u"
+        + " where upper(u.first_name) like :pattern or upper(u.last_name) like :pattern"
+        + "  or upper(u.authorities) like :pattern"
+        + " union all"
+        + " select u.id as id, case"
+        + "  when l.normalized_login = :login then 3"
+        + "  when l.normalized_login like :loginPrefix then 2"
+        + "  else 1 end as score"
+        + " from user_login l join jhi_user u on u.user_key = l.user_key"
+        + " where l.normalized_login like :loginPattern"
+        + ") m";
+    private static final String FILTER_JOIN = " join jhi_user f on f.id = m.id where ";
+    private static final String SEARCH_ORDER = " group by m.id order by max(m.score) desc, m.id";
+
+    private final EntityManager entityManager;
+    private final ApplicationProperties applicationProperties;
+
+    /**
+     * Find ids of users containing the value and matching the filters. Filters are applied before the number of
+     * users is limited, so the limit counts matching users only.
+     *
+     * @param value     the char sequence to search
+     * @param roleKey   the role key filter, may be null
+     * @param activated the activated filter, may be null
+     * @return user ids, best matches first, no more than {@link ApplicationProperties.UserSearch#getMaxResults()}
+     */
+    public List<Long> findRankedIds(String value, StringFilter roleKey, BooleanFilter activated) {
+        Query query = createQuery(SEARCH_SELECT, SEARCH_ORDER, value, roleKey, activated)
+            .setMaxResults(applicationProperties.getUserSearch().getMaxResults());
+
+        @SuppressWarnings("unchecked")
+        List<Number> rows = query.getResultList();
+        return rows.stream().map(Number::longValue).collect(Collectors.toList());
+    }
+
+    /**
+     * Count users containing the value and matching the filters, without the limit of {@link #findRankedIds}.
+     *
+     * @param value     the char sequence to search
+     * @param roleKey   the role key filter, may be null
+     * @param activated the activated filter, may be null
+     * @return the number of matching users
+     */
+    public long countRanked(String value, StringFilter roleKey, BooleanFilter activated) {
+        Number count = (Number) createQuery(COUNT_SELECT, "", value, roleKey, activated).getSingleResult();
+        return count.longValue();
+    }
+
+    private Query createQuery(String select, String suffix, String value, StringFilter roleKey,
+                              BooleanFilter activated) {
+        String upper = value.toUpperCase(Locale.ROOT);
+        String login = UserLogin.normalize(value);
+
+        List<String> conditions = new ArrayList<>();
+        Map<String, Object> params = new HashMap<>();
+        if (roleKey != null) {
+            addConditions(conditions, params, "f.role_key", "roleKey", roleKey);
+        }
+        if (activated != null) {
+            addConditions(conditions, params, "f.activated", "activated", activated);
+        }
+        String sql = select + SEARCH_QUERY
+            + (conditions.isEmpty() ? "" : FILTER_JOIN + String.join(" and ", conditions)) + suffix;
+
+        Query query = entityManager.createNativeQuery(sql)
+            .setParameter("value", upper)
+            .setParameter("prefix", upper + "%")
+            .setParameter("pattern", "%" + upper + "%")
+            .setParameter("login", login)
+            .setParameter("loginPrefix", login + "%")
+            .setParameter("loginPattern", "%" + login + "%")
+            .setHint(TIMEOUT_HINT, applicationProperties.getUserSearch().getTimeoutMillis());
+        params.forEach(query::setParameter);
+        return query;
+    }
+
+    /**
+     * Add SQL conditions of the filter, with the semantics of the jhipster {@code QueryService} specifications:
+     * {@code equals} and {@code in} replace other values, which are combined otherwise.
+     */
+    private static void addConditions(List<String> conditions, Map<String, Object> params, String column,
+                                      String name, Filter<?> filter) {
+        if (filter.getEquals() != null) {
+            conditions.add(column + " = :" + name);
+            params.put(name, filter.getEquals());
+            return;
+        }
+        if (filter.getIn() != null) {
+            if (filter.getIn().isEmpty()) {
+                conditions.add("1 = 0");
+            } else {
+                conditions.add(column + " in (:" + name + "In)");
+                params.put(name + "In", filter.getIn());
+            }
+            return;
+        }
+        if (filter instanceof StringFilter) {
+            StringFilter stringFilter = (StringFilter) filter;
+            if (stringFilter.getContains() != null) {
+                conditions.add("upper(" + column + ") like :" + name + "Contains");
+                params.put(name + "Contains", "%" + stringFilter.getContains().toUpperCase() + "%");
+            }
+            if (stringFilter.getDoesNotContain() != null) {
+                conditions.add("upper(" + column + ") not like :" + name + "DoesNotContain");
+                params.put(name + "DoesNotContain", "%" + stringFilter.getDoesNotContain().toUpperCase() + "%");
+            }
+        }
+        if (filter.getNotEquals() != null) {
+            conditions.add(column + " <> :" + name + "NotEquals");
+            params.put(name + "NotEquals", filter.getNotEquals());
+        }
+        if (filter.getSpecified() != null) {
+            conditions.add(column + (filter.getSpecified() ? " is not null" : " is null"));
+        }
+    }
+}
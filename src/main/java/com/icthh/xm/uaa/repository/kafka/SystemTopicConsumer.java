@@ -1,6 +1,17 @@
 package com.icthh.xm.uaa.repository.kafka;
 
+import static com.icthh.xm.uaa.config.Constants.SYSTEM_EVENT_PROP_LOGINS;
+import static com.icthh.xm.uaa.config.Constants.SYSTEM_EVENT_PROP_PRINCIPAL;
+import static com.icthh.xm.uaa.config.Constants.SYSTEM_EVENT_PROP_PRINCIPALS;
+import static com.icthh.xm.uaa.config.Constants.USER_ACTIVATION_CHANGED_EVENT_TYPE;
+import static com.icthh.xm.uaa.config.Constants.USER_OFFLINE_EVENT_TYPE;
+import static com.icthh.xm.uaa.config.Constants.USER_ONLINE_EVENT_TYPE;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.icthh.xm.commons.logging.util.MdcUtils;
+import com.icthh.xm.uaa.security.OnlineUsersCache;
+import com.icthh.xm.uaa.security.UserActivationCache;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
@@ -8,11 +19,24 @@ import org.springframework.retry.annotation.Backoff;
 import org.springframework.retry.annotation.Retryable;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Map;
+
 @Slf4j
 @RequiredArgsConstructor
 @Service
 public class SystemTopicConsumer {
 
+    private static final String EVENT_TYPE = "eventType";
+    private static final String TENANT_KEY = "tenantKey";
+    private static final String DATA = "data";
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private final UserActivationCache userActivationCache;
+    private final OnlineUsersCache onlineUsersCache;
+
     /**
      * Consume tenant command event message.
      *
@@ -25,8 +49,68 @@ public class SystemTopicConsumer {
         MdcUtils.putRid();
         try {
             log.info("Consume event from topic [{}]", message.topic());
+            Map<String, Object> event = readEvent(message.value());
+            if (event != null && USER_ACTIVATION_CHANGED_EVENT_TYPE.equals(event.get(EVENT_TYPE))) {
+                onUserActivationChanged(event);
+            } else if (event != null && USER_ONLINE_EVENT_TYPE.equals(event.get(EVENT_TYPE))) {
+                onUserOnline(event);
+            } else if (event != null && USER_OFFLINE_EVENT_TYPE.equals(event.get(EVENT_TYPE))) {
+                onUsersOffline(event);
+            }
         } finally {
             MdcUtils.removeRid();
         }
     }
+
+    @SuppressWarnings("unchecked")
+    private void onUserActivationChanged(Map<String, Object> event) {
+        Object tenantKey = event.get(TENANT_KEY);
+        Object data = event.get(DATA);
+        if (tenantKey == null || !(data instanceof Map)) {
+            log.warn("Skip {} event without tenant or data", USER_ACTIVATION_CHANGED_EVENT_TYPE);
+            return;
+        }
+        Object logins = ((Map<String, Object>) data).get(SYSTEM_EVENT_PROP_LOGINS);
+        if (logins instanceof Collection) {
+            userActivationCache.evict(tenantKey.toString(), (Collection<String>) logins);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void onUserOnline(Map<String, Object> event) {
+        Object tenantKey = event.get(TENANT_KEY);
+        Object data = event.get(DATA);
+        if (tenantKey == null || !(data instanceof Map)) {
+            log.warn("Skip {} event without tenant or data", USER_ONLINE_EVENT_TYPE);
+            return;
+        }
+        Object principal = ((Map<String, Object>) data).get(SYSTEM_EVENT_PROP_PRINCIPAL);
+        if (principal != null) {
+            onlineUsersCache.touch(tenantKey.toString(), principal.toString());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void onUsersOffline(Map<String, Object> event) {
+        Object tenantKey = event.get(TENANT_KEY);
+        Object data = event.get(DATA);
+        if (tenantKey == null || !(data instanceof Map)) {
+            log.warn("Skip {} event without tenant or data", USER_OFFLINE_EVENT_TYPE);
+            return;
+        }
+        Object principals = ((Map<String, Object>) data).get(SYSTEM_EVENT_PROP_PRINCIPALS);
+        if (principals instanceof Collection) {
+            onlineUsersCache.remove(tenantKey.toString(), (Collection<String>) principals);
+        }
+    }
+
+    private Map<String, Object> readEvent(String value) {
+        try {
+            return value != null ? mapper.readValue(value, new TypeReference<Map<String, Object>>() { }) : null;
+        } catch (IOException e) {
+            // the topic is shared with other services, skip messages that are not system events
+            log.warn("Skip system topic message that is not a system event: {}", e.getMessage());
+            return null;
+        }
+    }
 }
@@ -0,0 +1,90 @@
+package com.icthh.xm.uaa.repository.kafka;
+
+import static com.icthh.xm.uaa.config.Constants.SYSTEM_EVENT_PROP_LOGINS;
+import static com.icthh.xm.uaa.config.Constants.SYSTEM_EVENT_PROP_PRINCIPAL;
+import static com.icthh.xm.uaa.config.Constants.SYSTEM_EVENT_PROP_PRINCIPALS;
+import static com.icthh.xm.uaa.config.Constants.USER_ACTIVATION_CHANGED_EVENT_TYPE;
+import static com.icthh.xm.uaa.config.Constants.USER_OFFLINE_EVENT_TYPE;
+import static com.icthh.xm.uaa.config.Constants.USER_ONLINE_EVENT_TYPE;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.icthh.xm.commons.logging.util.MdcUtils;
+import com.icthh.xm.commons.messaging.event.system.SystemEvent;
+import com.icthh.xm.uaa.config.ApplicationProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Sends events to the system topic, which is consumed by every uaa instance.
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Service
+public class SystemTopicProducer {
+
+    private final KafkaTemplate<String, String> template;
+    private final ApplicationProperties applicationProperties;
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Value("${spring.application.name}")
+    private String appName;
+
+    /**
+     * Notify other instances that the activation state of the user with given logins changed.
+     *
+     * @param tenantKey the tenant key
+     * @param logins    the user logins
+     */
+    public void sendUserActivationChanged(String tenantKey, Collection<String> logins) {
+        send(tenantKey, USER_ACTIVATION_CHANGED_EVENT_TYPE, Map.of(SYSTEM_EVENT_PROP_LOGINS, logins));
+    }
+
+    /**
+     * Notify other instances that the user authenticated or refreshed the token.
+     *
+     * @param tenantKey the tenant key
+     * @param principal the user principal
+     */
+    public void sendUserOnline(String tenantKey, String principal) {
+        send(tenantKey, USER_ONLINE_EVENT_TYPE, Map.of(SYSTEM_EVENT_PROP_PRINCIPAL, principal));
+    }
+
+    /**
+     * Notify other instances that the users logged out or were removed.
+     *
+     * @param tenantKey  the tenant key
+     * @param principals the user principals
+     */
+    public void sendUsersOffline(String tenantKey, Collection<String> principals) {
+        send(tenantKey, USER_OFFLINE_EVENT_TYPE, Map.of(SYSTEM_EVENT_PROP_PRINCIPALS, principals));
+    }
+
+    private void send(String tenantKey, String eventType, Object data) {
+        if (!applicationProperties.isKafkaEnabled()) {
+            return;
+        }
+        SystemEvent event = new SystemEvent();
+        event.setEventId(MdcUtils.getRid());
+        event.setMessageSource(appName);
+        event.setEventType(eventType);
+        event.setTenantKey(tenantKey);
+        event.setStartDate(Instant.now().toString());
+        event.setData(data);
+        try {
+            String content = mapper.writeValueAsString(event);
+            log.debug("Sending kafka event to topic = '{}', data = '{}'",
+                applicationProperties.getKafkaSystemTopic(), content);
+            template.send(applicationProperties.getKafkaSystemTopic(), content);
+        } catch (JsonProcessingException e) {
+            log.warn("Error creating system topic event, error: {}", e.getMessage(), e);
+        }
+    }
+}
@@ -1,44 +1,37 @@
 package com.icthh.xm.uaa.security;
 
-import com.google.common.cache.Cache;
-import com.google.common.cache.CacheBuilder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 public class CachePasswordHashEncoder implements PasswordEncoder {
 
-    private static final int DEFAULT_CACHE_SIZE = 1000;
-
     private final PasswordEncoder passwordEncoder;
-        private final Cache<String, CharSequence> passwordCache;
+    private final PasswordHashCache passwordHashCache;
 
-        public CachePasswordHashEncoder(PasswordEncoder passwordEncoder, Integer cacheSize) {
-            this.passwordEncoder = passwordEncoder;
-            this.passwordCache = CacheBuilder.newBuilder()
-                .maximumSize(cacheSize != null ? cacheSize : DEFAULT_CACHE_SIZE)
-                .build();
-        }
+    public CachePasswordHashEncoder(PasswordEncoder passwordEncoder, PasswordHashCache passwordHashCache) {
+        this.passwordEncoder = passwordEncoder;
+        this.passwordHashCache = passwordHashCache;
+    }
 
-        @Override
-        public String encode(CharSequence rawPassword) {
-            return passwordEncoder.encode(rawPassword);
-        }
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return passwordEncoder.encode(rawPassword);
+    }
 
-        @Override
-        public boolean matches(CharSequence rawPassword, String encodedPassword) {
-            CharSequence cachedPassword = passwordCache.getIfPresent(encodedPassword);
-            if (cachedPassword != null && cachedPassword.equals(rawPassword)) {
-                return true;
-            } else {
-                boolean matchResult = passwordEncoder.matches(rawPassword, encodedPassword);
-                if (matchResult) {
-                    passwordCache.put(encodedPassword, rawPassword);
-                }
-                return matchResult;
-            }
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        if (passwordHashCache.isVerified(rawPassword, encodedPassword)) {
+            return true;
         }
 
-        @Override
-        public boolean upgradeEncoding(String encodedPassword) {
-            return passwordEncoder.upgradeEncoding(encodedPassword);
+        boolean matchResult = passwordEncoder.matches(rawPassword, encodedPassword);
+        if (matchResult) {
+            passwordHashCache.putVerified(rawPassword, encodedPassword);
         }
+        return matchResult;
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return passwordEncoder.upgradeEncoding(encodedPassword);
     }
+}
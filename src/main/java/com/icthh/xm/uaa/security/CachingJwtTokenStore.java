@@ -0,0 +1,175 @@
+package com.icthh.xm.uaa.security;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Hashing;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.oauth2.common.DefaultOAuth2AccessToken;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.token.store.JwtAccessTokenConverter;
+import org.springframework.security.oauth2.provider.token.store.JwtTokenStore;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link JwtTokenStore} that keeps verified access tokens and their authentications, so every JWT is
+ * decoded and signature-verified at most once while it is valid.
+ * <p>
+ * Entries are keyed by the SHA-256 digest of the token value and are dropped once the token expires.
+ * Callers get copies of the cached token and authentication, so changes made during one request do not leak
+ * into the next one.
+ */
+public class CachingJwtTokenStore extends JwtTokenStore {
+
+    private static final int DEFAULT_CACHE_SIZE = 10000;
+    private static final long MAX_ENTRY_TTL_MINUTES = 60;
+
+    private final Cache<String, VerifiedToken> verifiedTokens;
+
+    public CachingJwtTokenStore(JwtAccessTokenConverter jwtTokenEnhancer, Integer cacheSize) {
+        super(jwtTokenEnhancer);
+        this.verifiedTokens = CacheBuilder.newBuilder()
+            .maximumSize(cacheSize != null ? cacheSize : DEFAULT_CACHE_SIZE)
+            .expireAfterWrite(MAX_ENTRY_TTL_MINUTES, TimeUnit.MINUTES)
+            .build();
+    }
+
+    @Override
+    public OAuth2AccessToken readAccessToken(String tokenValue) {
+        String key = digest(tokenValue);
+        VerifiedToken verified = getVerified(key);
+        if (verified != null) {
+            return copyOf(verified.accessToken);
+        }
+
+        OAuth2AccessToken accessToken = super.readAccessToken(tokenValue);
+        if (accessToken != null && !accessToken.isExpired()) {
+            verifiedTokens.put(key, new VerifiedToken(accessToken));
+            return copyOf(accessToken);
+        }
+        return accessToken;
+    }
+
+    @Override
+    public OAuth2Authentication readAuthentication(OAuth2AccessToken token) {
+        return readAuthentication(token.getValue());
+    }
+
+    @Override
+    public OAuth2Authentication readAuthentication(String tokenValue) {
+        VerifiedToken verified = getVerified(digest(tokenValue));
+        if (verified == null) {
+            return super.readAuthentication(tokenValue);
+        }
+
+        OAuth2Authentication authentication = verified.authentication;
+        if (authentication == null) {
+            authentication = super.readAuthentication(tokenValue);
+            verified.authentication = authentication;
+        }
+        return copyOf(authentication);
+    }
+
+    @Override
+    public void removeAccessToken(OAuth2AccessToken token) {
+        verifiedTokens.invalidate(digest(token.getValue()));
+        super.removeAccessToken(token);
+    }
+
+    private VerifiedToken getVerified(String key) {
+        VerifiedToken verified = verifiedTokens.getIfPresent(key);
+        if (verified != null && verified.isExpired()) {
+            verifiedTokens.invalidate(key);
+            return null;
+        }
+        return verified;
+    }
+
+    private static OAuth2AccessToken copyOf(OAuth2AccessToken accessToken) {
+        DefaultOAuth2AccessToken copy = new DefaultOAuth2AccessToken(accessToken);
+        if (accessToken.getScope() != null) {
+            copy.setScope(new LinkedHashSet<>(accessToken.getScope()));
+        }
+        copy.setAdditionalInformation(copyOf(accessToken.getAdditionalInformation()));
+        return copy;
+    }
+
+    /**
+     * Callers (e.g. OAuth2AuthenticationManager) set request details on the returned authentication,
+     * so the cached instance and its details must not be shared.
+     */
+    private static OAuth2Authentication copyOf(OAuth2Authentication authentication) {
+        if (authentication == null) {
+            return null;
+        }
+        Authentication userAuthentication = authentication.getUserAuthentication();
+        if (userAuthentication instanceof UsernamePasswordAuthenticationToken) {
+            UsernamePasswordAuthenticationToken userCopy = new UsernamePasswordAuthenticationToken(
+                userAuthentication.getPrincipal(), userAuthentication.getCredentials(),
+                userAuthentication.getAuthorities());
+            userCopy.setDetails(deepCopy(userAuthentication.getDetails()));
+            userAuthentication = userCopy;
+        }
+        OAuth2Authentication copy = new OAuth2Authentication(authentication.getOAuth2Request(), userAuthentication);
+        copy.setDetails(deepCopy(authentication.getDetails()));
+        return copy;
+    }
+
+    private static Map<String, Object> copyOf(Map<String, Object> map) {
+        Map<String, Object> copy = new LinkedHashMap<>(map.size());
+        map.forEach((key, value) -> copy.put(key, deepCopy(value)));
+        return copy;
+    }
+
+    /**
+     * Copy the maps and collections claims are decoded to, other values are immutable.
+     */
+    @SuppressWarnings("unchecked")
+    private static Object deepCopy(Object value) {
+        if (value instanceof Map) {
+            return copyOf((Map<String, Object>) value);
+        }
+        if (value instanceof Set) {
+            Set<Object> copy = new LinkedHashSet<>();
+            ((Set<Object>) value).forEach(element -> copy.add(deepCopy(element)));
+            return copy;
+        }
+        if (value instanceof Collection) {
+            Collection<Object> copy = new ArrayList<>();
+            ((Collection<Object>) value).forEach(element -> copy.add(deepCopy(element)));
+            return copy;
+        }
+        return value;
+    }
+
+    private static String digest(String tokenValue) {
+        return Hashing.sha256().hashString(tokenValue, StandardCharsets.UTF_8).toString();
+    }
+
+    private static class VerifiedToken {
+
+        private final OAuth2AccessToken accessToken;
+        private final long expiresAt;
+        private volatile OAuth2Authentication authentication;
+
+        VerifiedToken(OAuth2AccessToken accessToken) {
+            this.accessToken = accessToken;
+            Date expiration = accessToken.getExpiration();
+            this.expiresAt = expiration != null ? expiration.getTime() : Long.MAX_VALUE;
+        }
+
+        boolean isExpired() {
+            return System.currentTimeMillis() >= expiresAt;
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.icthh.xm.uaa.security;
+
+import com.icthh.xm.commons.logging.aop.IgnoreLogginAspect;
+import com.icthh.xm.commons.tenant.TenantContextHolder;
+import com.icthh.xm.commons.tenant.TenantContextUtils;
+import com.icthh.xm.uaa.config.ApplicationProperties;
+import com.icthh.xm.uaa.service.TenantPropertiesChangeListener;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.oauth2.provider.ClientDetails;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Per-tenant cache of resolved {@link ClientDetails}.
+ * <p>
+ * Every tenant entry carries a version that is bumped on invalidation, so a value loaded
+ * concurrently with an invalidation is never stored. Clients changed on another instance or directly in the
+ * database are not evicted here, so the tenant entry is also invalidated once the TTL since its last
+ * invalidation has passed.
+ */
+@Slf4j
+@Component
+@IgnoreLogginAspect
+public class ClientDetailsCache implements TenantPropertiesChangeListener {
+
+    private static final int DEFAULT_TTL_SECONDS = 60;
+
+    private final Map<String, TenantClients> tenantClients = new ConcurrentHashMap<>();
+
+    private final TenantContextHolder tenantContextHolder;
+    private final long ttlNanos;
+
+    public ClientDetailsCache(TenantContextHolder tenantContextHolder, ApplicationProperties applicationProperties) {
+        this.tenantContextHolder = tenantContextHolder;
+        Integer ttl = applicationProperties.getSecurity().getClientDetailsCacheTtlSeconds();
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttl != null ? ttl : DEFAULT_TTL_SECONDS);
+    }
+
+    /**
+     * Get client details of the current tenant, loading and caching them on miss.
+     *
+     * @param clientId the client id
+     * @param loader   loads client details on cache miss, may throw to signal a missing or blocked client
+     * @return client details
+     */
+    public ClientDetails get(String clientId, Function<String, ClientDetails> loader) {
+        TenantClients clients = getTenantClients();
+        ClientDetails cached = clients.details.get(clientId);
+        if (cached != null) {
+            return cached;
+        }
+
+        long version = clients.getVersion();
+        ClientDetails loaded = loader.apply(clientId);
+        if (loaded != null) {
+            clients.putIfVersion(clientId, loaded, version);
+        }
+        return loaded;
+    }
+
+    /**
+     * Get the version of the current tenant clients, it changes on every invalidation.
+     * Lets dependent components tell whether values derived from client details are outdated.
+     *
+     * @return current version
+     */
+    public long getVersion() {
+        return getTenantClients().getVersion();
+    }
+
+    /**
+     * Invalidate clients of the current tenant. When called inside a transaction the entry is
+     * invalidated once more after commit, so values read before the commit are not kept.
+     */
+    public void evictCurrentTenant() {
+        String tenantKey = getTenantKey();
+        evict(tenantKey);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCommit() {
+                    evict(tenantKey);
+                }
+            });
+        }
+    }
+
+    public void evict(String tenantKey) {
+        TenantClients clients = tenantClients.get(tenantKey.toUpperCase());
+        if (clients != null) {
+            clients.invalidate();
+            log.debug("Client details cache invalidated for tenant {}", tenantKey);
+        }
+    }
+
+    @Override
+    public void onTenantPropertiesChanged(String tenantKey) {
+        evict(tenantKey);
+    }
+
+    private TenantClients getTenantClients() {
+        TenantClients clients = tenantClients.computeIfAbsent(getTenantKey(), key -> new TenantClients());
+        clients.invalidateIfExpired();
+        return clients;
+    }
+
+    private String getTenantKey() {
+        return TenantContextUtils.getRequiredTenantKeyValue(tenantContextHolder).toUpperCase();
+    }
+
+    private class TenantClients {
+
+        private final Map<String, ClientDetails> details = new ConcurrentHashMap<>();
+        // written under the monitor, read without it on every token request
+        private volatile long version;
+        private volatile long invalidatedAt = System.nanoTime();
+
+        long getVersion() {
+            return version;
+        }
+
+        synchronized void putIfVersion(String clientId, ClientDetails clientDetails, long loadedVersion) {
+            if (version == loadedVersion) {
+                details.put(clientId, clientDetails);
+            }
+        }
+
+        void invalidateIfExpired() {
+            if (isExpired()) {
+                synchronized (this) {
+                    // another thread may have invalidated the entry meanwhile
+                    if (isExpired()) {
+                        invalidate();
+                    }
+                }
+            }
+        }
+
+        private boolean isExpired() {
+            return System.nanoTime() - invalidatedAt >= ttlNanos;
+        }
+
+        synchronized void invalidate() {
+            version++;
+            details.clear();
+            invalidatedAt = System.nanoTime();
+        }
+    }
+}
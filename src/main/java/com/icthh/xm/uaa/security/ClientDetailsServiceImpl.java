@@ -33,12 +33,17 @@ public class ClientDetailsServiceImpl implements ClientDetailsService {
 
     private final TenantPropertiesService tenantPropertiesService;
 
+    private final ClientDetailsCache clientDetailsCache;
+
     @LogicExtensionPoint("LoadClientByClientId")
     @Override
     public ClientDetails loadClientByClientId(String clientId) throws ClientRegistrationException {
+        Preconditions.checkNotNull(clientId);
+        return clientDetailsCache.get(clientId, this::loadClientDetails);
+    }
 
+    private ClientDetails loadClientDetails(String clientId) {
         log.info("Load client with clientId={}", clientId);
-        Preconditions.checkNotNull(clientId);
         Client principal;
 
         if (applicationProperties.getDefaultClientId().contains(clientId)) {
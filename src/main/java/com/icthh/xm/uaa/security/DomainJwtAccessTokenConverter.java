@@ -12,10 +12,12 @@ import static com.icthh.xm.uaa.config.Constants.TOKEN_AUTH_DETAILS_TFA_DESTINATI
 import static com.icthh.xm.uaa.config.Constants.TOKEN_AUTH_DETAILS_TFA_OTP_CHANNEL_TYPE;
 import static com.icthh.xm.uaa.config.Constants.TOKEN_AUTH_DETAILS_TFA_OTP_ID;
 import static com.icthh.xm.uaa.config.Constants.TOKEN_AUTH_DETAILS_TFA_VERIFICATION_OTP_KEY;
+import static org.apache.commons.collections.MapUtils.isEmpty;
 import static org.apache.commons.collections.MapUtils.isNotEmpty;
 
 import com.icthh.xm.commons.tenant.TenantContextHolder;
 import com.icthh.xm.uaa.domain.OtpChannelType;
+import com.icthh.xm.uaa.domain.properties.TenantProperties;
 import com.icthh.xm.uaa.service.otp.OtpType;
 import com.icthh.xm.uaa.service.TenantPropertiesService;
 
@@ -23,7 +25,9 @@ import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import org.apache.commons.collections.CollectionUtils;
 import org.springframework.security.core.GrantedAuthority;
@@ -45,6 +49,8 @@ public class DomainJwtAccessTokenConverter extends JwtAccessTokenConverter {
     private final TenantPropertiesService tenantPropertiesService;
     private final DomainJwtAccessTokenDetailsPostProcessor tokenDetailsProcessor;
 
+    private final Map<String, TenantClaims> tenantClaims = new ConcurrentHashMap<>();
+
     @Override
     public OAuth2AccessToken enhance(OAuth2AccessToken accessToken, OAuth2Authentication authentication) {
         if (accessToken instanceof DefaultOAuth2AccessToken) {
@@ -57,7 +63,12 @@ public class DomainJwtAccessTokenConverter extends JwtAccessTokenConverter {
             enrichCustomDetails(authentication, authDetails);
 
             Map<String, Object> existingInfo = accessToken.getAdditionalInformation();
-            Map<String, Object> additionalInformation = existingInfo != null ? new HashMap<>(existingInfo) : new HashMap<>();
+            int size = authDetails.size() + (existingInfo != null ? existingInfo.size() : 0);
+            // sized for the refresh token expiration added after encoding
+            Map<String, Object> additionalInformation = new HashMap<>(capacity(size + 1));
+            if (existingInfo != null) {
+                additionalInformation.putAll(existingInfo);
+            }
             additionalInformation.putAll(authDetails);
             ((DefaultOAuth2AccessToken) accessToken).setAdditionalInformation(additionalInformation);
         }
@@ -86,7 +97,8 @@ public class DomainJwtAccessTokenConverter extends JwtAccessTokenConverter {
 
     private void enrichCustomDetails(OAuth2Authentication authentication, Map<String, Object> details) {
         final Object principal = authentication.getPrincipal();
-        details.put(AUTH_TENANT_KEY, getRequiredTenantKeyValue(tenantContextHolder));
+        String tenantKey = getRequiredTenantKeyValue(tenantContextHolder);
+        details.put(AUTH_TENANT_KEY, tenantKey);
 
         tokenDetailsProcessor.processJwtAccessTokenDetails(authentication, details);
 
@@ -103,8 +115,11 @@ public class DomainJwtAccessTokenConverter extends JwtAccessTokenConverter {
 
                 String tfaOtpChannelTypeName = userDetails.getTfaOtpChannelType().map(OtpChannelType::getTypeName).orElse(null);
                 details.put(TOKEN_AUTH_DETAILS_TFA_OTP_CHANNEL_TYPE, tfaOtpChannelTypeName);
+                return;
+            }
 
-            } else if (OtpType.OTP_MS.equals(tenantPropertiesService.getTenantProps().getSecurity().getTfaOtpType()) && userDetails.isOtpIdPresent()) {
+            TenantClaims claims = getTenantClaims(tenantKey);
+            if (claims.isOtpMs() && userDetails.isOtpIdPresent()) {
                 Long otpId = userDetails.getOtpId();
                 String destination = userDetails.getAdditionalDetails().get(TOKEN_AUTH_DETAILS_TFA_DESTINATION);
                 details.put(TOKEN_AUTH_DETAILS_TFA_OTP_ID, otpId.toString());
@@ -113,21 +128,57 @@ public class DomainJwtAccessTokenConverter extends JwtAccessTokenConverter {
             } else {
                 details.put(AUTH_LOGINS_KEY, userDetails.getLogins());
                 details.put(AUTH_ROLE_KEY, getOptionalRoleKey(userDetails.getAuthorities()));
-                Map<String, Object> additionalDetails =
-                    (Map<String, Object>) details.getOrDefault(AUTH_ADDITIONAL_DETAILS, new HashMap<>());
-                if (isNotEmpty(userDetails.getAdditionalDetails())) {
-                    additionalDetails.putAll(userDetails.getAdditionalDetails());
-                }
-                if (tenantPropertiesService.getTenantProps().getSecurity().isMultiRoleEnabled()) {
-                    additionalDetails.put(MULTI_ROLE_ENABLED, true);
-                }
-                if (additionalDetails.size() > 0) {
+                Map<String, Object> additionalDetails = mergeAdditionalDetails(
+                    (Map<String, Object>) details.get(AUTH_ADDITIONAL_DETAILS),
+                    userDetails.getAdditionalDetails(), claims.getAdditionalDetails());
+                if (additionalDetails != null) {
                     details.put(AUTH_ADDITIONAL_DETAILS, additionalDetails);
                 }
             }
         }
     }
 
+    /**
+     * Merges request, user and tenant additional details. A map is allocated only when there are any details,
+     * later enhancers and LEPs may change it, so the tenant details shared by all tokens are always copied.
+     */
+    private static Map<String, Object> mergeAdditionalDetails(Map<String, Object> requestDetails,
+                                                              Map<String, String> userDetails,
+                                                              Map<String, Object> tenantDetails) {
+        if (isEmpty(requestDetails) && isEmpty(userDetails)) {
+            return tenantDetails.isEmpty() ? null : new HashMap<>(tenantDetails);
+        }
+        int size = tenantDetails.size();
+        size += requestDetails != null ? requestDetails.size() : 0;
+        size += userDetails != null ? userDetails.size() : 0;
+        Map<String, Object> merged = new HashMap<>(capacity(size));
+        if (isNotEmpty(requestDetails)) {
+            merged.putAll(requestDetails);
+        }
+        if (isNotEmpty(userDetails)) {
+            merged.putAll(userDetails);
+        }
+        merged.putAll(tenantDetails);
+        return merged;
+    }
+
+    /**
+     * Tenant invariant claims are rebuilt only when the tenant security properties were reloaded.
+     */
+    private TenantClaims getTenantClaims(String tenantKey) {
+        TenantProperties.Security security = tenantPropertiesService.getTenantProps().getSecurity();
+        TenantClaims claims = tenantClaims.get(tenantKey);
+        if (claims == null || claims.getSecurity() != security) {
+            claims = new TenantClaims(security);
+            tenantClaims.put(tenantKey, claims);
+        }
+        return claims;
+    }
+
+    private static int capacity(int size) {
+        return (int) (size / 0.75f) + 1;
+    }
+
     private static String getOptionalRoleKey(Collection<GrantedAuthority> authorities) {
         if (CollectionUtils.isNotEmpty(authorities)) {
             GrantedAuthority authority = authorities.iterator().next();
@@ -161,4 +212,20 @@ public class DomainJwtAccessTokenConverter extends JwtAccessTokenConverter {
         }
     }
 
+    /**
+     * Claims that depend only on the tenant security properties.
+     */
+    @Getter
+    private static final class TenantClaims {
+
+        private final TenantProperties.Security security;
+        private final boolean otpMs;
+        private final Map<String, Object> additionalDetails;
+
+        private TenantClaims(TenantProperties.Security security) {
+            this.security = security;
+            this.otpMs = OtpType.OTP_MS.equals(security.getTfaOtpType());
+            this.additionalDetails = security.isMultiRoleEnabled() ? Map.of(MULTI_ROLE_ENABLED, true) : Map.of();
+        }
+    }
 }
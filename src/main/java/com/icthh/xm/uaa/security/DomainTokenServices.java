@@ -81,6 +81,8 @@ public class DomainTokenServices implements AuthorizationServerTokenServices, Re
     private UserSecurityValidator userSecurityValidator;
     @Setter
     private List<OtpGenerationStrategy> otpGenerationStrategies;
+    @Setter
+    private OnlineUsersCache onlineUsersCache;
 
     /**
      * Initialize these token services. If no random generator is set, one will be created.
@@ -259,6 +261,9 @@ public class DomainTokenServices implements AuthorizationServerTokenServices, Re
         if (tenantPropertiesService.getTenantProps().getSecurity().isReIssueRefreshToken()) {
             tokenStore.storeRefreshToken(accessToken.getRefreshToken(), authentication);
         }
+        if (onlineUsersCache != null && !authentication.isClientOnly()) {
+            onlineUsersCache.touch(authentication.getName());
+        }
         return accessToken;
     }
 
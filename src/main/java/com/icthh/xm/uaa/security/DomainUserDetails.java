@@ -7,6 +7,7 @@ import org.apache.commons.lang3.builder.EqualsBuilder;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
 import org.apache.commons.lang3.builder.ToStringBuilder;
 import org.apache.commons.lang3.builder.ToStringStyle;
+import org.jboss.aerogear.security.otp.api.Base32;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.User;
 
@@ -23,7 +24,7 @@ import static java.util.Collections.emptyList;
 public class DomainUserDetails extends User {
 
     private final boolean tfaEnabled;
-    private final String tfaOtpSecret;
+    private volatile String tfaOtpSecret;
     private final Integer tfaAccessTokenValiditySeconds;
 
     private String authOtpCode;
@@ -146,6 +147,24 @@ public class DomainUserDetails extends User {
         this.langKey = langKey;
     }
 
+    /**
+     * TOTP secret, a random one is generated on first use when none was given. Concurrent callers get the same
+     * secret.
+     */
+    public String getTfaOtpSecret() {
+        String secret = tfaOtpSecret;
+        if (secret == null) {
+            synchronized (this) {
+                secret = tfaOtpSecret;
+                if (secret == null) {
+                    secret = Base32.random();
+                    tfaOtpSecret = secret;
+                }
+            }
+        }
+        return secret;
+    }
+
     public Optional<String> getTfaEncodedOtp() {
         return Optional.ofNullable(tfaEncodedOtp);
     }
@@ -61,6 +61,20 @@ public class DomainUserDetailsService implements UserDetailsService {
             .map(userLogin -> buildDomainUserDetails(lowerLogin, tenantKey, userLogin.getUser()));
     }
 
+    /**
+     * Build user details of the current tenant from a user that was just loaded or saved, without reading it again.
+     * Runs the same LoadUserByUsername LEP as {@link #loadUserByUsername(String)}, with the user as an extra argument.
+     *
+     * @param login the login the user authenticated with
+     * @param user  the user with logins
+     * @return user details
+     */
+    @IgnoreLogginAspect
+    @LogicExtensionPoint("LoadUserByUsername")
+    public DomainUserDetails buildUserDetails(final String login, User user) {
+        return buildDomainUserDetails(login.toLowerCase().trim(), getTenantKey(), user);
+    }
+
     private String getTenantKey() {
         return tenantContextHolder.getContext()
             .getTenantKey()
@@ -101,7 +115,7 @@ public class DomainUserDetailsService implements UserDetailsService {
             user.getOtpCode(),
             user.getOtpCodeCreationDate(),
             user.isTfaEnabled(),
-            user.getTfaOtpSecret(),
+            null, // secret is generated on demand by DomainUserDetails
             user.getTfaOtpChannelType(),
             user.getAccessTokenValiditySeconds(),
             user.getRefreshTokenValiditySeconds(),
@@ -0,0 +1,163 @@
+package com.icthh.xm.uaa.security;
+
+import static org.springframework.boot.actuate.security.AuthenticationAuditListener.AUTHENTICATION_SUCCESS;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.icthh.xm.commons.logging.aop.IgnoreLogginAspect;
+import com.icthh.xm.commons.tenant.TenantContextHolder;
+import com.icthh.xm.commons.tenant.TenantContextUtils;
+import com.icthh.xm.uaa.config.ApplicationProperties;
+import com.icthh.xm.uaa.config.Constants;
+import com.icthh.xm.uaa.repository.kafka.SystemTopicProducer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.actuate.audit.AuditEvent;
+import org.springframework.boot.actuate.audit.listener.AuditApplicationEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-tenant principals seen within the access token lifetime, used to count online users without reading
+ * the audit table.
+ * <p>
+ * Principals are added on successful authentication and on token refresh, and expire when the access token issued
+ * at that moment would. When the broadcast is enabled, other instances are notified via the system topic, so every
+ * instance counts the users of the whole cluster, otherwise each instance counts its own users. Removals are always
+ * sent to other instances, as they may have seen the user too.
+ */
+@Slf4j
+@Component
+@IgnoreLogginAspect
+public class OnlineUsersCache {
+
+    private static final int DEFAULT_CACHE_SIZE = 10000;
+
+    private final Map<String, Cache<String, Boolean>> tenantUsers = new ConcurrentHashMap<>();
+
+    private final TenantContextHolder tenantContextHolder;
+    private final SystemTopicProducer systemTopicProducer;
+    private final int ttlSeconds;
+    private final int cacheSize;
+    private final boolean broadcastEnabled;
+
+    public OnlineUsersCache(TenantContextHolder tenantContextHolder,
+                            SystemTopicProducer systemTopicProducer,
+                            TokenConstraintsService tokenConstraintsService,
+                            ApplicationProperties applicationProperties) {
+        this.tenantContextHolder = tenantContextHolder;
+        this.systemTopicProducer = systemTopicProducer;
+        this.ttlSeconds = tokenConstraintsService.getDefaultAccessTokenValiditySeconds();
+        ApplicationProperties.Security security = applicationProperties.getSecurity();
+        Integer size = security.getOnlineUsersCacheSize();
+        this.cacheSize = size != null ? size : DEFAULT_CACHE_SIZE;
+        this.broadcastEnabled = security.isOnlineUsersBroadcastEnabled();
+    }
+
+    @EventListener
+    public void onAuditEvent(AuditApplicationEvent event) {
+        AuditEvent auditEvent = event.getAuditEvent();
+        if (AUTHENTICATION_SUCCESS.equals(auditEvent.getType())) {
+            touch(auditEvent.getPrincipal());
+        }
+    }
+
+    /**
+     * Mark the user of the current tenant online, on all instances when the broadcast is enabled.
+     *
+     * @param principal the user principal
+     */
+    public void touch(String principal) {
+        if (principal == null || Constants.ANONYMOUS_USER.equals(principal)) {
+            return;
+        }
+        tenantContextHolder.getContext().getTenantKey().ifPresent(tenant -> {
+            String tenantKey = tenant.getValue().toUpperCase();
+            touch(tenantKey, principal);
+            if (broadcastEnabled) {
+                systemTopicProducer.sendUserOnline(tenantKey, principal);
+            }
+        });
+    }
+
+    /**
+     * Mark the user of the tenant online on this instance only.
+     *
+     * @param tenantKey the tenant key
+     * @param principal the user principal
+     */
+    public void touch(String tenantKey, String principal) {
+        getUsers(tenantKey.toUpperCase()).put(principal, Boolean.TRUE);
+    }
+
+    /**
+     * Remove the user of the current tenant on all instances, e.g. on logout.
+     *
+     * @param principal the user principal
+     */
+    public void remove(String principal) {
+        remove(List.of(principal));
+    }
+
+    /**
+     * Remove the users of the current tenant on all instances. When called inside a transaction other instances
+     * are notified after commit.
+     *
+     * @param principals the user principals
+     */
+    public void remove(Collection<String> principals) {
+        String tenantKey = getTenantKey();
+        remove(tenantKey, principals);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCommit() {
+                    systemTopicProducer.sendUsersOffline(tenantKey, principals);
+                }
+            });
+        } else {
+            systemTopicProducer.sendUsersOffline(tenantKey, principals);
+        }
+    }
+
+    /**
+     * Remove the users of the tenant on this instance only.
+     *
+     * @param tenantKey  the tenant key
+     * @param principals the user principals
+     */
+    public void remove(String tenantKey, Collection<String> principals) {
+        getUsers(tenantKey.toUpperCase()).invalidateAll(principals);
+    }
+
+    /**
+     * Count online users of the current tenant.
+     *
+     * @return the number of principals seen within the access token lifetime
+     */
+    public long count() {
+        Cache<String, Boolean> users = getUsers(getTenantKey());
+        // drops the expired principals, so they are not counted
+        users.cleanUp();
+        return users.size();
+    }
+
+    private Cache<String, Boolean> getUsers(String tenantKey) {
+        return tenantUsers.computeIfAbsent(tenantKey, tenant -> CacheBuilder.newBuilder()
+            .maximumSize(cacheSize)
+            .expireAfterWrite(ttlSeconds, TimeUnit.SECONDS)
+            .build());
+    }
+
+    private String getTenantKey() {
+        return TenantContextUtils.getRequiredTenantKeyValue(tenantContextHolder).toUpperCase();
+    }
+}
@@ -0,0 +1,104 @@
+package com.icthh.xm.uaa.security;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalNotification;
+import lombok.SneakyThrows;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cache of successfully verified credentials, keyed by the stored password hash.
+ * <p>
+ * Raw passwords are never kept: the cache holds an HMAC of the presented password computed with a
+ * secret generated on start, so the cache content is useless outside of the running process.
+ */
+public class PasswordHashCache {
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final int SECRET_LENGTH = 32;
+    private static final int DEFAULT_CACHE_SIZE = 1000;
+    private static final int DEFAULT_TTL_SECONDS = 3600;
+    private static final String METRIC_PREFIX = "password-hash-cache";
+
+    private final SecretKeySpec secret;
+    private final ThreadLocal<Mac> mac;
+    private final Cache<String, byte[]> cache;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+
+    public PasswordHashCache(Integer cacheSize, Integer ttlSeconds, MetricRegistry metricRegistry) {
+        byte[] key = new byte[SECRET_LENGTH];
+        new SecureRandom().nextBytes(key);
+        this.secret = new SecretKeySpec(key, HMAC_ALGORITHM);
+        this.mac = ThreadLocal.withInitial(this::createMac);
+
+        this.cache = CacheBuilder.newBuilder()
+            .maximumSize(cacheSize != null ? cacheSize : DEFAULT_CACHE_SIZE)
+            .expireAfterWrite(ttlSeconds != null ? ttlSeconds : DEFAULT_TTL_SECONDS, TimeUnit.SECONDS)
+            .removalListener(this::onRemoval)
+            .build();
+
+        this.hits = metricRegistry.counter(MetricRegistry.name(METRIC_PREFIX, "hits"));
+        this.misses = metricRegistry.counter(MetricRegistry.name(METRIC_PREFIX, "misses"));
+        this.evictions = metricRegistry.counter(MetricRegistry.name(METRIC_PREFIX, "evictions"));
+    }
+
+    /**
+     * Check whether the raw password was already verified against the encoded password.
+     *
+     * @param rawPassword     the presented password
+     * @param encodedPassword the stored password hash
+     * @return true if the pair was verified before and is still cached
+     */
+    public boolean isVerified(CharSequence rawPassword, String encodedPassword) {
+        byte[] cached = encodedPassword != null ? cache.getIfPresent(encodedPassword) : null;
+        if (cached != null && MessageDigest.isEqual(cached, hmac(rawPassword))) {
+            hits.inc();
+            return true;
+        }
+        misses.inc();
+        return false;
+    }
+
+    public void putVerified(CharSequence rawPassword, String encodedPassword) {
+        cache.put(encodedPassword, hmac(rawPassword));
+    }
+
+    /**
+     * Drop the cached credential, e.g. when the password is changed.
+     *
+     * @param encodedPassword the stored password hash
+     */
+    public void evict(String encodedPassword) {
+        if (encodedPassword != null) {
+            cache.invalidate(encodedPassword);
+        }
+    }
+
+    private void onRemoval(RemovalNotification<String, byte[]> notification) {
+        if (notification.wasEvicted()) {
+            evictions.inc();
+        }
+    }
+
+    private byte[] hmac(CharSequence rawPassword) {
+        return mac.get().doFinal(rawPassword.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    @SneakyThrows
+    private Mac createMac() {
+        Mac instance = Mac.getInstance(HMAC_ALGORITHM);
+        instance.init(secret);
+        return instance;
+    }
+}
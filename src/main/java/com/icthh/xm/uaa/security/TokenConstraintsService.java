@@ -1,6 +1,8 @@
 package com.icthh.xm.uaa.security;
 
 import com.icthh.xm.commons.logging.aop.IgnoreLogginAspect;
+import com.icthh.xm.commons.tenant.TenantContextHolder;
+import com.icthh.xm.commons.tenant.TenantContextUtils;
 import com.icthh.xm.uaa.config.ApplicationProperties;
 import com.icthh.xm.uaa.service.TenantPropertiesService;
 import lombok.RequiredArgsConstructor;
@@ -10,12 +12,15 @@ import org.springframework.security.oauth2.provider.OAuth2Authentication;
 import org.springframework.security.oauth2.provider.OAuth2Request;
 import org.springframework.stereotype.Service;
 
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
 
 import static java.util.Optional.ofNullable;
 import static org.apache.commons.lang3.ObjectUtils.firstNonNull;
+import static org.apache.commons.lang3.StringUtils.defaultString;
 
 /**
  * The {@link TokenConstraintsService} class.
@@ -39,11 +44,17 @@ public class TokenConstraintsService {
 
     private final ClientDetailsService clientDetailsService;
 
+    private final ClientDetailsCache clientDetailsCache;
+
+    private final TenantContextHolder tenantContextHolder;
+
+    private final Map<String, TenantTokenValidity> tokenValidityTable = new ConcurrentHashMap<>();
+
     public TokenValidity getTokenValidity(OAuth2Authentication authentication) {
-        Optional<ClientDetails> client = loadClient(authentication);
+        TokenValidity clientValidity = getClientTokenValidity(authentication);
         return new TokenValidity(
-            resolveAccessTokenValiditySeconds(authentication, clientAccessTokenValiditySeconds(() -> client)),
-            resolveRefreshTokenValiditySeconds(authentication, clientRefreshTokenValiditySeconds(() -> client)));
+            resolveAccessTokenValiditySeconds(authentication, clientValidity::getAccessTokenValiditySeconds),
+            resolveRefreshTokenValiditySeconds(authentication, clientValidity::getRefreshTokenValiditySeconds));
     }
 
     /**
@@ -54,19 +65,35 @@ public class TokenConstraintsService {
      */
     public int getAccessTokenValiditySeconds(OAuth2Authentication authentication) {
         return resolveAccessTokenValiditySeconds(authentication,
-            clientAccessTokenValiditySeconds(() -> loadClient(authentication)));
+            () -> getClientTokenValidity(authentication).getAccessTokenValiditySeconds());
     }
 
-    private Optional<ClientDetails> loadClient(OAuth2Authentication authentication) {
+    /**
+     * Resolves client level validity (client, tenant, application settings and defaults) from the per-tenant
+     * table. The table is rebuilt when {@link ClientDetailsCache} is invalidated, i.e. on client changes and
+     * tenant properties refresh.
+     */
+    private TokenValidity getClientTokenValidity(OAuth2Authentication authentication) {
         String clientId = authentication.getOAuth2Request().getClientId();
-        return ofNullable(clientId)
-            .map(clientDetailsService::loadClientByClientId);
+        String tenantKey = TenantContextUtils.getRequiredTenantKeyValue(tenantContextHolder).toUpperCase();
+        long version = clientDetailsCache.getVersion();
+
+        TenantTokenValidity table = tokenValidityTable.compute(tenantKey, (key, current) ->
+            current == null || current.version < version ? new TenantTokenValidity(version) : current);
+        if (table.version != version) {
+            // concurrent invalidation, do not store a value resolved for an outdated version
+            return buildClientTokenValidity(clientId);
+        }
+        return table.validity.computeIfAbsent(defaultString(clientId), key -> buildClientTokenValidity(clientId));
     }
 
-    private Supplier<Integer> clientAccessTokenValiditySeconds(Supplier<Optional<ClientDetails>> client) {
-        return () -> client.get()
-            .map(ClientDetails::getAccessTokenValiditySeconds)
-            .orElseGet(this::getTenantRelatedAccessTokenValiditySeconds);
+    private TokenValidity buildClientTokenValidity(String clientId) {
+        Optional<ClientDetails> client = ofNullable(clientId).map(clientDetailsService::loadClientByClientId);
+        return new TokenValidity(
+            client.map(ClientDetails::getAccessTokenValiditySeconds)
+                .orElseGet(this::getTenantRelatedAccessTokenValiditySeconds),
+            client.map(ClientDetails::getRefreshTokenValiditySeconds)
+                .orElseGet(this::getTenantRelatedRefreshTokenValiditySeconds));
     }
 
     private int resolveAccessTokenValiditySeconds(OAuth2Authentication authentication,
@@ -107,6 +134,14 @@ public class TokenConstraintsService {
         return defaultAccessTokenValiditySeconds;
     }
 
+    private int getTenantRelatedRefreshTokenValiditySeconds() {
+        return firstNonNull(
+            tenantPropertiesService.getTenantProps().getSecurity().getRefreshTokenValiditySeconds(),
+            applicationProperties.getSecurity().getRefreshTokenValiditySeconds(),
+            defaultRefreshTokenValiditySeconds
+        );
+    }
+
     /**
      * The refresh token validity period in seconds.
      *
@@ -115,18 +150,7 @@ public class TokenConstraintsService {
      */
     public int getRefreshTokenValiditySeconds(OAuth2Authentication authentication) {
         return resolveRefreshTokenValiditySeconds(authentication,
-            clientRefreshTokenValiditySeconds(() -> loadClient(authentication)));
-    }
-
-    private Supplier<Integer> clientRefreshTokenValiditySeconds(Supplier<Optional<ClientDetails>> client) {
-        return () -> client.get()
-            .map(ClientDetails::getRefreshTokenValiditySeconds)
-            .orElseGet(() -> firstNonNull(
-                    tenantPropertiesService.getTenantProps().getSecurity().getRefreshTokenValiditySeconds(),
-                    applicationProperties.getSecurity().getRefreshTokenValiditySeconds(),
-                    defaultRefreshTokenValiditySeconds
-                )
-            );
+            () -> getClientTokenValidity(authentication).getRefreshTokenValiditySeconds());
     }
 
     private int resolveRefreshTokenValiditySeconds(OAuth2Authentication authentication,
@@ -202,4 +226,14 @@ public class TokenConstraintsService {
     public boolean isSupportRefreshToken(OAuth2Request clientAuth) {
         return isSupportRefreshToken();
     }
+
+    private static class TenantTokenValidity {
+
+        private final long version;
+        private final Map<String, TokenValidity> validity = new ConcurrentHashMap<>();
+
+        TenantTokenValidity(long version) {
+            this.version = version;
+        }
+    }
 }
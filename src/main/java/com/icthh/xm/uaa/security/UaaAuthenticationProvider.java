@@ -15,6 +15,7 @@ import com.icthh.xm.uaa.lep.keyresolver.OptionalProfileHeaderResolver;
 import com.icthh.xm.uaa.security.ldap.LdapAuthenticationProviderBuilder;
 import com.icthh.xm.uaa.security.oauth2.tfa.TfaOtpAuthenticationToken;
 import com.icthh.xm.uaa.security.oauth2.tfa.TfaOtpMsAuthenticationToken;
+import com.icthh.xm.uaa.service.PasswordUpgradeService;
 import com.icthh.xm.uaa.service.TenantPropertiesService;
 import com.icthh.xm.uaa.service.UserService;
 import java.math.BigInteger;
@@ -44,6 +45,7 @@ public class UaaAuthenticationProvider implements AuthenticationProvider {
     private final UserService userService;
     private final TenantPropertiesService tenantPropertiesService;
     private final ApplicationProperties applicationProperties;
+    private final PasswordUpgradeService passwordUpgradeService;
     @Setter(onMethod = @__(@Autowired))
     private UaaAuthenticationProvider self;
 
@@ -52,12 +54,14 @@ public class UaaAuthenticationProvider implements AuthenticationProvider {
                                      LdapAuthenticationProviderBuilder providerBuilder,
                                      UserService userService,
                                      TenantPropertiesService tenantPropertiesService,
-                                     ApplicationProperties applicationProperties) {
+                                     ApplicationProperties applicationProperties,
+                                     PasswordUpgradeService passwordUpgradeService) {
         this.defaultProvider = defaultProvider;
         this.providerBuilder = providerBuilder;
         this.userService = userService;
         this.tenantPropertiesService = tenantPropertiesService;
         this.applicationProperties = applicationProperties;
+        this.passwordUpgradeService = passwordUpgradeService;
     }
 
     private AuthenticationProvider getProvider(Authentication authentication) {
@@ -84,13 +88,19 @@ public class UaaAuthenticationProvider implements AuthenticationProvider {
     @LogicExtensionPoint(value = "Authenticate", resolver = OptionalProfileHeaderResolver.class)
     @Override
     public Authentication authenticate(Authentication authentication) throws AuthenticationException {
-        Authentication result = authenticationByProvider(authentication);
+        AuthenticationProvider provider = getProvider(authentication);
+        Authentication result = authenticationByProvider(provider, authentication);
         log.info("authenticated: {}, role: {}, {}", result.isAuthenticated(), result.getAuthorities(), result.getPrincipal());
         checkPasswordExpiration(result);
         checkTermsOfConditions(result);
 
         DomainUserDetails domainUserDetails = (DomainUserDetails) result.getPrincipal();
         userService.onSuccessfulLogin(domainUserDetails.getUserKey());
+        // ldap users are verified by the directory, their stored hash is not used
+        if (provider == defaultProvider) {
+            passwordUpgradeService.upgradeIfNeeded(domainUserDetails.getUserKey(), domainUserDetails.getPassword(),
+                authentication.getCredentials());
+        }
 
         return result;
     }
@@ -135,9 +145,9 @@ public class UaaAuthenticationProvider implements AuthenticationProvider {
         return userService.getUser(domainUserDetails.getUserKey());
     }
 
-    private Authentication authenticationByProvider(Authentication authentication) {
+    private Authentication authenticationByProvider(AuthenticationProvider provider, Authentication authentication) {
         try {
-            return getProvider(authentication).authenticate(authentication);
+            return provider.authenticate(authentication);
         } catch (BadCredentialsException exception) {
             userService.increaseFailedPasswordAttempts(authentication.getName());
             throw exception;
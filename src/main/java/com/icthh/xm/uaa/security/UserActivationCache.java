@@ -0,0 +1,147 @@
+package com.icthh.xm.uaa.security;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.icthh.xm.commons.logging.aop.IgnoreLogginAspect;
+import com.icthh.xm.commons.tenant.TenantContextHolder;
+import com.icthh.xm.commons.tenant.TenantContextUtils;
+import com.icthh.xm.uaa.config.ApplicationProperties;
+import com.icthh.xm.uaa.domain.User;
+import com.icthh.xm.uaa.domain.UserLogin;
+import com.icthh.xm.uaa.repository.kafka.SystemTopicProducer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Per-tenant cache of activated users by login, used on the refresh token grant.
+ * <p>
+ * Only activated users are cached, so activating a user needs no invalidation. Deactivation and removal
+ * evict the user logins on this instance and, after commit, on the other instances via the system topic.
+ * The TTL bounds the staleness for changes made outside of {@link #evict(User)}, e.g. by LEP.
+ */
+@Slf4j
+@Component
+@IgnoreLogginAspect
+public class UserActivationCache {
+
+    private static final int DEFAULT_CACHE_SIZE = 10000;
+    private static final int DEFAULT_TTL_SECONDS = 60;
+
+    private final Map<String, TenantUsers> tenantUsers = new ConcurrentHashMap<>();
+
+    private final TenantContextHolder tenantContextHolder;
+    private final SystemTopicProducer systemTopicProducer;
+    private final int cacheSize;
+    private final int ttlSeconds;
+
+    public UserActivationCache(TenantContextHolder tenantContextHolder,
+                               SystemTopicProducer systemTopicProducer,
+                               ApplicationProperties applicationProperties) {
+        this.tenantContextHolder = tenantContextHolder;
+        this.systemTopicProducer = systemTopicProducer;
+        ApplicationProperties.Security security = applicationProperties.getSecurity();
+        Integer size = security.getUserActivationCacheSize();
+        Integer ttl = security.getUserActivationCacheTtlSeconds();
+        this.cacheSize = size != null ? size : DEFAULT_CACHE_SIZE;
+        this.ttlSeconds = ttl != null ? ttl : DEFAULT_TTL_SECONDS;
+    }
+
+    /**
+     * Check whether the user of the current tenant is activated.
+     *
+     * @param login  the user login
+     * @param loader resolves the activation state on cache miss
+     * @return true if the user is activated
+     */
+    public boolean isActivated(String login, Predicate<String> loader) {
+        String key = login.toLowerCase();
+        TenantUsers users = tenantUsers.computeIfAbsent(getTenantKey(), tenant -> new TenantUsers());
+        if (users.activated.getIfPresent(key) != null) {
+            return true;
+        }
+
+        long version = users.getVersion();
+        boolean activated = loader.test(login);
+        if (activated) {
+            users.putIfVersion(key, version);
+        }
+        return activated;
+    }
+
+    /**
+     * Evict the user of the current tenant. When called inside a transaction the logins are evicted once more
+     * after commit and only then other instances are notified, so they do not reload the state before the commit.
+     *
+     * @param user the user whose activation state changed or who was removed
+     */
+    public void evict(User user) {
+        String tenantKey = getTenantKey();
+        List<String> logins = user.getLogins().stream().map(UserLogin::getLogin).collect(Collectors.toList());
+        evict(tenantKey, logins);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCommit() {
+                    evict(tenantKey, logins);
+                    systemTopicProducer.sendUserActivationChanged(tenantKey, logins);
+                }
+            });
+        } else {
+            systemTopicProducer.sendUserActivationChanged(tenantKey, logins);
+        }
+    }
+
+    /**
+     * Evict the logins of the tenant on this instance only.
+     *
+     * @param tenantKey the tenant key
+     * @param logins    the user logins
+     */
+    public void evict(String tenantKey, Collection<String> logins) {
+        TenantUsers users = tenantUsers.get(tenantKey.toUpperCase());
+        if (users != null) {
+            users.invalidate(logins);
+            log.debug("User activation cache invalidated for tenant {}, logins {}", tenantKey, logins);
+        }
+    }
+
+    private String getTenantKey() {
+        return TenantContextUtils.getRequiredTenantKeyValue(tenantContextHolder).toUpperCase();
+    }
+
+    private class TenantUsers {
+
+        private final Cache<String, Boolean> activated = CacheBuilder.newBuilder()
+            .maximumSize(cacheSize)
+            .expireAfterWrite(ttlSeconds, TimeUnit.SECONDS)
+            .build();
+        private long version;
+
+        synchronized long getVersion() {
+            return version;
+        }
+
+        synchronized void putIfVersion(String login, long loadedVersion) {
+            // a concurrent eviction may have happened after the state was loaded
+            if (version == loadedVersion) {
+                activated.put(login, Boolean.TRUE);
+            }
+        }
+
+        synchronized void invalidate(Collection<String> logins) {
+            version++;
+            logins.forEach(login -> activated.invalidate(login.toLowerCase()));
+        }
+    }
+}
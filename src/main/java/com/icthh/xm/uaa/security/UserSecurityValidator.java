@@ -15,6 +15,7 @@ import org.springframework.stereotype.Component;
 public class UserSecurityValidator {
 
     private final UserService userService;
+    private final UserActivationCache userActivationCache;
 
     @LogicExtensionPoint("IsUserActivated")
     public boolean isUserActivated(Authentication authentication) {
@@ -23,6 +24,7 @@ public class UserSecurityValidator {
             throw new InvalidTokenException("Invalid principal");
         }
         String userLogin = (String) principal;
-        return userService.findOneByLogin(userLogin).map(User::isActivated).orElse(false);
+        return userActivationCache.isActivated(userLogin,
+            login -> userService.findOneByLogin(login).map(User::isActivated).orElse(false));
     }
 }
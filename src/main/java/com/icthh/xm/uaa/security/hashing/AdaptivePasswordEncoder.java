@@ -0,0 +1,131 @@
+package com.icthh.xm.uaa.security.hashing;
+
+import com.icthh.xm.uaa.domain.properties.TenantProperties.Security.PasswordEncoding;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Password encoder that follows the tenant {@link PasswordEncoding} policy.
+ * <p>
+ * Hashes are read in the {@code DelegatingPasswordEncoder} format: {@code {id}hash}. Bcrypt is the default
+ * algorithm and is stored without prefix, so existing hashes and the {@code varchar(60)} format stay valid.
+ * {@link #upgradeEncoding(String)} reports hashes whose algorithm or bcrypt cost differs from the tenant policy,
+ * so they can be re-hashed after a successful login.
+ */
+@Slf4j
+public class AdaptivePasswordEncoder implements PasswordEncoder {
+
+    public static final String BCRYPT = "bcrypt";
+
+    private static final String PREFIX = "{";
+    private static final String SUFFIX = "}";
+    private static final Pattern BCRYPT_COST = Pattern.compile("\\A\\$2[aby]?\\$(\\d\\d)\\$");
+
+    private final int defaultStrength;
+    private final Supplier<Optional<PasswordEncoding>> policy;
+    private final UnaryOperator<PasswordEncoder> decorator;
+    private final Map<String, PasswordEncoder> encoders;
+    private final Map<Integer, PasswordEncoder> bcryptEncoders = new ConcurrentHashMap<>();
+
+    /**
+     * @param defaultStrength bcrypt cost used when the tenant does not define one
+     * @param policy          password encoding policy of the current tenant
+     * @param encoders        encoders of the non bcrypt algorithms by {@code id}
+     * @param decorator       applied to every encoder that does the actual hashing
+     */
+    public AdaptivePasswordEncoder(int defaultStrength,
+                                   Supplier<Optional<PasswordEncoding>> policy,
+                                   Map<String, PasswordEncoder> encoders,
+                                   UnaryOperator<PasswordEncoder> decorator) {
+        this.defaultStrength = defaultStrength;
+        this.policy = policy;
+        this.decorator = decorator;
+        this.encoders = new ConcurrentHashMap<>();
+        encoders.forEach((id, encoder) -> this.encoders.put(id, decorator.apply(encoder)));
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        Optional<PasswordEncoding> encoding = policy.get();
+        String id = getAlgorithm(encoding);
+        if (BCRYPT.equals(id)) {
+            return getBcrypt(getStrength(encoding)).encode(rawPassword);
+        }
+        PasswordEncoder encoder = encoders.get(id);
+        if (encoder == null) {
+            throw new IllegalStateException("Password encoding algorithm is not supported: " + id);
+        }
+        return PREFIX + id + SUFFIX + encoder.encode(rawPassword);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+        String id = extractId(encodedPassword);
+        PasswordEncoder encoder = BCRYPT.equals(id) ? getBcrypt(defaultStrength) : encoders.get(id);
+        if (encoder == null) {
+            log.warn("Password hash algorithm is not supported: {}", id);
+            return false;
+        }
+        return encoder.matches(rawPassword, extractHash(encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+        Optional<PasswordEncoding> encoding = policy.get();
+        String id = extractId(encodedPassword);
+        if (!id.equals(getAlgorithm(encoding))) {
+            return true;
+        }
+        String hash = extractHash(encodedPassword);
+        if (BCRYPT.equals(id)) {
+            Matcher matcher = BCRYPT_COST.matcher(hash);
+            return matcher.find() && Integer.parseInt(matcher.group(1)) != getStrength(encoding);
+        }
+        PasswordEncoder encoder = encoders.get(id);
+        return encoder != null && encoder.upgradeEncoding(hash);
+    }
+
+    private PasswordEncoder getBcrypt(int strength) {
+        return bcryptEncoders.computeIfAbsent(strength,
+            key -> decorator.apply(new BCryptPasswordEncoder(key)));
+    }
+
+    private String getAlgorithm(Optional<PasswordEncoding> encoding) {
+        return encoding.map(PasswordEncoding::getAlgorithm).orElse(BCRYPT);
+    }
+
+    private int getStrength(Optional<PasswordEncoding> encoding) {
+        return encoding.map(PasswordEncoding::getStrength).filter(strength -> strength > 0).orElse(defaultStrength);
+    }
+
+    private static String extractId(String encodedPassword) {
+        if (!encodedPassword.startsWith(PREFIX)) {
+            return BCRYPT;
+        }
+        int end = encodedPassword.indexOf(SUFFIX);
+        return end < 0 ? BCRYPT : encodedPassword.substring(PREFIX.length(), end);
+    }
+
+    private static String extractHash(String encodedPassword) {
+        if (!encodedPassword.startsWith(PREFIX)) {
+            return encodedPassword;
+        }
+        int end = encodedPassword.indexOf(SUFFIX);
+        return end < 0 ? encodedPassword : encodedPassword.substring(end + SUFFIX.length());
+    }
+}
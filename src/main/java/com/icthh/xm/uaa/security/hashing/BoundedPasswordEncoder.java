@@ -0,0 +1,41 @@
+package com.icthh.xm.uaa.security.hashing;
+
+import com.icthh.xm.commons.tenant.TenantContextHolder;
+import com.icthh.xm.commons.tenant.TenantKey;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * Runs encoding and matching of the delegate encoder on {@link FairHashingExecutor}.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder passwordEncoder;
+    private final FairHashingExecutor executor;
+    private final TenantContextHolder tenantContextHolder;
+
+    public BoundedPasswordEncoder(PasswordEncoder passwordEncoder, FairHashingExecutor executor,
+                                  TenantContextHolder tenantContextHolder) {
+        this.passwordEncoder = passwordEncoder;
+        this.executor = executor;
+        this.tenantContextHolder = tenantContextHolder;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return executor.execute(getTenantKey(), () -> passwordEncoder.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return executor.execute(getTenantKey(), () -> passwordEncoder.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return passwordEncoder.upgradeEncoding(encodedPassword);
+    }
+
+    private String getTenantKey() {
+        return tenantContextHolder.getContext().getTenantKey().map(TenantKey::getValue).orElse(null);
+    }
+}
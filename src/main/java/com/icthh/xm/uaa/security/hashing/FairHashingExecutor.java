@@ -0,0 +1,176 @@
+package com.icthh.xm.uaa.security.hashing;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fixed size executor for CPU heavy password hashing.
+ * <p>
+ * Pending tasks are queued per tenant and workers take them round-robin across tenants, so a login storm
+ * on one tenant does not starve the others. When the total or the tenant queue is full the task is rejected
+ * immediately instead of holding a request thread.
+ */
+@Slf4j
+public class FairHashingExecutor {
+
+    private static final String METRIC_PREFIX = "password-hashing";
+    private static final String NO_TENANT = "";
+
+    private final int queueCapacity;
+    private final int tenantQueueCapacity;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Map<String, Deque<Runnable>> tenantQueues = new HashMap<>();
+    private final Deque<String> readyTenants = new ArrayDeque<>();
+    private int queued;
+
+    private final List<Thread> workers = new ArrayList<>();
+    private volatile boolean running = true;
+
+    private final Timer queueWait;
+    private final Timer hashTime;
+    private final MetricRegistry metricRegistry;
+
+    public FairHashingExecutor(int poolSize, int queueCapacity, int tenantQueueCapacity,
+                               MetricRegistry metricRegistry) {
+        this.queueCapacity = queueCapacity;
+        this.tenantQueueCapacity = tenantQueueCapacity;
+        this.metricRegistry = metricRegistry;
+        this.queueWait = metricRegistry.timer(MetricRegistry.name(METRIC_PREFIX, "queue-wait"));
+        this.hashTime = metricRegistry.timer(MetricRegistry.name(METRIC_PREFIX, "hash-time"));
+        metricRegistry.gauge(MetricRegistry.name(METRIC_PREFIX, "queue-depth"),
+            () -> (Gauge<Integer>) this::getQueueDepth);
+
+        for (int i = 0; i < poolSize; i++) {
+            Thread worker = new Thread(this::work, "password-hashing-" + i);
+            worker.setDaemon(true);
+            worker.start();
+            workers.add(worker);
+        }
+    }
+
+    /**
+     * Run the task on a hashing worker and wait for its result.
+     *
+     * @param tenantKey tenant the task is queued for, may be null
+     * @param task      hashing task
+     * @return task result
+     * @throws PasswordHashingRejectedException if the queue is full
+     */
+    public <T> T execute(String tenantKey, Callable<T> task) {
+        long enqueuedAt = System.nanoTime();
+        FutureTask<T> future = new FutureTask<>(() -> {
+            queueWait.update(System.nanoTime() - enqueuedAt, TimeUnit.NANOSECONDS);
+            try (Timer.Context ignored = hashTime.time()) {
+                return task.call();
+            }
+        });
+        enqueue(tenantKey != null ? tenantKey : NO_TENANT, future);
+
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for password hashing", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException("Password hashing failed", cause);
+        }
+    }
+
+    public int getQueueDepth() {
+        lock.lock();
+        try {
+            return queued;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void shutdown() {
+        running = false;
+        workers.forEach(Thread::interrupt);
+    }
+
+    private void enqueue(String tenantKey, Runnable task) {
+        lock.lock();
+        try {
+            if (queued >= queueCapacity) {
+                throw reject("Password hashing queue is full", HttpStatus.SERVICE_UNAVAILABLE);
+            }
+            Deque<Runnable> tenantQueue = tenantQueues.computeIfAbsent(tenantKey, key -> new ArrayDeque<>());
+            if (tenantQueue.size() >= tenantQueueCapacity) {
+                throw reject("Password hashing queue is full for tenant " + tenantKey, HttpStatus.TOO_MANY_REQUESTS);
+            }
+            if (tenantQueue.isEmpty()) {
+                readyTenants.addLast(tenantKey);
+            }
+            tenantQueue.addLast(task);
+            queued++;
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private PasswordHashingRejectedException reject(String message, HttpStatus status) {
+        metricRegistry.counter(MetricRegistry.name(METRIC_PREFIX, "rejected")).inc();
+        log.warn("{}, queued: {}", message, queued);
+        return new PasswordHashingRejectedException(message, status);
+    }
+
+    private Runnable take() throws InterruptedException {
+        lock.lock();
+        try {
+            while (readyTenants.isEmpty()) {
+                notEmpty.await();
+            }
+            String tenantKey = readyTenants.pollFirst();
+            Deque<Runnable> tenantQueue = tenantQueues.get(tenantKey);
+            Runnable task = tenantQueue.pollFirst();
+            queued--;
+            if (tenantQueue.isEmpty()) {
+                tenantQueues.remove(tenantKey);
+            } else {
+                readyTenants.addLast(tenantKey);
+            }
+            return task;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void work() {
+        while (running) {
+            try {
+                take().run();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("Password hashing worker failed", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.icthh.xm.uaa.security.hashing;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.security.oauth2.common.exceptions.OAuth2Exception;
+
+/**
+ * Thrown when the password hashing executor is saturated. Extends {@link OAuth2Exception} so the token
+ * endpoint renders it with its own status instead of {@code 500}.
+ */
+public class PasswordHashingRejectedException extends OAuth2Exception {
+
+    private final HttpStatus status;
+
+    public PasswordHashingRejectedException(String msg, HttpStatus status) {
+        super(msg);
+        this.status = status;
+    }
+
+    @Override
+    public String getOAuth2ErrorCode() {
+        return "temporarily_unavailable";
+    }
+
+    @Override
+    public int getHttpErrorCode() {
+        return status.value();
+    }
+
+    public HttpStatus getStatus() {
+        return status;
+    }
+}
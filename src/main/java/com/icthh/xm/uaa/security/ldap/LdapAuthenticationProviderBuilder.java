@@ -6,6 +6,7 @@ import static org.apache.commons.lang3.StringUtils.isBlank;
 import com.icthh.xm.uaa.domain.properties.TenantProperties.Ldap;
 import com.icthh.xm.uaa.lep.keyresolver.LepBuildLdapProviderKeyResolver;
 import com.icthh.xm.uaa.security.DomainUserDetailsService;
+import com.icthh.xm.uaa.security.ldap.LdapContextSourceCache.ContextSources;
 import com.icthh.xm.uaa.service.TenantPropertiesService;
 import com.icthh.xm.uaa.service.UserService;
 
@@ -17,7 +18,6 @@ import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.security.authentication.AuthenticationProvider;
-import org.springframework.security.ldap.DefaultSpringSecurityContextSource;
 import org.springframework.security.ldap.authentication.BindAuthenticator;
 import org.springframework.security.ldap.authentication.LdapAuthenticationProvider;
 import org.springframework.security.ldap.authentication.ad.ActiveDirectoryLdapAuthenticationProvider;
@@ -35,6 +35,8 @@ public class LdapAuthenticationProviderBuilder {
     private final TenantPropertiesService tenantPropertiesService;
     private final DomainUserDetailsService userDetailsService;
     private final UserService userService;
+    private final LdapProviderCache ldapProviderCache;
+    private final LdapContextSourceCache ldapContextSourceCache;
 
     @LogicExtensionPoint(value = "BuildLdapProvider", resolver = LepBuildLdapProviderKeyResolver.class)
     public Optional<AuthenticationProvider> build(String domain) {
@@ -52,6 +54,10 @@ public class LdapAuthenticationProviderBuilder {
     }
 
     private AuthenticationProvider buildAuthenticationProvider(Ldap conf) {
+        return ldapProviderCache.get(conf, this::createAuthenticationProvider);
+    }
+
+    private AuthenticationProvider createAuthenticationProvider(Ldap conf) {
         Type ldapType = conf.getType();
         log.info("Ldap type {}", ldapType);
         if (conf.getType() == null) {
@@ -72,21 +78,18 @@ public class LdapAuthenticationProviderBuilder {
     }
 
     private AuthenticationProvider buildLdapAuthProvider(Ldap conf) {
-        //ldap context which used for role searching
-        DefaultSpringSecurityContextSource ctx = new DefaultSpringSecurityContextSource(conf.getProviderUrl());
-        ctx.setUserDn(conf.getSystemUser());
-        ctx.setPassword(conf.getSystemPassword());
-        ctx.afterPropertiesSet();
+        //ldap contexts, the pooled one is used for role searching
+        ContextSources ctx = ldapContextSourceCache.get(conf);
 
         //role extractor
         DefaultLdapAuthoritiesPopulator authoritiesPopulator =
-            new DefaultLdapAuthoritiesPopulator(ctx, conf.getGroupSearchBase());
+            new DefaultLdapAuthoritiesPopulator(ctx.getPooledContextSource(), conf.getGroupSearchBase());
         authoritiesPopulator.setSearchSubtree(conf.getGroupSearchSubtree());
         authoritiesPopulator.setRolePrefix(StringUtils.EMPTY);
         authoritiesPopulator.setConvertToUpperCase(Boolean.FALSE);
 
         //bind authenticator for password checking
-        BindAuthenticator bindAuthenticator = new UaaBindAuthenticator(ctx);
+        BindAuthenticator bindAuthenticator = new UaaBindAuthenticator(ctx.getContextSource());
         bindAuthenticator.setUserDnPatterns(Stream.of(conf.getUserDnPattern()).toArray(String[]::new));
 
         //create spring ldap authenticator provider
@@ -101,6 +104,7 @@ public class LdapAuthenticationProviderBuilder {
     private AuthenticationProvider buildAdAuthProvier(Ldap conf) {
         ActiveDirectoryLdapAuthenticationProvider adLdapAuthenticationProvider
             = new ActiveDirectoryLdapAuthenticationProvider(null, conf.getProviderUrl(), conf.getRootDn());
+        adLdapAuthenticationProvider.setContextEnvironmentProperties(LdapContextSourceCache.getTimeoutProperties(conf));
 
         adLdapAuthenticationProvider.setUserDetailsContextMapper(
             new UaaLdapUserDetailsContextMapper(userDetailsService, userService, conf));
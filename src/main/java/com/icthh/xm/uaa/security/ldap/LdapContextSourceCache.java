@@ -0,0 +1,183 @@
+package com.icthh.xm.uaa.security.ldap;
+
+import com.icthh.xm.commons.logging.aop.IgnoreLogginAspect;
+import com.icthh.xm.commons.tenant.TenantContextHolder;
+import com.icthh.xm.commons.tenant.TenantContextUtils;
+import com.icthh.xm.commons.tenant.TenantKey;
+import com.icthh.xm.uaa.domain.properties.TenantProperties.Ldap;
+import com.icthh.xm.uaa.service.TenantPropertiesChangeListener;
+import com.icthh.xm.uaa.service.TenantPropertiesService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.ldap.pool2.factory.PoolConfig;
+import org.springframework.ldap.pool2.factory.PooledContextSource;
+import org.springframework.ldap.pool2.validation.DefaultDirContextValidator;
+import org.springframework.security.ldap.DefaultSpringSecurityContextSource;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-tenant LDAP context sources, one set per domain, shared by authentication and directory search.
+ * <p>
+ * Context sources are kept while the ldap configuration of their domain stays equal. The pool of a replaced or
+ * removed domain is closed.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@IgnoreLogginAspect
+public class LdapContextSourceCache implements TenantPropertiesChangeListener, DisposableBean {
+
+    private static final String CONNECT_TIMEOUT = "com.sun.jndi.ldap.connect.timeout";
+    private static final String READ_TIMEOUT = "com.sun.jndi.ldap.read.timeout";
+
+    private final Map<String, Map<String, ContextSources>> tenantContextSources = new ConcurrentHashMap<>();
+
+    private final TenantContextHolder tenantContextHolder;
+    private final TenantPropertiesService tenantPropertiesService;
+
+    /**
+     * Get context sources of the current tenant for the ldap configuration, creating them on miss or on changed
+     * configuration.
+     *
+     * @param conf the ldap configuration
+     * @return context sources
+     */
+    public ContextSources get(Ldap conf) {
+        Map<String, ContextSources> contextSources = tenantContextSources.computeIfAbsent(getTenantKey(),
+            key -> new ConcurrentHashMap<>());
+        ContextSources cached = contextSources.get(conf.getDomain());
+        if (cached != null && cached.conf.equals(conf)) {
+            return cached;
+        }
+
+        return contextSources.compute(conf.getDomain(), (domain, current) -> {
+            if (current != null && current.conf.equals(conf)) {
+                return current;
+            }
+            if (current != null) {
+                log.info("Ldap configuration changed for domain {}, recreating context sources", domain);
+                current.destroy();
+            }
+            return new ContextSources(conf);
+        });
+    }
+
+    /**
+     * Get JNDI environment properties with the connect and read timeouts of the ldap configuration.
+     *
+     * @param conf the ldap configuration
+     * @return environment properties
+     */
+    public static Map<String, Object> getTimeoutProperties(Ldap conf) {
+        Map<String, Object> properties = new HashMap<>();
+        if (conf.getConnectTimeoutMillis() > 0) {
+            properties.put(CONNECT_TIMEOUT, String.valueOf(conf.getConnectTimeoutMillis()));
+        }
+        if (conf.getReadTimeoutMillis() > 0) {
+            properties.put(READ_TIMEOUT, String.valueOf(conf.getReadTimeoutMillis()));
+        }
+        return properties;
+    }
+
+    @Override
+    public void onTenantPropertiesChanged(String tenantKey) {
+        Map<String, ContextSources> contextSources = tenantContextSources.get(tenantKey.toUpperCase());
+        if (contextSources == null) {
+            return;
+        }
+
+        List<Ldap> ldapList;
+        try {
+            ldapList = tenantPropertiesService.getTenantProps(TenantKey.valueOf(tenantKey)).getLdap();
+        } catch (IllegalArgumentException e) {
+            // tenant configuration was removed
+            ldapList = List.of();
+        }
+
+        List<Ldap> actual = ldapList;
+        contextSources.entrySet().removeIf(entry -> {
+            boolean outdated = !actual.contains(entry.getValue().conf);
+            if (outdated) {
+                log.info("Ldap context sources closed for tenant {}, domain {}", tenantKey, entry.getKey());
+                entry.getValue().destroy();
+            }
+            return outdated;
+        });
+    }
+
+    @Override
+    public void destroy() {
+        tenantContextSources.values().forEach(contextSources -> contextSources.values()
+            .forEach(ContextSources::destroy));
+        tenantContextSources.clear();
+    }
+
+    private String getTenantKey() {
+        return TenantContextUtils.getRequiredTenantKeyValue(tenantContextHolder).toUpperCase();
+    }
+
+    /**
+     * Context sources of one ldap domain.
+     */
+    public static class ContextSources {
+
+        private final Ldap conf;
+        private final DefaultSpringSecurityContextSource contextSource;
+        private final PooledContextSource pooledContextSource;
+
+        ContextSources(Ldap conf) {
+            this.conf = conf;
+
+            // user binds can not be pooled, the system user connections are pooled separately
+            this.contextSource = new DefaultSpringSecurityContextSource(conf.getProviderUrl());
+            this.contextSource.setUserDn(conf.getSystemUser());
+            this.contextSource.setPassword(conf.getSystemPassword());
+            this.contextSource.setPooled(false);
+            this.contextSource.setBaseEnvironmentProperties(getTimeoutProperties(conf));
+            this.contextSource.afterPropertiesSet();
+
+            Ldap.Pool pool = conf.getPool();
+            PoolConfig poolConfig = new PoolConfig();
+            poolConfig.setMinIdlePerKey(pool.getMinIdle());
+            poolConfig.setMaxTotalPerKey(pool.getMaxTotal());
+            poolConfig.setMaxTotal(pool.getMaxTotal());
+            poolConfig.setMaxWaitMillis(pool.getMaxWaitMillis());
+            poolConfig.setTestOnBorrow(pool.isTestOnBorrow());
+            poolConfig.setTestWhileIdle(pool.isTestWhileIdle());
+            poolConfig.setTimeBetweenEvictionRunsMillis(pool.getEvictionRunMillis());
+            poolConfig.setMinEvictableIdleTimeMillis(pool.getMinEvictableIdleMillis());
+
+            this.pooledContextSource = new PooledContextSource(poolConfig);
+            this.pooledContextSource.setContextSource(contextSource);
+            this.pooledContextSource.setDirContextValidator(new DefaultDirContextValidator());
+        }
+
+        /**
+         * Context source for user binds, not pooled.
+         */
+        public DefaultSpringSecurityContextSource getContextSource() {
+            return contextSource;
+        }
+
+        /**
+         * Pooled context source of the system user, for searches.
+         */
+        public PooledContextSource getPooledContextSource() {
+            return pooledContextSource;
+        }
+
+        void destroy() {
+            try {
+                pooledContextSource.destroy();
+            } catch (Exception e) {
+                log.warn("Ldap connection pool was not closed for domain {}", conf.getDomain(), e);
+            }
+        }
+    }
+}
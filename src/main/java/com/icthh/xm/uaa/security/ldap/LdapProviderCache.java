@@ -0,0 +1,101 @@
+package com.icthh.xm.uaa.security.ldap;
+
+import com.icthh.xm.commons.logging.aop.IgnoreLogginAspect;
+import com.icthh.xm.commons.tenant.TenantContextHolder;
+import com.icthh.xm.commons.tenant.TenantContextUtils;
+import com.icthh.xm.commons.tenant.TenantKey;
+import com.icthh.xm.uaa.domain.properties.TenantProperties.Ldap;
+import com.icthh.xm.uaa.service.TenantPropertiesChangeListener;
+import com.icthh.xm.uaa.service.TenantPropertiesService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Per-tenant cache of LDAP authentication providers, one per domain.
+ * <p>
+ * A provider is kept while the ldap configuration of its domain stays equal, so a tenant properties refresh that
+ * does not touch the ldap section keeps the providers. Their connections are held by {@link LdapContextSourceCache}.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@IgnoreLogginAspect
+public class LdapProviderCache implements TenantPropertiesChangeListener {
+
+    private final Map<String, Map<String, CachedProvider>> tenantProviders = new ConcurrentHashMap<>();
+
+    private final TenantContextHolder tenantContextHolder;
+    private final TenantPropertiesService tenantPropertiesService;
+
+    /**
+     * Get the provider of the current tenant for the ldap configuration, building it on miss or on changed
+     * configuration.
+     *
+     * @param conf    the ldap configuration
+     * @param builder builds the provider for the configuration
+     * @return authentication provider
+     */
+    public AuthenticationProvider get(Ldap conf, Function<Ldap, AuthenticationProvider> builder) {
+        Map<String, CachedProvider> providers = tenantProviders.computeIfAbsent(getTenantKey(),
+            key -> new ConcurrentHashMap<>());
+        CachedProvider cached = providers.get(conf.getDomain());
+        if (cached != null && cached.conf.equals(conf)) {
+            return cached.provider;
+        }
+
+        return providers.compute(conf.getDomain(), (domain, current) -> {
+            if (current != null && current.conf.equals(conf)) {
+                return current;
+            }
+            log.info("Ldap provider built for domain {}", domain);
+            return new CachedProvider(conf, builder.apply(conf));
+        }).provider;
+    }
+
+    @Override
+    public void onTenantPropertiesChanged(String tenantKey) {
+        Map<String, CachedProvider> providers = tenantProviders.get(tenantKey.toUpperCase());
+        if (providers == null) {
+            return;
+        }
+
+        List<Ldap> ldapList;
+        try {
+            ldapList = tenantPropertiesService.getTenantProps(TenantKey.valueOf(tenantKey)).getLdap();
+        } catch (IllegalArgumentException e) {
+            // tenant configuration was removed
+            ldapList = List.of();
+        }
+
+        List<Ldap> actual = ldapList;
+        providers.entrySet().removeIf(entry -> {
+            boolean outdated = !actual.contains(entry.getValue().conf);
+            if (outdated) {
+                log.info("Ldap provider evicted for tenant {}, domain {}", tenantKey, entry.getKey());
+            }
+            return outdated;
+        });
+    }
+
+    private String getTenantKey() {
+        return TenantContextUtils.getRequiredTenantKeyValue(tenantContextHolder).toUpperCase();
+    }
+
+    private static class CachedProvider {
+
+        private final Ldap conf;
+        private final AuthenticationProvider provider;
+
+        CachedProvider(Ldap conf, AuthenticationProvider provider) {
+            this.conf = conf;
+            this.provider = provider;
+        }
+    }
+}
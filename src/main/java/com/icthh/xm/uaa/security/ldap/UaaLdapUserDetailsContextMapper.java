@@ -45,20 +45,18 @@ public class UaaLdapUserDetailsContextMapper extends LdapUserDetailsMapper {
 
         Optional<User> userOpt = userService.findOneByLogin(username);
 
-        if (userOpt.isPresent()) {
-            updateUser(ctx, userOpt.get(), authorities);
-        } else {
-            createUser(ctx, username, authorities);
-        }
+        User user = userOpt.map(existing -> updateUser(ctx, existing, authorities))
+            .orElseGet(() -> createUser(ctx, username, authorities));
 
-        DomainUserDetails domainUserDetails = userDetailsService.loadUserByUsername(username);
+        // the user was just read or saved, no need to load it again, the LoadUserByUsername LEP still runs
+        DomainUserDetails domainUserDetails = userDetailsService.buildUserDetails(username, user);
         // Tag the token with the LDAP domain so the Refresh LEP can identify
         // LDAP-originated sessions and re-validate account status on token refresh.
         domainUserDetails.getAdditionalDetails().put(LDAP_DOMAIN_ADDITIONAL_DETAILS_KEY, ldapConf.getDomain());
         return domainUserDetails;
     }
 
-    private void createUser(DirContextOperations ctx,
+    private User createUser(DirContextOperations ctx,
                             String username,
                             Collection<? extends GrantedAuthority> authorities) {
         UserDTO userDTO = new UserDTO();
@@ -75,10 +73,10 @@ public class UaaLdapUserDetailsContextMapper extends LdapUserDetailsMapper {
         userDTO.setLogins(Collections.singletonList(userLogin));
         List<String> roles = mapRole(roleConf, authorities);
         userDTO.setAuthorities(roles.isEmpty() ? List.of(roleConf.getDefaultRole()) : roles);
-        userService.createUser(userDTO);
+        return userService.createUser(userDTO);
     }
 
-    private void updateUser(DirContextOperations ctx, User user, Collection<? extends GrantedAuthority> authorities) {
+    private User updateUser(DirContextOperations ctx, User user, Collection<? extends GrantedAuthority> authorities) {
         TenantProperties.Ldap.Role roleConf = ldapConf.getRole();
         List<String> mappedRoles = mapRole(roleConf, authorities);
         mappedRoles = mappedRoles.isEmpty() ?
@@ -86,16 +84,41 @@ public class UaaLdapUserDetailsContextMapper extends LdapUserDetailsMapper {
             mappedRoles;
         log.info("Mapped role from ldap [{}], current role [{}]", mappedRoles, user.getAuthorities());
         String imageUrl = parseImageUrl(ctx);
+        String firstName = mapName(ctx, TenantProperties.Ldap.Attribute::getFirstName, user.getFirstName());
+        String lastName = mapName(ctx, TenantProperties.Ldap.Attribute::getLastName, user.getLastName());
 
-        if (needUpdate(mappedRoles, user, imageUrl)) {
+        if (needUpdate(mappedRoles, user, imageUrl, firstName, lastName)) {
+            user.setFirstName(firstName);
+            user.setLastName(lastName);
             user.setImageUrl(imageUrl);
             user.setAuthorities(mappedRoles);
             userService.saveUser(user);
+        } else {
+            log.debug("Ldap attributes not changed, user update skipped");
         }
+        return user;
     }
 
-    private boolean needUpdate(List<String> mappedRoles, User user, String imageUrl) {
-        return !isEqualCollection(mappedRoles, user.getAuthorities()) || !StringUtils.equals(user.getImageUrl(), imageUrl);
+    private boolean needUpdate(List<String> mappedRoles, User user, String imageUrl, String firstName,
+                               String lastName) {
+        return !isEqualCollection(mappedRoles, user.getAuthorities())
+            || !StringUtils.equals(user.getImageUrl(), imageUrl)
+            || !StringUtils.equals(user.getFirstName(), firstName)
+            || !StringUtils.equals(user.getLastName(), lastName);
+    }
+
+    /**
+     * Map a name attribute, keep the current value when the attribute is not configured or not returned by ldap.
+     */
+    private String mapName(DirContextOperations ctx,
+                           Function<TenantProperties.Ldap.Attribute, String> attributeName,
+                           String current) {
+        TenantProperties.Ldap.Attribute attributeConf = ldapConf.getAttribute();
+        if (attributeConf == null || StringUtils.isBlank(attributeName.apply(attributeConf))) {
+            return current;
+        }
+        String value = ctx.getStringAttribute(attributeName.apply(attributeConf));
+        return value == null ? current : value;
     }
 
     private List<String> mapRole(TenantProperties.Ldap.Role roleConf, Collection<? extends GrantedAuthority> authorities) {
@@ -17,6 +17,7 @@ import org.apache.commons.lang3.StringUtils;
 import org.springframework.stereotype.Service;
 import org.springframework.util.AntPathMatcher;
 
+import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
 
 @Slf4j
@@ -48,6 +49,14 @@ public abstract class AbstractTenantPropertiesService<T extends TenantProperties
         return tenantProps.get(cfgTenantKey);
     }
 
+    /**
+     * Same as {@link #getTenantProps()}, but empty when there is no tenant in context or it has no configuration.
+     */
+    public Optional<T> findTenantProps() {
+        return tenantContextHolder.getContext().getTenantKey()
+            .map(tenant -> tenantProps.get(tenant.getValue().toUpperCase()));
+    }
+
     public T getTenantProps(TenantKey tenant) {
         String tenantKey = tenant.getValue();
         String cfgTenantKey = tenantKey.toUpperCase();
@@ -85,11 +94,20 @@ public abstract class AbstractTenantPropertiesService<T extends TenantProperties
                 tenantProps.put(tenant, spec);
                 log.info("Specification for tenant {} was updated: {}", tenant, updatedKey);
             }
+            onTenantPropsChanged(tenant);
         } catch (Exception e) {
             log.error("Error read xm specification from path {}", updatedKey, e);
         }
     }
 
+    /**
+     * Hook invoked after tenant properties were updated or removed.
+     *
+     * @param tenantKey the tenant key in upper case
+     */
+    protected void onTenantPropsChanged(String tenantKey) {
+    }
+
     @Override
     public boolean isListeningConfiguration(String updatedKey) {
         String specificationPathPattern = applicationProperties.getTenantPropertiesPathPattern();
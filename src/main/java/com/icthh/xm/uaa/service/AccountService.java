@@ -15,6 +15,7 @@ import com.icthh.xm.uaa.domain.properties.TenantProperties;
 import com.icthh.xm.uaa.repository.RegistrationLogRepository;
 import com.icthh.xm.uaa.repository.UserRepository;
 import com.icthh.xm.uaa.repository.kafka.ProfileEventProducer;
+import com.icthh.xm.uaa.security.PasswordHashCache;
 import com.icthh.xm.uaa.security.oauth2.otp.OtpSender;
 import com.icthh.xm.uaa.security.oauth2.otp.OtpSenderFactory;
 import com.icthh.xm.uaa.service.dto.OtpSendDTO;
@@ -61,6 +62,7 @@ public class AccountService {
     private final UserLoginService userLoginService;
     private final ProfileEventProducer profileEventProducer;
     private final OtpSenderFactory otpSenderFactory;
+    private final PasswordHashCache passwordHashCache;
     @Setter(onMethod = @__(@Autowired))
     public AccountService self;
 
@@ -252,6 +254,7 @@ public class AccountService {
             throw new BusinessException("Passed invalid old password");
         }
         String newPassword = passwordEncoder.encode(password.getNewPassword());
+        passwordHashCache.evict(user.getPassword());
         user.setPassword(newPassword);
         user.setPasswordSetByUser(true);
         userRepository.saveAndFlush(user);
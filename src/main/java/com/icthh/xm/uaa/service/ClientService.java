@@ -13,9 +13,12 @@ import com.icthh.xm.commons.tenant.TenantContextHolder;
 import com.icthh.xm.uaa.config.ApplicationProperties;
 import com.icthh.xm.uaa.domain.Client;
 import com.icthh.xm.uaa.domain.ClientState;
+import com.icthh.xm.uaa.repository.ClientPermittedRepository;
 import com.icthh.xm.uaa.repository.ClientRepository;
+import com.icthh.xm.uaa.security.ClientDetailsCache;
 import com.icthh.xm.uaa.service.dto.ClientDTO;
 import com.icthh.xm.uaa.service.query.ClientQueryService;
+import com.icthh.xm.uaa.service.query.KeysetPage;
 import com.icthh.xm.uaa.service.query.filter.StrictClientFilterQuery;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -56,10 +59,12 @@ public class ClientService {
     private final ClientRepository clientRepository;
     private final PasswordEncoder passwordEncoder;
     private final PermittedRepository permittedRepository;
+    private final ClientPermittedRepository clientPermittedRepository;
     private final ClientQueryService clientQueryService;
     private final ApplicationProperties applicationProperties;
     private final TenantContextHolder tenantContextHolder;
     private final RoleService roleService;
+    private final ClientDetailsCache clientDetailsCache;
 
     public static final String PSWRD_MASK = "*****";
 
@@ -76,6 +81,7 @@ public class ClientService {
      * @return the persisted entity
      */
     public Client save(Client client) {
+        clientDetailsCache.evictCurrentTenant();
         return clientRepository.save(client);
     }
 
@@ -109,6 +115,7 @@ public class ClientService {
         newClient.setAccessTokenValiditySeconds(client.getAccessTokenValiditySeconds());
         newClient.setRefreshTokenValiditySeconds(client.getRefreshTokenValiditySeconds());
         newClient.setScopes(client.getScopes());
+        clientDetailsCache.evictCurrentTenant();
         return clientRepository.save(newClient);
     }
 
@@ -121,6 +128,7 @@ public class ClientService {
     @LogicExtensionPoint("UpdateClient")
     public Client updateClient(ClientDTO updatedClient) {
         validateClient(updatedClient);
+        clientDetailsCache.evictCurrentTenant();
 
         return clientRepository.findById(updatedClient.getId()).map(client -> {
             String newClientSecret = updatedClient.getClientSecret();
@@ -163,6 +171,36 @@ public class ClientService {
         return clientQueryService.findAllByStrictMatch(query, pageable);
     }
 
+    /**
+     * Get the page of clients following the continuation token, without the total count.
+     *
+     * @param continuationToken the token of the previous page, blank for the first page
+     * @param size              the page size
+     * @param privilegeKey      the privilege key
+     * @return the page of clients ordered by id
+     */
+    @Transactional(readOnly = true)
+    @FindWithPermission("CLIENT.GET_LIST")
+    public KeysetPage<ClientDTO> findAll(String continuationToken, int size, String privilegeKey) {
+        List<Client> clients = clientPermittedRepository.findAllAfterId(KeysetPage.toAfterId(continuationToken),
+            size + 1, privilegeKey);
+        return KeysetPage.of(clients, size, Client::getId)
+            .map(source -> new ClientDTO(source.clientSecret(PSWRD_MASK)));
+    }
+
+    /**
+     * Get the page of clients by filter following the continuation token, without the total count.
+     *
+     * @param query             the filter
+     * @param continuationToken the token of the previous page, blank for the first page
+     * @param size              the page size
+     * @return the page of clients ordered by id
+     */
+    @Transactional(readOnly = true)
+    public KeysetPage<ClientDTO> findAllFiltered(StrictClientFilterQuery query, String continuationToken, int size) {
+        return clientQueryService.findAllByStrictMatch(query, continuationToken, size);
+    }
+
     /**
      * Get one client by id.
      *
@@ -183,6 +221,7 @@ public class ClientService {
      */
     @LogicExtensionPoint("DeleteClient")
     public void delete(Long id) {
+        clientDetailsCache.evictCurrentTenant();
         try {
             clientRepository.deleteById(id);
             // flush so a foreign key violation surfaces here and not at transaction commit,
@@ -224,6 +263,7 @@ public class ClientService {
     }
 
     private Optional<ClientDTO> changeClientState(String clientKey, ClientState clientState){
+        clientDetailsCache.evictCurrentTenant();
         return Optional.ofNullable(getClient(clientKey))
             .map(client-> {
                 client.setState(clientState);
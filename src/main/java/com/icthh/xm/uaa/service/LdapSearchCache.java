@@ -0,0 +1,93 @@
+package com.icthh.xm.uaa.service;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.icthh.xm.commons.logging.aop.IgnoreLogginAspect;
+import com.icthh.xm.commons.tenant.TenantContextHolder;
+import com.icthh.xm.commons.tenant.TenantContextUtils;
+import com.icthh.xm.uaa.config.ApplicationProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Per-tenant cache of LDAP template search results, keyed by template key and parameters.
+ * <p>
+ * Disabled unless {@link ApplicationProperties.LdapSearch#getCacheTtlSeconds()} is positive. When enabled, changes
+ * in the directory, e.g. of user groups, are seen by searches only after the TTL. Results of a tenant are dropped
+ * when its properties change, as templates and domains may have changed. Cached results are unmodifiable, as they
+ * are shared by all callers.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@IgnoreLogginAspect
+public class LdapSearchCache implements TenantPropertiesChangeListener {
+
+    private final Map<String, Cache<List<Object>, Set<Map<String, List<String>>>>> tenantResults =
+        new ConcurrentHashMap<>();
+
+    private final TenantContextHolder tenantContextHolder;
+    private final ApplicationProperties applicationProperties;
+
+    /**
+     * Get the search result of the current tenant, searching and caching it on miss.
+     *
+     * @param templateKey the search template key
+     * @param params      the template parameters
+     * @param search      runs the search on cache miss
+     * @return search result
+     */
+    public Set<Map<String, List<String>>> get(String templateKey, List<Object> params,
+                                              Supplier<Set<Map<String, List<String>>>> search) {
+        ApplicationProperties.LdapSearch properties = applicationProperties.getLdapSearch();
+        if (properties.getCacheTtlSeconds() <= 0) {
+            return search.get();
+        }
+
+        Cache<List<Object>, Set<Map<String, List<String>>>> results = tenantResults.computeIfAbsent(getTenantKey(),
+            tenant -> CacheBuilder.newBuilder()
+                .maximumSize(properties.getCacheMaxSize())
+                .expireAfterWrite(properties.getCacheTtlSeconds(), TimeUnit.SECONDS)
+                .build());
+
+        List<Object> key = new ArrayList<>(params.size() + 1);
+        key.add(templateKey);
+        key.addAll(params);
+
+        Set<Map<String, List<String>>> cached = results.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+        Set<Map<String, List<String>>> found = unmodifiableCopy(search.get());
+        results.put(key, found);
+        return found;
+    }
+
+    @Override
+    public void onTenantPropertiesChanged(String tenantKey) {
+        if (tenantResults.remove(tenantKey.toUpperCase()) != null) {
+            log.debug("Ldap search cache invalidated for tenant {}", tenantKey);
+        }
+    }
+
+    private static Set<Map<String, List<String>>> unmodifiableCopy(Set<Map<String, List<String>>> result) {
+        return result.stream()
+            .map(attributes -> attributes.entrySet().stream()
+                .collect(Collectors.toUnmodifiableMap(Map.Entry::getKey, entry -> List.copyOf(entry.getValue()))))
+            .collect(Collectors.toUnmodifiableSet());
+    }
+
+    private String getTenantKey() {
+        return TenantContextUtils.getRequiredTenantKeyValue(tenantContextHolder).toUpperCase();
+    }
+}
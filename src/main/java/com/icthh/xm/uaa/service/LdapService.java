@@ -5,9 +5,9 @@ import com.icthh.xm.commons.lep.spring.LepService;
 import com.icthh.xm.uaa.domain.TemplateParams;
 import com.icthh.xm.uaa.domain.properties.TenantProperties;
 import com.icthh.xm.uaa.lep.keyresolver.LdapSearchByTemplateKeyResolver;
+import com.icthh.xm.uaa.security.ldap.LdapContextSourceCache;
 import com.icthh.xm.uaa.service.exceptions.LdapServiceException;
 import lombok.AllArgsConstructor;
-import org.springframework.security.ldap.DefaultSpringSecurityContextSource;
 import org.springframework.security.ldap.SpringSecurityLdapTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -24,6 +24,8 @@ import static java.util.Objects.isNull;
 public class LdapService {
 
     private TenantPropertiesService tenantPropertiesService;
+    private LdapContextSourceCache ldapContextSourceCache;
+    private LdapSearchCache ldapSearchCache;
 
     @LogicExtensionPoint(value = "SearchByTemplate", resolver = LdapSearchByTemplateKeyResolver.class)
     @Transactional(readOnly = true)
@@ -34,7 +36,7 @@ public class LdapService {
             throw new LdapServiceException("error.template.params.empty", "Template params is empty");
         }
 
-        Object[] params = templateParams.getTemplateParams().toArray();
+        List<Object> params = templateParams.getTemplateParams();
 
         List<TenantProperties.LdapSearchTemplate> searchTemplates = tenantPropertiesService.getTenantProps()
                                                                                            .getLdapSearchTemplates();
@@ -51,21 +53,18 @@ public class LdapService {
 
         TenantProperties.Ldap ldap = foundLdap(searchTemplate.getDomain());
 
-        SpringSecurityLdapTemplate springSecurityLdapTemplate = getSpringSecurityLdapTemplate(ldap);
+        return ldapSearchCache.get(templateKey, params, () -> {
+            SpringSecurityLdapTemplate springSecurityLdapTemplate = getSpringSecurityLdapTemplate(ldap);
 
-        return springSecurityLdapTemplate.searchForMultipleAttributeValues(ldap.getRootDn(),
-                                                                           searchTemplate.getQuery(),
-                                                                           params,
-                                                                           searchTemplate.getAttributeNames());
+            return springSecurityLdapTemplate.searchForMultipleAttributeValues(ldap.getRootDn(),
+                                                                               searchTemplate.getQuery(),
+                                                                               params.toArray(),
+                                                                               searchTemplate.getAttributeNames());
+        });
     }
 
     private SpringSecurityLdapTemplate getSpringSecurityLdapTemplate(TenantProperties.Ldap ldap) {
-        DefaultSpringSecurityContextSource ctx = new DefaultSpringSecurityContextSource(ldap.getProviderUrl());
-        ctx.setUserDn(ldap.getSystemUser());
-        ctx.setPassword(ldap.getSystemPassword());
-        ctx.afterPropertiesSet();
-
-        return new SpringSecurityLdapTemplate(ctx);
+        return new SpringSecurityLdapTemplate(ldapContextSourceCache.get(ldap).getPooledContextSource());
     }
 
     private TenantProperties.Ldap foundLdap(String ldapDomain) {
@@ -4,6 +4,7 @@ import static org.springframework.boot.actuate.security.AuthenticationAuditListe
 
 import com.icthh.xm.uaa.repository.CustomAuditEventRepository;
 import com.icthh.xm.uaa.repository.projection.PrincipalProjection;
+import com.icthh.xm.uaa.security.OnlineUsersCache;
 import com.icthh.xm.uaa.security.TokenConstraintsService;
 
 import java.time.Instant;
@@ -25,6 +26,7 @@ public class OnlineUsersService {
 
     private final CustomAuditEventRepository auditEventRepository;
     private final TokenConstraintsService tokenConstraints;
+    private final OnlineUsersCache onlineUsersCache;
 
     /**
      * Find online users for current tenant. But for super tenant it finds online users from all tenants.
@@ -40,6 +42,15 @@ public class OnlineUsersService {
             .collect(Collectors.toList());
     }
 
+    /**
+     * Count online users for current tenant, without reading the audit events.
+     *
+     * @return number of users authenticated or refreshed the token within the access token lifetime
+     */
+    public long count() {
+        return onlineUsersCache.count();
+    }
+
     /**
      * Delete online user from repository by key.
      *
@@ -47,5 +58,6 @@ public class OnlineUsersService {
      */
     public void delete(String key) {
         auditEventRepository.delete(key);
+        onlineUsersCache.remove(key);
     }
 }
@@ -0,0 +1,78 @@
+package com.icthh.xm.uaa.service;
+
+import com.icthh.xm.commons.logging.aop.IgnoreLogginAspect;
+import com.icthh.xm.commons.logging.util.MdcUtils;
+import com.icthh.xm.commons.tenant.PlainTenant;
+import com.icthh.xm.commons.tenant.TenantContextHolder;
+import com.icthh.xm.commons.tenant.TenantContextUtils;
+import com.icthh.xm.commons.tenant.TenantKey;
+import com.icthh.xm.uaa.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.Resource;
+
+/**
+ * Re-hashes stored user passwords that no longer follow the tenant password encoding policy.
+ * <p>
+ * The raw password is only known right after a successful login, so the upgrade is triggered from there and
+ * runs asynchronously to keep the extra hashing out of the login response time.
+ */
+@Slf4j
+@Service
+@IgnoreLogginAspect
+@RequiredArgsConstructor
+public class PasswordUpgradeService {
+
+    private final PasswordEncoder passwordEncoder;
+    private final UserRepository userRepository;
+    private final TenantContextHolder tenantContextHolder;
+
+    @Resource
+    @Lazy
+    private PasswordUpgradeService self;
+
+    /**
+     * Schedule re-hashing of the password if its stored hash needs an upgrade.
+     *
+     * @param userKey      user key
+     * @param verifiedHash stored hash the password was just verified against
+     * @param rawPassword  password presented on login
+     */
+    public void upgradeIfNeeded(String userKey, String verifiedHash, Object rawPassword) {
+        if (verifiedHash == null || !(rawPassword instanceof CharSequence)
+            || !passwordEncoder.upgradeEncoding(verifiedHash)) {
+            return;
+        }
+        TenantKey tenantKey = TenantContextUtils.getRequiredTenantKey(tenantContextHolder);
+        self.upgradePassword(tenantKey, userKey, verifiedHash, rawPassword.toString(), MdcUtils.getRid());
+    }
+
+    @Async
+    public void upgradePassword(TenantKey tenantKey, String userKey, String verifiedHash, String rawPassword,
+                                String rid) {
+        String oldRid = MdcUtils.getRid();
+        try {
+            MdcUtils.putRid(rid);
+            tenantContextHolder.getPrivilegedContext().setTenant(new PlainTenant(tenantKey));
+
+            String newHash = passwordEncoder.encode(rawPassword);
+            // the password may have been changed meanwhile, keep the newer one
+            int updated = userRepository.updatePasswordHash(userKey, verifiedHash, newHash);
+            log.info("Password hash upgraded for user: {}, updated: {}", userKey, updated > 0);
+        } catch (Exception e) {
+            log.warn("Password hash upgrade failed for user: {}", userKey, e);
+        } finally {
+            tenantContextHolder.getPrivilegedContext().destroyCurrentContext();
+            if (oldRid != null) {
+                MdcUtils.putRid(oldRid);
+            } else {
+                MdcUtils.removeRid();
+            }
+        }
+    }
+}
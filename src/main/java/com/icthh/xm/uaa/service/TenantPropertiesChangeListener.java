@@ -0,0 +1,14 @@
+package com.icthh.xm.uaa.service;
+
+/**
+ * Callback for components that keep state derived from tenant properties (uaa.yml).
+ */
+public interface TenantPropertiesChangeListener {
+
+    /**
+     * Called after the tenant properties were refreshed or removed.
+     *
+     * @param tenantKey the tenant key in upper case
+     */
+    void onTenantPropertiesChanged(String tenantKey);
+}
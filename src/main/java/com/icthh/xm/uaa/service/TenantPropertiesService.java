@@ -6,6 +6,7 @@ import com.icthh.xm.commons.tenant.TenantContextHolder;
 import com.icthh.xm.uaa.config.ApplicationProperties;
 import com.icthh.xm.uaa.domain.properties.TenantProperties;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.stereotype.Service;
 
 @Slf4j
@@ -13,9 +14,19 @@ import org.springframework.stereotype.Service;
 @IgnoreLogginAspect
 public class TenantPropertiesService extends AbstractTenantPropertiesService<TenantProperties> {
 
+    private final ObjectProvider<TenantPropertiesChangeListener> changeListeners;
+
     public TenantPropertiesService(ApplicationProperties applicationProperties,
                                    TenantConfigRepository tenantConfigRepository,
-                                   TenantContextHolder tenantContextHolder) {
+                                   TenantContextHolder tenantContextHolder,
+                                   ObjectProvider<TenantPropertiesChangeListener> changeListeners) {
         super(TenantProperties.class, applicationProperties, tenantConfigRepository, tenantContextHolder);
+        this.changeListeners = changeListeners;
+    }
+
+    @Override
+    protected void onTenantPropsChanged(String tenantKey) {
+        // listeners are resolved lazily, they may depend on this service
+        changeListeners.orderedStream().forEach(listener -> listener.onTenantPropertiesChanged(tenantKey));
     }
 }
@@ -4,10 +4,12 @@ import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import com.icthh.xm.commons.config.client.api.RefreshableConfiguration;
 import com.icthh.xm.commons.config.client.repository.CommonConfigRepository;
 import com.icthh.xm.commons.config.client.repository.TenantConfigRepository;
 import com.icthh.xm.commons.config.domain.Configuration;
 import com.icthh.xm.commons.exceptions.BusinessException;
+import com.icthh.xm.commons.logging.aop.IgnoreLogginAspect;
 import com.icthh.xm.commons.permission.config.PermissionProperties;
 import com.icthh.xm.commons.permission.constants.RoleConstant;
 import com.icthh.xm.commons.permission.domain.Permission;
@@ -31,14 +33,21 @@ import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.util.AntPathMatcher;
 import org.springframework.web.client.HttpClientErrorException;
 
 import javax.validation.Valid;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
 import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import static com.icthh.xm.commons.permission.domain.ReactionStrategy.EXCEPTION;
@@ -46,16 +55,23 @@ import static com.icthh.xm.uaa.service.dto.PermissionType.SYSTEM;
 import static com.icthh.xm.uaa.service.dto.PermissionType.TENANT;
 import static com.icthh.xm.uaa.service.mapper.PermissionDomainMapper.permissionDtoToPermission;
 import static com.icthh.xm.uaa.web.constant.ErrorConstants.ERROR_FORBIDDEN_ROLE;
+import static com.icthh.xm.uaa.web.constant.ErrorConstants.ERROR_ROLE_CONFIG_CHANGED;
+import static com.icthh.xm.uaa.web.constant.ErrorConstants.ERROR_ROLE_CONFIG_CHANGED_MESSAGE;
 import static java.lang.Boolean.TRUE;
 import static java.util.Optional.ofNullable;
 
 /**
  * Service Implementation for managing Role.
+ * <p>
+ * Roles, permissions and privileges are kept as immutable parsed snapshots, per tenant for tenant files. A snapshot is
+ * replaced when the config server pushes the file and after every update made here, and is loaded from the config
+ * server only when it was never received. Reads do not modify snapshots, updates work on a copy parsed from the
+ * snapshot content and are applied as one batch per request, see {@link #updateRoleConfig(String, Consumer)}.
  */
 @Slf4j
 @Service
 @RequiredArgsConstructor
-public class TenantRoleService {
+public class TenantRoleService implements RefreshableConfiguration {
 
     private static final String API = "/api";
 
@@ -63,6 +79,8 @@ public class TenantRoleService {
 
     private static final String CUSTOM_PRIVILEGES_PATH = "/config/tenants/{tenantName}/custom-privileges.yml";
 
+    private static final String TENANT_NAME = "tenantName";
+
     @Value("${xm-permission.custom-privileges-path:}")
     private String customPrivilegesPath;
 
@@ -80,20 +98,26 @@ public class TenantRoleService {
     @Qualifier("allPermissionMappingService")
     private final PermissionMappingService permissionMappingService;
 
+    private final AntPathMatcher matcher = new AntPathMatcher();
+    private final Map<String, TenantRoleConfig> tenantConfigs = new ConcurrentHashMap<>();
+    private volatile Map<String, Set<Privilege>> privileges;
+
     /**
      * Get roles properties.
-     * @return role props
+     * @return role props, a copy that may be modified
      */
     public Map<String, Role> getRoles() {
-        TreeMap<String, Role> roles = getConfig(permissionProperties.getRolesSpecPath(),
-            new TypeReference<>() {
-            });
+        return parseRoles(getRolesSnapshot().getContent());
+    }
+
+    private Map<String, Role> parseRoles(String content) {
+        TreeMap<String, Role> roles = parseConfig(content, new TypeReference<>() {
+        });
         return roles != null ? roles : new TreeMap<>();
     }
 
-    private Map<String, Map<String, Set<Permission>>> getPermissions() {
-        SortedMap<String, SortedMap<String, SortedSet<Permission>>> permissions = getConfig(
-            permissionProperties.getPermissionsSpecPath(),
+    private Map<String, Map<String, Set<Permission>>> parsePermissions(String content) {
+        SortedMap<String, SortedMap<String, SortedSet<Permission>>> permissions = parseConfig(content,
             new TypeReference<>() {
             });
         permissions = permissions != null ? permissions : new TreeMap<>();
@@ -103,54 +127,147 @@ public class TenantRoleService {
     }
 
     private Map<String, Set<Privilege>> getPrivileges() {
-        String privilegesFile = getCommonConfigContent(permissionProperties.getPrivilegesSpecPath()).orElse("");
-        return StringUtils.isBlank(privilegesFile) ? new TreeMap<>() : PrivilegeMapper
-                        .ymlToPrivileges(privilegesFile);
+        Map<String, Set<Privilege>> current = privileges;
+        if (current == null) {
+            current = parsePrivileges(getCommonConfigContent(permissionProperties.getPrivilegesSpecPath())
+                .orElse(""));
+            privileges = current;
+        }
+        return current;
     }
 
     private Map<String, Set<Privilege>> getCustomPrivileges() {
-        String tenant = TenantContextUtils.getRequiredTenantKeyValue(tenantContextHolder.getContext());
-        String path = StringUtils.isBlank(customPrivilegesPath) ? CUSTOM_PRIVILEGES_PATH : customPrivilegesPath;
-        String privilegesFile = getConfigContent(path.replace("{tenantName}", tenant)).orElse("");
-        return StringUtils.isBlank(privilegesFile) ? new TreeMap<>() : PrivilegeMapper
-            .ymlToPrivileges(privilegesFile);
+        TenantRoleConfig config = getTenantRoleConfig(getTenantKey());
+        Map<String, Set<Privilege>> customPrivileges = config.customPrivileges;
+        if (customPrivileges == null) {
+            String path = getCustomPrivilegesPath().replace("{" + TENANT_NAME + "}", getTenantKey());
+            customPrivileges = config.initCustomPrivileges(parsePrivileges(getConfigContent(path).orElse("")));
+        }
+        return customPrivileges;
+    }
+
+    private static Map<String, Set<Privilege>> parsePrivileges(String privilegesFile) {
+        return StringUtils.isBlank(privilegesFile) ? Collections.emptyMap() : Collections.unmodifiableMap(
+            PrivilegeMapper.ymlToPrivileges(privilegesFile));
+    }
+
+    private String getCustomPrivilegesPath() {
+        return StringUtils.isBlank(customPrivilegesPath) ? CUSTOM_PRIVILEGES_PATH : customPrivilegesPath;
+    }
+
+    private RolesSnapshot getRolesSnapshot() {
+        TenantRoleConfig config = getTenantRoleConfig(getTenantKey());
+        RolesSnapshot snapshot = config.roles;
+        if (snapshot == null) {
+            snapshot = config.initRoles(
+                createRolesSnapshot(getConfigContent(permissionProperties.getRolesSpecPath()).orElse(null)));
+        }
+        return snapshot;
+    }
+
+    private PermissionsSnapshot getPermissionsSnapshot() {
+        TenantRoleConfig config = getTenantRoleConfig(getTenantKey());
+        PermissionsSnapshot snapshot = config.permissions;
+        if (snapshot == null) {
+            snapshot = config.initPermissions(createPermissionsSnapshot(
+                getConfigContent(permissionProperties.getPermissionsSpecPath()).orElse(null)));
+        }
+        return snapshot;
+    }
+
+    private RolesSnapshot createRolesSnapshot(String content) {
+        return new RolesSnapshot(content, parseRoles(content));
+    }
+
+    private PermissionsSnapshot createPermissionsSnapshot(String content) {
+        List<Permission> permissionList = StringUtils.isBlank(content) ? Collections.emptyList()
+            : permissionMappingService.ymlToPermissionsList(content);
+        return new PermissionsSnapshot(content, parsePermissions(content), permissionList);
+    }
+
+    private TenantRoleConfig getTenantRoleConfig(String tenantKey) {
+        return tenantConfigs.computeIfAbsent(tenantKey.toUpperCase(), key -> new TenantRoleConfig());
+    }
+
+    private String getTenantKey() {
+        return TenantContextUtils.getRequiredTenantKeyValue(tenantContextHolder.getContext()).toUpperCase();
+    }
+
+    @Override
+    @IgnoreLogginAspect
+    public void onRefresh(String updatedKey, String config) {
+        String content = StringUtils.isBlank(config) || EMPTY_YAML.equals(config) ? null : config;
+        try {
+            if (updatedKey.equals(permissionProperties.getPrivilegesSpecPath())) {
+                privileges = parsePrivileges(content);
+            } else if (matcher.match(permissionProperties.getRolesSpecPath(), updatedKey)) {
+                getTenantRoleConfig(extractTenant(permissionProperties.getRolesSpecPath(), updatedKey))
+                    .roles = createRolesSnapshot(content);
+            } else if (matcher.match(permissionProperties.getPermissionsSpecPath(), updatedKey)) {
+                getTenantRoleConfig(extractTenant(permissionProperties.getPermissionsSpecPath(), updatedKey))
+                    .permissions = createPermissionsSnapshot(content);
+            } else if (matcher.match(getCustomPrivilegesPath(), updatedKey)) {
+                getTenantRoleConfig(extractTenant(getCustomPrivilegesPath(), updatedKey))
+                    .customPrivileges = parsePrivileges(content);
+            }
+            log.info("Role configuration was updated: {}", updatedKey);
+        } catch (Exception e) {
+            log.error("Error read role configuration from path {}", updatedKey, e);
+        }
+    }
+
+    @Override
+    @IgnoreLogginAspect
+    public boolean isListeningConfiguration(String updatedKey) {
+        return updatedKey.equals(permissionProperties.getPrivilegesSpecPath())
+            || matcher.match(permissionProperties.getRolesSpecPath(), updatedKey)
+            || matcher.match(permissionProperties.getPermissionsSpecPath(), updatedKey)
+            || matcher.match(getCustomPrivilegesPath(), updatedKey);
+    }
+
+    @Override
+    @IgnoreLogginAspect
+    public void onInit(String configKey, String configValue) {
+        if (isListeningConfiguration(configKey)) {
+            onRefresh(configKey, configValue);
+        }
+    }
+
+    private String extractTenant(String pathPattern, String path) {
+        return matcher.extractUriTemplateVariables(pathPattern, path).get(TENANT_NAME);
     }
 
     /**
      * Add role.
      * @param roleDto the role dto
      */
-    @SneakyThrows
     public void addRole(@Valid RoleDTO roleDto) {
 
         if (StringUtils.equalsIgnoreCase(RoleConstant.SUPER_ADMIN, roleDto.getRoleKey())) {
             throw new BusinessException(ERROR_FORBIDDEN_ROLE, "Forbidden role key");
         }
 
-        Map<String, Role> roles = getRoles();
-
-        if (null != roles.get(roleDto.getRoleKey())) {
-            throw new BusinessException("Role already exists");
-        }
-
-        Role role = new Role();
-        role.setDescription(roleDto.getDescription());
-        role.setCreatedBy(xmAuthenticationContextHolder.getContext().getRequiredLogin());
-        role.setCreatedDate(Instant.now().toString());
-        role.setUpdatedBy(xmAuthenticationContextHolder.getContext().getRequiredLogin());
-        role.setUpdatedDate(roleDto.getUpdatedDate());
-        roles.put(roleDto.getRoleKey(), role);
+        updateRoleConfig(null, roleConfig -> {
+            Map<String, Role> roles = roleConfig.getRoles();
 
-        updateRoles(mapper.writeValueAsString(roles));
+            if (null != roles.get(roleDto.getRoleKey())) {
+                throw new BusinessException("Role already exists");
+            }
 
-        Map<String, Map<String, Set<Permission>>> permissions = getPermissions();
-        if (StringUtils.isBlank(roleDto.getBasedOn())) {
-            enrichExistingPermissions(permissions, roleDto.getRoleKey());
-        } else {
-            enrichExistingPermissions(permissions, roleDto.getRoleKey(), roleDto.getBasedOn());
-        }
+            Role role = new Role();
+            role.setDescription(roleDto.getDescription());
+            role.setCreatedBy(xmAuthenticationContextHolder.getContext().getRequiredLogin());
+            role.setCreatedDate(Instant.now().toString());
+            role.setUpdatedBy(xmAuthenticationContextHolder.getContext().getRequiredLogin());
+            role.setUpdatedDate(roleDto.getUpdatedDate());
+            roles.put(roleDto.getRoleKey(), role);
 
-        updatePermissions(permissions);
+            if (StringUtils.isBlank(roleDto.getBasedOn())) {
+                enrichExistingPermissions(roleConfig.getPermissions(), roleDto.getRoleKey());
+            } else {
+                enrichExistingPermissions(roleConfig.getPermissions(), roleDto.getRoleKey(), roleDto.getBasedOn());
+            }
+        });
     }
 
     private void removeDefaultValues(Map<String, Map<String, Set<Permission>>> permissions) {
@@ -172,75 +289,127 @@ public class TenantRoleService {
 
     /**
      * Update role.
-     * @param roleDto the role dto
+     * @param roleDto the role dto, its version is checked if set
      */
-    @SneakyThrows
     public void updateRole(RoleDTO roleDto) {
-        Map<String, Role> roles = getRoles();
-        Role roleToUpdate = roles.get(roleDto.getRoleKey());
-
-        if (roleToUpdate == null) {
-            throw new BusinessException("Role doesn't exist");
-        }
-
-        roleToUpdate.setName(roleDto.getName());
-        roleToUpdate.setDescription(roleDto.getDescription());
-        roleToUpdate.setUpdatedBy(xmAuthenticationContextHolder.getContext().getRequiredLogin());
-        roleToUpdate.setUpdatedDate(Instant.now().toString());
-
-        roles.put(roleDto.getRoleKey(), roleToUpdate);
-
-        updateRoles(mapper.writeValueAsString(roles));
-
-        Collection<PermissionDTO> newPermissions = roleDto.getPermissions();
-
-        if (newPermissions.isEmpty()) {
-            return;
-        }
+        updateRoleConfig(roleDto.getVersion(), roleConfig -> {
+            Role roleToUpdate = roleConfig.getRoles().get(roleDto.getRoleKey());
 
-        Map<String, Map<String, Set<Permission>>> existingPermissions = getPermissions();
+            if (roleToUpdate == null) {
+                throw new BusinessException("Role doesn't exist");
+            }
 
-        enrichExistingPermissions(existingPermissions, newPermissions);
+            roleToUpdate.setName(roleDto.getName());
+            roleToUpdate.setDescription(roleDto.getDescription());
+            roleToUpdate.setUpdatedBy(xmAuthenticationContextHolder.getContext().getRequiredLogin());
+            roleToUpdate.setUpdatedDate(Instant.now().toString());
 
-        updatePermissions(existingPermissions);
+            enrichExistingPermissions(roleConfig.getPermissions(), roleDto.getPermissions());
+        });
     }
 
-    @SneakyThrows
     public List<PermissionDTO> getRolePermissions(String roleKey) {
-        String permissionsFile = getConfigContent(permissionProperties.getPermissionsSpecPath()).orElse("");
-
-        if (StringUtils.isBlank(permissionsFile)) {
-            return Collections.emptyList();
-        }
-
-        List<Permission> permissions = permissionMappingService.ymlToPermissionsList(permissionsFile);
-
-        return permissions.stream()
+        return getPermissionsSnapshot().getPermissionList().stream()
                           .filter(perm -> roleKey.equals(perm.getRoleKey()))
                           .map(PermissionDTO::new)
                           .collect(Collectors.toList());
     }
 
     /**
-     * Update roles properties.
-     * @param rolesYml roles config yml
+     * Get version of the current tenant roles and permissions, changed by every update of either file.
+     * @return the role configuration version
+     */
+    public String getRoleConfigVersion() {
+        return getVersion(getRolesSnapshot(), getPermissionsSnapshot());
+    }
+
+    /**
+     * Apply changes to roles and permissions of the current tenant as one update.
+     * <p>
+     * Changes are applied to a copy parsed once from the current snapshots, then changed files are written, roles
+     * first. If permissions are not written, the previous roles are written back. Updates of a tenant are serialized
+     * within this instance, and the config server rejects a file changed since it was read, so concurrent edits fail
+     * instead of overwriting each other.
+     * @param version the role configuration version the changes are based on, not checked if null
+     * @param changes changes of the roles and permissions copy
      */
     @SneakyThrows
-    private void updateRoles(String rolesYml) {
-        String tenant = TenantContextUtils.getRequiredTenantKeyValue(tenantContextHolder.getContext());
+    public void updateRoleConfig(String version, Consumer<RoleConfig> changes) {
+        String tenant = getTenantKey();
+        TenantRoleConfig tenantConfig = getTenantRoleConfig(tenant);
+        synchronized (tenantConfig.updateLock) {
+            RolesSnapshot rolesSnapshot = getRolesSnapshot();
+            PermissionsSnapshot permissionsSnapshot = getPermissionsSnapshot();
+            if (version != null && !version.equals(getVersion(rolesSnapshot, permissionsSnapshot))) {
+                throw roleConfigChanged();
+            }
 
-        tenantConfigRepository.updateConfigFullPath(tenant,
-            API + permissionProperties.getRolesSpecPath(), rolesYml);
+            RoleConfig roleConfig = new RoleConfig(parseRoles(rolesSnapshot.getContent()),
+                parsePermissions(permissionsSnapshot.getContent()));
+            String rolesYml = mapper.writeValueAsString(roleConfig.getRoles());
+            String permissionsYml = mapper.writeValueAsString(roleConfig.getPermissions());
+
+            changes.accept(roleConfig);
+            removeDefaultValues(roleConfig.getPermissions());
+            String newRolesYml = mapper.writeValueAsString(roleConfig.getRoles());
+            String newPermissionsYml = mapper.writeValueAsString(roleConfig.getPermissions());
+
+            try {
+                if (!newRolesYml.equals(rolesYml)) {
+                    updateConfig(tenant, permissionProperties.getRolesSpecPath(), newRolesYml,
+                        rolesSnapshot.getHash());
+                    // the pushed update may come later, reads after this update must see it
+                    tenantConfig.roles = createRolesSnapshot(newRolesYml);
+                }
+                if (!newPermissionsYml.equals(permissionsYml)) {
+                    boolean permissionsUpdated = false;
+                    try {
+                        updateConfig(tenant, permissionProperties.getPermissionsSpecPath(), newPermissionsYml,
+                            permissionsSnapshot.getHash());
+                        permissionsUpdated = true;
+                    } finally {
+                        if (!permissionsUpdated && !newRolesYml.equals(rolesYml)) {
+                            restoreRoles(tenant, tenantConfig, rolesSnapshot, newRolesYml);
+                        }
+                    }
+                    tenantConfig.permissions = createPermissionsSnapshot(newPermissionsYml);
+                }
+            } catch (HttpClientErrorException e) {
+                if (e.getStatusCode() != HttpStatus.CONFLICT) {
+                    throw e;
+                }
+                log.warn("Role configuration of tenant {} was changed concurrently", tenant);
+                // snapshots are outdated, next reads load the current files
+                tenantConfig.roles = null;
+                tenantConfig.permissions = null;
+                throw roleConfigChanged();
+            }
+        }
+    }
+
+    /**
+     * Write back roles of a batch whose permissions were not written, so the batch is not applied by half.
+     */
+    private void restoreRoles(String tenant, TenantRoleConfig tenantConfig, RolesSnapshot rolesSnapshot,
+                              String writtenRolesYml) {
+        String content = rolesSnapshot.getContent() != null ? rolesSnapshot.getContent() : EMPTY_YAML;
+        try {
+            updateConfig(tenant, permissionProperties.getRolesSpecPath(), content, sha1Hex(writtenRolesYml));
+        } catch (Exception e) {
+            log.error("Failed to restore roles of tenant {} after failed permissions update", tenant, e);
+        }
+        tenantConfig.roles = null;
     }
 
     @SneakyThrows
-    private void updatePermissions(Map<String, Map<String, Set<Permission>>> permission) {
-        removeDefaultValues(permission);
-        String permissionsYml = mapper.writeValueAsString(permission);
-        String tenant = TenantContextUtils.getRequiredTenantKeyValue(tenantContextHolder.getContext());
+    private void updateConfig(String tenant, String pathPattern, String content, String oldConfigHash) {
+        String path = pathPattern.replace("{" + TENANT_NAME + "}", tenant);
+        commonConfigRepository.updateConfigFullPath(Configuration.of().path(path).content(content).build(),
+            oldConfigHash);
+    }
 
-        tenantConfigRepository.updateConfigFullPath(tenant, API + permissionProperties.getPermissionsSpecPath(),
-            permissionsYml);
+    private static BusinessException roleConfigChanged() {
+        return new BusinessException(ERROR_ROLE_CONFIG_CHANGED, ERROR_ROLE_CONFIG_CHANGED_MESSAGE);
     }
 
     /**
@@ -248,10 +417,12 @@ public class TenantRoleService {
      * @return roles set
      */
     public Set<RoleDTO> getAllRoles() {
-        return getRoles().entrySet().stream()
-            .peek(entry -> entry.getValue().setKey(entry.getKey()))
-            .map(Map.Entry::getValue)
-            .map(RoleDTO::new)
+        return getRolesSnapshot().getRoles().entrySet().stream()
+            .map(entry -> {
+                RoleDTO roleDto = new RoleDTO(entry.getValue());
+                roleDto.setRoleKey(entry.getKey());
+                return roleDto;
+            })
             .collect(Collectors.toSet());
     }
 
@@ -261,27 +432,30 @@ public class TenantRoleService {
      * @return roleDTO
      */
     public Optional<RoleDTO> getRole(String roleKey) {
-        Role role = getRoles().get(roleKey);
+        RolesSnapshot rolesSnapshot = getRolesSnapshot();
+        PermissionsSnapshot permissionsSnapshot = getPermissionsSnapshot();
+        Role role = rolesSnapshot.getRoles().get(roleKey);
         if (role == null) {
             return Optional.empty();
         }
-        role.setKey(roleKey);
         RoleDTO roleDto = new RoleDTO(role);
+        roleDto.setRoleKey(roleKey);
         roleDto.setPermissions(new TreeSet<>());
+        roleDto.setVersion(getVersion(rolesSnapshot, permissionsSnapshot));
 
         // map key = MS_NAME:PRIVILEGE_KEY, value = PermissionDTO
         Map<String, PermissionDTO> permissions = new TreeMap<>();
 
         // create permissions dto with role permissions
-        getPermissions().forEach((msName, rolePermissions) ->
+        permissionsSnapshot.getPermissions().forEach((msName, rolePermissions) ->
             rolePermissions.entrySet().stream()
                 .filter(entry -> roleKey.equalsIgnoreCase(entry.getKey()))
                 .forEach(entry ->
                     entry.getValue().forEach(permission -> {
-                        permission.setMsName(msName);
-                        permission.setRoleKey(roleKey);
-                        permissions.put(msName + ":" + permission.getPrivilegeKey(),
-                            new PermissionDTO(permission));
+                        PermissionDTO permissionDto = new PermissionDTO(permission);
+                        permissionDto.setMsName(msName);
+                        permissionDto.setRoleKey(roleKey);
+                        permissions.put(msName + ":" + permission.getPrivilegeKey(), permissionDto);
                     })
                 ));
 
@@ -321,7 +495,6 @@ public class TenantRoleService {
         return Optional.of(roleDto);
     }
 
-    @SneakyThrows
     public void deleteRole(String roleKey) {
         if (CollectionUtils.isNotEmpty(userRepository.findByRoleKey(roleKey))) {
             throw new BusinessException("Failed to delete role. Role is assigned to user.");
@@ -330,16 +503,12 @@ public class TenantRoleService {
             throw new BusinessException("Failed to delete role. Role is assigned to client.");
         }
 
-        Map<String, Role> roles = getRoles();
-        roles.remove(roleKey);
-        updateRoles(mapper.writeValueAsString(roles));
-
-        Map<String, Map<String, Set<Permission>>> permissions = getPermissions();
-        for (Map<String, Set<Permission>> perm : permissions.values()) {
-            perm.remove(roleKey);
-        }
-        updatePermissions(permissions);
-
+        updateRoleConfig(null, roleConfig -> {
+            roleConfig.getRoles().remove(roleKey);
+            for (Map<String, Set<Permission>> perm : roleConfig.getPermissions().values()) {
+                perm.remove(roleKey);
+            }
+        });
     }
 
     /**
@@ -347,14 +516,17 @@ public class TenantRoleService {
      * @return the role matrix
      */
     public RoleMatrixDTO getRoleMatrix() {
+        RolesSnapshot rolesSnapshot = getRolesSnapshot();
+        PermissionsSnapshot permissionsSnapshot = getPermissionsSnapshot();
         RoleMatrixDTO roleMatrix = new RoleMatrixDTO();
-        roleMatrix.setRoles(getRoles().keySet());
+        roleMatrix.setRoles(new TreeSet<>(rolesSnapshot.getRoles().keySet()));
+        roleMatrix.setVersion(getVersion(rolesSnapshot, permissionsSnapshot));
 
         // map key = MS_NAME:PRIVILEGE_KEY, value = PermissionMatrixDTO
         Map<String, PermissionMatrixDTO> matrixPermissions = new HashMap<>();
 
         // create permissions matrix dto with role permissions
-        getPermissions().forEach((msName, rolePermissions) ->
+        permissionsSnapshot.getPermissions().forEach((msName, rolePermissions) ->
             rolePermissions.forEach((roleKey, permissions) ->
                     permissions.forEach(permission -> {
                         PermissionMatrixDTO permissionMatrix = matrixPermissions
@@ -406,9 +578,8 @@ public class TenantRoleService {
 
     /**
      * Update permissions by role matrix.
-     * @param roleMatrix the role matrix
+     * @param roleMatrix the role matrix, its version is checked if set
      */
-    @SneakyThrows
     public void updateRoleMatrix(RoleMatrixDTO roleMatrix) {
         // create map key: MS_NAME:PRIVILEGE_KEY, value: PermissionMatrixDTO for easy search
         Map<String, PermissionMatrixDTO> newPermissions = new HashMap<>();
@@ -416,45 +587,45 @@ public class TenantRoleService {
             newPermissions.put(permission.getMsName() + ":" + permission.getPrivilegeKey(), permission);
         }
 
-        Map<String, Map<String, Set<Permission>>> allPermissions = getPermissions();
-        allPermissions.forEach((msName, rolePermissions) ->
-            rolePermissions.entrySet().stream()
-                // do not update hidden roles
-                .filter(roleWithPermissions -> roleMatrix.getRoles().contains(roleWithPermissions.getKey()))
-                // roleWithPermissions -> key: ROLE_KEY, value: set of role permissions
-                .forEach(roleWithPermissions ->
-                    roleWithPermissions.getValue().forEach(permission -> {
-                        String key = msName + ":" + permission.getPrivilegeKey();
-                        if (newPermissions.get(key) != null) {
-                            /*
-                             * disable permissions for current ROLE_KEY if it
-                             * is not present in roleMatrix.permissions[].roles[] list
-                             */
-                            Set<String> roles = newPermissions.get(key).getRoles();
-                            if (roles.contains(roleWithPermissions.getKey())) {
-                                permission.setDisabled(false);
-                                roles.remove(roleWithPermissions.getKey());
-                            } else {
-                                permission.setDisabled(true);
+        updateRoleConfig(roleMatrix.getVersion(), roleConfig -> {
+            Map<String, Map<String, Set<Permission>>> allPermissions = roleConfig.getPermissions();
+            allPermissions.forEach((msName, rolePermissions) ->
+                rolePermissions.entrySet().stream()
+                    // do not update hidden roles
+                    .filter(roleWithPermissions -> roleMatrix.getRoles().contains(roleWithPermissions.getKey()))
+                    // roleWithPermissions -> key: ROLE_KEY, value: set of role permissions
+                    .forEach(roleWithPermissions ->
+                        roleWithPermissions.getValue().forEach(permission -> {
+                            String key = msName + ":" + permission.getPrivilegeKey();
+                            if (newPermissions.get(key) != null) {
+                                /*
+                                 * disable permissions for current ROLE_KEY if it
+                                 * is not present in roleMatrix.permissions[].roles[] list
+                                 */
+                                Set<String> roles = newPermissions.get(key).getRoles();
+                                if (roles.contains(roleWithPermissions.getKey())) {
+                                    permission.setDisabled(false);
+                                    roles.remove(roleWithPermissions.getKey());
+                                } else {
+                                    permission.setDisabled(true);
+                                }
                             }
-                        }
-                    }))
-        );
-
-        // processing permissions for new role
-        roleMatrix.getPermissions().stream().filter(permissionMatrixDTO ->
-            !permissionMatrixDTO.getRoles().isEmpty()).forEach(permissionMatrixDTO -> {
-                allPermissions.putIfAbsent(permissionMatrixDTO.getMsName(), new TreeMap<>());
-                permissionMatrixDTO.getRoles().forEach(role -> {
-                    allPermissions.get(permissionMatrixDTO.getMsName()).putIfAbsent(role, new TreeSet<>());
-                    Permission permission = new Permission();
-                    permission.setPrivilegeKey(permissionMatrixDTO.getPrivilegeKey());
-                    permission.setDisabled(false);
-                    allPermissions.get(permissionMatrixDTO.getMsName()).get(role).add(permission);
+                        }))
+            );
+
+            // processing permissions for new role
+            roleMatrix.getPermissions().stream().filter(permissionMatrixDTO ->
+                !permissionMatrixDTO.getRoles().isEmpty()).forEach(permissionMatrixDTO -> {
+                    allPermissions.putIfAbsent(permissionMatrixDTO.getMsName(), new TreeMap<>());
+                    permissionMatrixDTO.getRoles().forEach(role -> {
+                        allPermissions.get(permissionMatrixDTO.getMsName()).putIfAbsent(role, new TreeSet<>());
+                        Permission permission = new Permission();
+                        permission.setPrivilegeKey(permissionMatrixDTO.getPrivilegeKey());
+                        permission.setDisabled(false);
+                        allPermissions.get(permissionMatrixDTO.getMsName()).get(role).add(permission);
+                    });
                 });
-            });
-
-        updatePermissions(allPermissions);
+        });
     }
 
     /**
@@ -508,10 +679,19 @@ public class TenantRoleService {
         });
     }
 
+    private static String getVersion(RolesSnapshot roles, PermissionsSnapshot permissions) {
+        return sha1Hex(roles.getHash() + ":" + permissions.getHash());
+    }
+
+    @SneakyThrows
+    private static String sha1Hex(String content) {
+        byte[] digest = MessageDigest.getInstance("SHA-1").digest(content.getBytes(StandardCharsets.UTF_8));
+        return String.format("%040x", new BigInteger(1, digest));
+    }
+
     @SneakyThrows
-    private <T> T getConfig(String configPath, TypeReference<T> typeReference) {
-        String config = getConfigContent(configPath).orElse(EMPTY_YAML);
-        return mapper.readValue(config, typeReference);
+    private <T> T parseConfig(String content, TypeReference<T> typeReference) {
+        return mapper.readValue(content != null ? content : EMPTY_YAML, typeReference);
     }
 
     private Optional<String> getConfigContent(String configPath) {
@@ -537,4 +717,135 @@ public class TenantRoleService {
                                      .map(Configuration::getContent)
                                      .findFirst();
     }
+
+    /**
+     * Copy of the tenant roles and permissions, modified by a batched update.
+     */
+    public static class RoleConfig {
+
+        private final Map<String, Role> roles;
+        private final Map<String, Map<String, Set<Permission>>> permissions;
+
+        RoleConfig(Map<String, Role> roles, Map<String, Map<String, Set<Permission>>> permissions) {
+            this.roles = roles;
+            this.permissions = permissions;
+        }
+
+        /**
+         * Roles by role key.
+         */
+        public Map<String, Role> getRoles() {
+            return roles;
+        }
+
+        /**
+         * Permissions by ms name and role key.
+         */
+        public Map<String, Map<String, Set<Permission>>> getPermissions() {
+            return permissions;
+        }
+    }
+
+    /**
+     * Role configuration snapshots of a tenant, null until received or loaded.
+     */
+    private static class TenantRoleConfig {
+
+        private final Object updateLock = new Object();
+        private volatile RolesSnapshot roles;
+        private volatile PermissionsSnapshot permissions;
+        private volatile Map<String, Set<Privilege>> customPrivileges;
+
+        // a loaded snapshot does not replace one pushed meanwhile
+
+        synchronized RolesSnapshot initRoles(RolesSnapshot loaded) {
+            if (roles == null) {
+                roles = loaded;
+            }
+            return roles;
+        }
+
+        synchronized PermissionsSnapshot initPermissions(PermissionsSnapshot loaded) {
+            if (permissions == null) {
+                permissions = loaded;
+            }
+            return permissions;
+        }
+
+        synchronized Map<String, Set<Privilege>> initCustomPrivileges(Map<String, Set<Privilege>> loaded) {
+            if (customPrivileges == null) {
+                customPrivileges = loaded;
+            }
+            return customPrivileges;
+        }
+    }
+
+    private static class RolesSnapshot {
+
+        private final String content;
+        private final String hash;
+        private final Map<String, Role> roles;
+
+        RolesSnapshot(String content, Map<String, Role> roles) {
+            this.content = content;
+            this.hash = content != null ? sha1Hex(content) : null;
+            this.roles = Collections.unmodifiableMap(roles);
+        }
+
+        String getContent() {
+            return content;
+        }
+
+        /**
+         * Hash of the content as the config server computes it, null if there is no file.
+         */
+        String getHash() {
+            return hash;
+        }
+
+        Map<String, Role> getRoles() {
+            return roles;
+        }
+    }
+
+    private static class PermissionsSnapshot {
+
+        private final String content;
+        private final String hash;
+        private final Map<String, Map<String, Set<Permission>>> permissions;
+        private final List<Permission> permissionList;
+
+        PermissionsSnapshot(String content, Map<String, Map<String, Set<Permission>>> permissions,
+                            List<Permission> permissionList) {
+            this.content = content;
+            this.hash = content != null ? sha1Hex(content) : null;
+            Map<String, Map<String, Set<Permission>>> readOnly = new TreeMap<>();
+            permissions.forEach((msName, rolePermissions) -> readOnly.put(msName, rolePermissions == null
+                ? Collections.emptyMap() : unmodifiableValues(rolePermissions, Collections::unmodifiableSet)));
+            this.permissions = Collections.unmodifiableMap(readOnly);
+            this.permissionList = Collections.unmodifiableList(permissionList);
+        }
+
+        private static <V> Map<String, V> unmodifiableValues(Map<String, V> map, Function<V, V> unmodifiable) {
+            Map<String, V> result = new TreeMap<>();
+            map.forEach((key, value) -> result.put(key, value == null ? null : unmodifiable.apply(value)));
+            return Collections.unmodifiableMap(result);
+        }
+
+        String getContent() {
+            return content;
+        }
+
+        String getHash() {
+            return hash;
+        }
+
+        Map<String, Map<String, Set<Permission>>> getPermissions() {
+            return permissions;
+        }
+
+        List<Permission> getPermissionList() {
+            return permissionList;
+        }
+    }
 }
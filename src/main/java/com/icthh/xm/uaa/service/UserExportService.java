@@ -0,0 +1,116 @@
+package com.icthh.xm.uaa.service;
+
+import static java.util.stream.Collectors.toList;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.google.common.collect.Iterators;
+import com.icthh.xm.commons.logging.aop.IgnoreLogginAspect;
+import com.icthh.xm.uaa.domain.User;
+import com.icthh.xm.uaa.repository.UserRepository;
+import com.icthh.xm.uaa.service.dto.UserCsvRow;
+import com.icthh.xm.uaa.service.dto.UserDTO;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import javax.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Export of all the tenant users.
+ * <p>
+ * User ids are read through a forward-only cursor and the users with their logins are loaded by one query per chunk
+ * of ids. Each chunk is written to the output and detached, so memory use does not depend on the number of users.
+ */
+@Slf4j
+@Service
+@IgnoreLogginAspect
+@RequiredArgsConstructor
+public class UserExportService {
+
+    private static final int CHUNK_SIZE = 500;
+
+    private final UserRepository userRepository;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    private final CsvMapper csvMapper = new CsvMapper();
+
+    /**
+     * Write users as JSON lines, one {@link UserDTO} per line.
+     *
+     * @param roleKey the role key to export users with, all users if blank
+     * @param out     the output
+     */
+    @Transactional(readOnly = true)
+    public void exportJsonLines(String roleKey, OutputStream out) {
+        ObjectWriter writer = objectMapper.writerFor(UserDTO.class);
+        export(roleKey, users -> {
+            try {
+                for (UserDTO user : users) {
+                    out.write(writer.writeValueAsBytes(user));
+                    out.write('\n');
+                }
+                out.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    /**
+     * Write users as CSV with a header line, one {@link UserCsvRow} per record.
+     *
+     * @param roleKey the role key to export users with, all users if blank
+     * @param out     the output
+     * @throws IOException on write failure
+     */
+    @Transactional(readOnly = true)
+    public void exportCsv(String roleKey, OutputStream out) throws IOException {
+        CsvSchema schema = csvMapper.schemaFor(UserCsvRow.class).withHeader();
+        try (SequenceWriter writer = csvMapper.writer(schema).writeValues(out)) {
+            export(roleKey, users -> {
+                try {
+                    for (UserDTO user : users) {
+                        writer.write(UserCsvRow.of(user));
+                    }
+                    writer.flush();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+
+    private void export(String roleKey, Consumer<List<UserDTO>> listener) {
+        int exported = 0;
+        try (Stream<Long> ids = StringUtils.isBlank(roleKey)
+            ? userRepository.streamAllIds() : userRepository.streamIdsByRoleKey(roleKey)) {
+            Iterator<List<Long>> chunks = Iterators.partition(ids.iterator(), CHUNK_SIZE);
+            while (chunks.hasNext()) {
+                // the logins join repeats a user per login
+                List<UserDTO> users = userRepository.findAllWithLoginsByIdIn(chunks.next()).stream()
+                    .distinct()
+                    .sorted(Comparator.comparing(User::getId))
+                    .map(UserDTO::new)
+                    .collect(toList());
+                entityManager.clear();
+                listener.accept(users);
+                exported += users.size();
+            }
+        }
+        log.info("Users exported: {}", exported);
+    }
+}
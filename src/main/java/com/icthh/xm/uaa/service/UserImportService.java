@@ -0,0 +1,356 @@
+package com.icthh.xm.uaa.service;
+
+import static com.icthh.xm.uaa.web.rest.util.VerificationUtils.assertNotSuperAdmin;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.icthh.xm.commons.exceptions.BusinessException;
+import com.icthh.xm.commons.logging.aop.IgnoreLogginAspect;
+import com.icthh.xm.commons.logging.util.MdcUtils;
+import com.icthh.xm.commons.tenant.PlainTenant;
+import com.icthh.xm.commons.tenant.TenantContextHolder;
+import com.icthh.xm.commons.tenant.TenantContextUtils;
+import com.icthh.xm.commons.tenant.TenantKey;
+import com.icthh.xm.uaa.config.ApplicationProperties;
+import com.icthh.xm.uaa.config.Constants;
+import com.icthh.xm.uaa.domain.User;
+import com.icthh.xm.uaa.domain.UserLogin;
+import com.icthh.xm.uaa.repository.kafka.ProfileEventProducer;
+import com.icthh.xm.uaa.service.dto.UserCsvRow;
+import com.icthh.xm.uaa.service.dto.UserDTO;
+import com.icthh.xm.uaa.service.dto.UserImportResult;
+import com.icthh.xm.uaa.service.util.RandomUtil;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import javax.persistence.EntityManager;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Bulk import of users created by admin, as {@link UserService#createUser(UserDTO)} does for a single user.
+ * <p>
+ * Rows are read from the stream and processed in batches: logins of the whole batch are checked by a few queries,
+ * logins of previous batches are already in the database. The generated passwords are hashed in parallel by the
+ * shared import executor, then the users are created through the CreateUser LEP of
+ * {@link UserService#createUser(UserDTO, String)} in one transaction, which sends the inserts as JDBC batches.
+ * Results are reported per batch, without keeping the whole import in memory.
+ * Users get a random password and set their own one by the password reset, no mails are sent.
+ */
+@Slf4j
+@Service
+@IgnoreLogginAspect
+@RequiredArgsConstructor
+public class UserImportService {
+
+    public static final String ERROR_INVALID_ROW = "error.user.import.invalid.row";
+    public static final String ERROR_VALIDATION = "error.validation";
+    public static final String ERROR_INTERNAL = "error.internalServerError";
+
+    /**
+     * JDBC batch size of the import session, matches the allocation size of the id sequence.
+     */
+    private static final int JDBC_BATCH_SIZE = 50;
+
+    private final UserService userService;
+    private final UserLoginService userLoginService;
+    private final PasswordEncoder passwordEncoder;
+    private final TenantContextHolder tenantContextHolder;
+    private final PlatformTransactionManager transactionManager;
+    private final ProfileEventProducer profileEventProducer;
+    private final ApplicationProperties applicationProperties;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final EntityManager entityManager;
+    @Qualifier("userImportHashingExecutor")
+    private final AsyncTaskExecutor hashingExecutor;
+
+    private final CsvMapper csvMapper = new CsvMapper();
+
+    /**
+     * Import users from JSON lines, one {@link UserDTO} per line.
+     *
+     * @param in       the JSON lines
+     * @param listener receives results of each processed batch
+     * @throws IOException on read failure
+     */
+    public void importJsonLines(Reader in, Consumer<List<UserImportResult>> listener) throws IOException {
+        ObjectReader reader = objectMapper.readerFor(UserDTO.class);
+        BufferedReader lines = new BufferedReader(in);
+        try (Importer importer = new Importer(listener)) {
+            int row = 0;
+            String line;
+            while ((line = lines.readLine()) != null) {
+                row++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    importer.add(new ImportRow(row, reader.readValue(line)));
+                } catch (JsonProcessingException e) {
+                    importer.fail(row, ERROR_INVALID_ROW, e.getOriginalMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Import users from CSV with a header line, one {@link UserCsvRow} per record.
+     *
+     * @param in       the CSV
+     * @param listener receives results of each processed batch
+     * @throws IOException on read failure
+     */
+    public void importCsv(Reader in, Consumer<List<UserImportResult>> listener) throws IOException {
+        CsvSchema schema = CsvSchema.emptySchema().withHeader();
+        try (Importer importer = new Importer(listener);
+             MappingIterator<UserCsvRow> records = csvMapper.readerFor(UserCsvRow.class).with(schema).readValues(in)) {
+            int row = 0;
+            while (records.hasNext()) {
+                row++;
+                try {
+                    importer.add(new ImportRow(row, records.next().toUserDTO()));
+                } catch (RuntimeJsonMappingException e) {
+                    importer.fail(row, ERROR_INVALID_ROW, e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Collects rows into batches and imports each full batch.
+     */
+    private class Importer implements AutoCloseable {
+
+        private final Consumer<List<UserImportResult>> listener;
+        private final int batchSize = Math.max(1, applicationProperties.getUserImport().getBatchSize());
+        private final TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        private final TenantKey tenantKey = TenantContextUtils.getRequiredTenantKey(tenantContextHolder);
+        private final String rid = MdcUtils.getRid();
+
+        private List<ImportRow> batch = new ArrayList<>();
+        private List<UserImportResult> results = new ArrayList<>();
+        private int created;
+        private int failed;
+
+        Importer(Consumer<List<UserImportResult>> listener) {
+            this.listener = listener;
+        }
+
+        void add(ImportRow row) {
+            batch.add(row);
+            if (batch.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        void fail(int row, String error, String message) {
+            results.add(UserImportResult.failed(row, error, message));
+            failed++;
+        }
+
+        void flush() {
+            if (!batch.isEmpty()) {
+                List<ImportRow> valid = validate(batch);
+                hashPasswords(valid);
+                insert(valid.stream().filter(row -> row.passwordHash != null).collect(Collectors.toList()));
+            }
+            if (!results.isEmpty()) {
+                results.sort((first, second) -> Integer.compare(first.getRow(), second.getRow()));
+                listener.accept(results);
+            }
+            batch = new ArrayList<>();
+            results = new ArrayList<>();
+        }
+
+        private List<ImportRow> validate(List<ImportRow> rows) {
+            List<ImportRow> valid = new ArrayList<>();
+            for (ImportRow row : rows) {
+                try {
+                    validate(row.user);
+                    userLoginService.normalizeLogins(row.user.getLogins());
+                    valid.add(row);
+                } catch (BusinessException e) {
+                    fail(row.row, e.getCode(), e.getMessage());
+                }
+            }
+
+            Set<String> existingLogins = userLoginService.findExistingLogins(valid.stream()
+                .flatMap(row -> row.user.getLogins().stream())
+                .map(UserLogin::getLogin)
+                .collect(Collectors.toList()));
+
+            // logins of previous batches are found in the database, only this batch is checked in memory
+            Set<String> batchLogins = new HashSet<>();
+            List<ImportRow> unique = new ArrayList<>();
+            for (ImportRow row : valid) {
+                List<String> logins = row.user.getLogins().stream()
+                    .map(UserLogin::getLogin)
+                    .map(UserLogin::normalize)
+                    .collect(Collectors.toList());
+                boolean used = logins.stream().anyMatch(existingLogins::contains)
+                    || logins.stream().anyMatch(batchLogins::contains)
+                    || logins.stream().distinct().count() < logins.size();
+                if (used) {
+                    fail(row.row, Constants.LOGIN_USED_CODE, Constants.LOGIN_IS_USED_ERROR_TEXT);
+                } else {
+                    batchLogins.addAll(logins);
+                    unique.add(row);
+                }
+            }
+            return unique;
+        }
+
+        private void validate(UserDTO user) {
+            if (user.getId() != null) {
+                throw new BusinessException(ERROR_VALIDATION, "A new user cannot already have an ID");
+            }
+            Set<ConstraintViolation<UserDTO>> violations = validator.validate(user);
+            if (!violations.isEmpty()) {
+                throw new BusinessException(ERROR_VALIDATION, violations.stream()
+                    .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining(", ")));
+            }
+            if (user.getAuthorities() != null) {
+                assertNotSuperAdmin(user);
+            }
+        }
+
+        private void hashPasswords(List<ImportRow> rows) {
+            List<Future<String>> hashes = rows.stream()
+                .map(row -> hashingExecutor.submit(this::encodeRandomPassword))
+                .collect(Collectors.toList());
+            for (int i = 0; i < rows.size(); i++) {
+                try {
+                    rows.get(i).passwordHash = hashes.get(i).get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("User import interrupted", e);
+                } catch (ExecutionException e) {
+                    log.error("Password hashing failed for row {}", rows.get(i).row, e.getCause());
+                    fail(rows.get(i).row, ERROR_INTERNAL, "Password hashing failed");
+                }
+            }
+        }
+
+        private String encodeRandomPassword() {
+            // the password encoder depends on the tenant settings
+            try {
+                MdcUtils.putRid(rid);
+                tenantContextHolder.getPrivilegedContext().setTenant(new PlainTenant(tenantKey));
+                return passwordEncoder.encode(RandomUtil.generatePassword());
+            } finally {
+                tenantContextHolder.getPrivilegedContext().destroyCurrentContext();
+                MdcUtils.removeRid();
+            }
+        }
+
+        private void insert(List<ImportRow> rows) {
+            if (rows.isEmpty()) {
+                return;
+            }
+            try {
+                List<User> users = transactionTemplate.execute(status -> {
+                    // batching is enabled for the import flush only, other flushes of the app are not affected
+                    Session session = entityManager.unwrap(Session.class);
+                    Integer jdbcBatchSize = session.getJdbcBatchSize();
+                    session.setJdbcBatchSize(JDBC_BATCH_SIZE);
+                    try {
+                        List<User> saved = rows.stream().map(this::createUser).collect(Collectors.toList());
+                        entityManager.flush();
+                        return saved;
+                    } finally {
+                        session.setJdbcBatchSize(jdbcBatchSize);
+                    }
+                });
+                for (int i = 0; i < rows.size(); i++) {
+                    onCreated(rows.get(i), users.get(i));
+                }
+            } catch (RuntimeException e) {
+                // a concurrent insert of the same login or a LEP rejection fails the whole batch,
+                // find the failed rows one by one
+                log.warn("User import batch failed, retrying rows one by one: {}", e.getMessage());
+                rows.forEach(this::insert);
+            }
+        }
+
+        private void insert(ImportRow row) {
+            try {
+                onCreated(row, transactionTemplate.execute(status -> createUser(row)));
+            } catch (BusinessException e) {
+                // rejected by the tenant CreateUser logic
+                fail(row.row, e.getCode(), e.getMessage());
+            } catch (RuntimeException e) {
+                log.warn("User import failed for row {}: {}", row.row, e.getMessage());
+                fail(row.row, ERROR_INVALID_ROW, e.getMessage());
+            }
+        }
+
+        private User createUser(ImportRow row) {
+            return userService.createUser(withNewLogins(row.user), row.passwordHash);
+        }
+
+        private void onCreated(ImportRow row, User user) {
+            String content = profileEventProducer.createEventJson(new UserDTO(user),
+                Constants.CREATE_PROFILE_EVENT_TYPE);
+            profileEventProducer.send(content);
+            results.add(UserImportResult.created(row.row, user.getUserKey()));
+            created++;
+        }
+
+        @Override
+        public void close() {
+            flush();
+            log.info("User import finished, created: {}, failed: {}", created, failed);
+        }
+    }
+
+    private static UserDTO withNewLogins(UserDTO user) {
+        // a rolled back insert leaves generated ids on the entities, so build fresh ones on each attempt
+        user.setLogins(user.getLogins().stream().map(UserImportService::copyLogin).collect(Collectors.toList()));
+        return user;
+    }
+
+    private static UserLogin copyLogin(UserLogin login) {
+        UserLogin copy = new UserLogin();
+        copy.setTypeKey(login.getTypeKey());
+        copy.setStateKey(login.getStateKey());
+        copy.setLogin(login.getLogin());
+        return copy;
+    }
+
+    private static class ImportRow {
+
+        private final int row;
+        private final UserDTO user;
+        private String passwordHash;
+
+        ImportRow(int row, UserDTO user) {
+            this.row = row;
+            this.user = user;
+        }
+    }
+}
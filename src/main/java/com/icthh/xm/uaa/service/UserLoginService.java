@@ -1,5 +1,6 @@
 package com.icthh.xm.uaa.service;
 
+import com.google.common.collect.Lists;
 import com.icthh.xm.commons.exceptions.BusinessException;
 import com.icthh.xm.commons.lep.LogicExtensionPoint;
 import com.icthh.xm.commons.lep.spring.LepService;
@@ -10,10 +11,16 @@ import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import static com.icthh.xm.uaa.config.Constants.LOGIN_USED_CODE;
 import static com.icthh.xm.uaa.config.Constants.LOGIN_USED_PARAM;
@@ -29,6 +36,8 @@ import static org.apache.commons.lang3.StringUtils.trim;
 @Slf4j
 public class UserLoginService {
 
+    private static final int IN_CHUNK_SIZE = 1000;
+
     private final UserLoginRepository userLoginRepository;
 
     public Optional<UserLogin> getUserByLogin(String login) {
@@ -53,14 +62,10 @@ public class UserLoginService {
      * @param userLogins
      */
     public void verifyLoginsNotExist(List<UserLogin> userLogins) {
-        userLogins.forEach(userLogin ->
-            userLoginRepository.findOneByLoginIgnoreCase(userLogin.getLogin())
-                .ifPresent(s -> {
-                    Map<String, String> params = new HashMap<>();
-                    params.put(LOGIN_USED_PARAM, s.getTypeKey());
-                    throw new BusinessException(LOGIN_USED_CODE, Constants.LOGIN_IS_USED_ERROR_TEXT, params);
-                })
-        );
+        List<String> logins = normalize(userLogins);
+        if (!logins.isEmpty()) {
+            assertNoneUsed(logins, userLoginRepository.findAllByNormalizedLoginIn(logins));
+        }
     }
 
     /**
@@ -68,13 +73,57 @@ public class UserLoginService {
      * @param userLogins
      */
     public void verifyLoginsNotExist(List<UserLogin> userLogins, Long userId) {
-        userLogins.forEach(userLogin ->
-            userLoginRepository.findOneByLoginIgnoreCaseAndUserIdNot(userLogin.getLogin(), userId)
-                .ifPresent(s -> {
-                    Map<String, String> params = new HashMap<>();
-                    params.put(LOGIN_USED_PARAM, s.getTypeKey());
-                    throw new BusinessException(LOGIN_USED_CODE, Constants.LOGIN_IS_USED_ERROR_TEXT, params);
-                })
-        );
+        List<String> logins = normalize(userLogins);
+        if (!logins.isEmpty()) {
+            assertNoneUsed(logins, userLoginRepository.findAllByNormalizedLoginInAndUserIdNot(logins, userId));
+        }
+    }
+
+    /**
+     * Find which of the logins already exist in the system, e.g. to validate a batch of users at once.
+     * Logins are queried in chunks to stay within the database limit of the IN list size.
+     * @param logins logins to check
+     * @return existing logins, lower-cased
+     */
+    @Transactional(readOnly = true)
+    public Set<String> findExistingLogins(Collection<String> logins) {
+        List<String> normalized = logins.stream()
+            .filter(Objects::nonNull)
+            .map(UserLogin::normalize)
+            .distinct()
+            .collect(Collectors.toList());
+        Set<String> existing = new HashSet<>();
+        Lists.partition(normalized, IN_CHUNK_SIZE)
+            .forEach(chunk -> existing.addAll(userLoginRepository.findNormalizedLoginsIn(chunk)));
+        return existing;
+    }
+
+    private static List<String> normalize(List<UserLogin> userLogins) {
+        return userLogins.stream()
+            .map(UserLogin::getLogin)
+            .filter(Objects::nonNull)
+            .map(UserLogin::normalize)
+            .distinct()
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Fails on the first used login in the order of the verified logins.
+     */
+    private static void assertNoneUsed(List<String> logins, List<UserLogin> usedLogins) {
+        if (usedLogins.isEmpty()) {
+            return;
+        }
+        Map<String, UserLogin> used = usedLogins.stream()
+            .collect(Collectors.toMap(UserLogin::getNormalizedLogin, Function.identity(), (first, second) -> first));
+        logins.stream()
+            .map(used::get)
+            .filter(Objects::nonNull)
+            .findFirst()
+            .ifPresent(s -> {
+                Map<String, String> params = new HashMap<>();
+                params.put(LOGIN_USED_PARAM, s.getTypeKey());
+                throw new BusinessException(LOGIN_USED_CODE, Constants.LOGIN_IS_USED_ERROR_TEXT, params);
+            });
     }
 }
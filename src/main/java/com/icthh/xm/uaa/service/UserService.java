@@ -19,12 +19,16 @@ import com.icthh.xm.uaa.domain.properties.TenantProperties.PublicSettings.Passwo
 import com.icthh.xm.uaa.repository.UserLoginRepository;
 import com.icthh.xm.uaa.repository.UserPermittedRepository;
 import com.icthh.xm.uaa.repository.UserRepository;
+import com.icthh.xm.uaa.security.OnlineUsersCache;
+import com.icthh.xm.uaa.security.PasswordHashCache;
 import com.icthh.xm.uaa.security.TokenConstraintsService;
+import com.icthh.xm.uaa.security.UserActivationCache;
 import com.icthh.xm.uaa.service.account.password.reset.PasswordResetHandlerFactory;
 import com.icthh.xm.uaa.service.account.password.reset.PasswordResetRequest;
 import com.icthh.xm.uaa.service.dto.TfaOtpChannelSpec;
 import com.icthh.xm.uaa.service.dto.UserDTO;
 import com.icthh.xm.uaa.service.dto.UserWithContext;
+import com.icthh.xm.uaa.service.query.KeysetPage;
 import com.icthh.xm.uaa.service.util.RandomUtil;
 import com.icthh.xm.uaa.util.OtpUtils;
 import java.util.stream.Collectors;
@@ -80,6 +84,9 @@ public class UserService {
     private final ApplicationProperties applicationProperties;
     private final TenantPermissionService tenantPermissionService;
     private final PermissionContextProvider permissionContextProvider;
+    private final PasswordHashCache passwordHashCache;
+    private final UserActivationCache userActivationCache;
+    private final OnlineUsersCache onlineUsersCache;
     @Setter(onMethod = @__(@Autowired))
     private UserService self;
 
@@ -101,6 +108,7 @@ public class UserService {
         return userRepository.findOneByResetKey(key)
             .map(this::checkResetKey)
             .map(user -> {
+                passwordHashCache.evict(user.getPassword());
                 user.setPassword(passwordEncoder.encode(newPassword));
                 user.setPasswordSetByUser(true);
                 user.setResetKey(null);
@@ -161,13 +169,37 @@ public class UserService {
      */
     @LogicExtensionPoint("CreateUser")
     public User createUser(UserDTO user) {
+        String encryptedPassword = passwordEncoder.encode(RandomUtil.generatePassword());
+        return userRepository.save(newUser(user, encryptedPassword));
+    }
+
+    /**
+     * Create new user by admin with a generated password hashed in advance, as the bulk import does.
+     * Runs the same CreateUser LEP as {@link #createUser(UserDTO)}, with the hash as an extra argument.
+     *
+     * @param user              new user
+     * @param encryptedPassword hash of a generated password, the user sets own one by the reset key
+     * @return user
+     */
+    @LogicExtensionPoint("CreateUser")
+    public User createUser(UserDTO user, String encryptedPassword) {
+        return userRepository.save(newUser(user, encryptedPassword));
+    }
+
+    /**
+     * Build a new user created by admin, without saving it.
+     *
+     * @param user              new user
+     * @param encryptedPassword hash of a generated password, the user sets own one by the reset key
+     * @return user
+     */
+    public User newUser(UserDTO user, String encryptedPassword) {
         User newUser = new User();
         newUser.setFirstName(user.getFirstName());
         newUser.setLastName(user.getLastName());
         newUser.setImageUrl(user.getImageUrl());
         newUser.setLangKey(user.getLangKey() == null ? "en" : user.getLangKey());
         newUser.setAuthorities(getRequiredRoleKey(user)); // default role is ROLE_USER
-        String encryptedPassword = passwordEncoder.encode(RandomUtil.generatePassword());
         newUser.setPassword(encryptedPassword);
         newUser.setPasswordSetByUser(false);
         newUser.setResetKey(RandomUtil.generateResetKey());
@@ -179,7 +211,7 @@ public class UserService {
         newUser.setData(user.getData());
         newUser.setUpdatePasswordDate(Instant.now());
 
-        return userRepository.save(updateUserAutoLogoutSettings(user, newUser));
+        return updateUserAutoLogoutSettings(user, newUser);
     }
 
 
@@ -303,6 +335,10 @@ public class UserService {
 
         userRepository.findOneWithLoginsByUserKey(userKey).ifPresent(user -> {
             assertNotSuperAdmin(user.getAuthorities());
+            userActivationCache.evict(user);
+            onlineUsersCache.remove(user.getLogins().stream()
+                .map(UserLogin::getLogin)
+                .collect(Collectors.toList()));
             userRepository.delete(user);
             notification.accept(new UserDTO(user));
         });
@@ -320,6 +356,24 @@ public class UserService {
         }
     }
 
+    /**
+     * Get the page of users following the continuation token, without the total count.
+     *
+     * @param continuationToken the token of the previous page, blank for the first page
+     * @param size              the page size
+     * @param roleKey           the role key, all roles if blank
+     * @param privilegeKey      the privilege key
+     * @return the page of users ordered by id
+     */
+    @Transactional(readOnly = true)
+    @FindWithPermission("USER.GET_LIST")
+    public KeysetPage<UserDTO> getAllManagedUsers(String continuationToken, int size, String roleKey,
+                                                  String privilegeKey) {
+        List<User> users = userPermittedRepository.findAllAfterId(KeysetPage.toAfterId(continuationToken),
+            StringUtils.isNoneBlank(roleKey) ? roleKey : null, size + 1, privilegeKey);
+        return KeysetPage.of(users, size, User::getId).map(UserDTO::new);
+    }
+
     /**
      * Get authenticated user account with actual permissions by authorities & permission authentication context
      * @return  UserDTO with auth context
@@ -525,6 +579,9 @@ public class UserService {
             .findOneByUserKey(userKey)
             .map(user -> {
                 user.setActivated(newState);
+                if (!newState) {
+                    userActivationCache.evict(user);
+                }
                 return user;
             })
             .map(UserDTO::new);
@@ -640,6 +697,9 @@ public class UserService {
             if (dstUser.isActivated() != srcDTO.isActivated()) {
                 log.warn("State isActivated=[{}] will be allied to user.id={}. Evaluate strictUserManagement as option", srcDTO.isActivated(), dstUser.getId());
                 dstUser.setActivated(srcDTO.isActivated());
+                if (!srcDTO.isActivated()) {
+                    userActivationCache.evict(dstUser);
+                }
             }
 
         }
@@ -720,5 +780,6 @@ public class UserService {
     public void passwordAttemptsExceeded(User user) {
         user.setActivated(false);
         user.resetPasswordAttempts();
+        userActivationCache.evict(user);
     }
 }
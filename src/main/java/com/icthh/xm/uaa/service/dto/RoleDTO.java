@@ -28,6 +28,7 @@ public class RoleDTO {
 
     private Collection<PermissionDTO> permissions = new TreeSet<>();
     private List<String> env = new ArrayList<>();
+    private String version;
 
     public RoleDTO(Role role) {
         name = role.getName();
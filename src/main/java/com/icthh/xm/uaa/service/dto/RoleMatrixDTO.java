@@ -18,12 +18,14 @@ public class RoleMatrixDTO {
 
     private Collection<String> roles;
     private Set<PermissionMatrixDTO> permissions = new TreeSet<>();
+    private String version;
 
     @Override
     public String toString() {
         return "RoleMatrixDTO{" +
                "roles=" + roles +
                ", permissions.size=" + permissions.size() +
+               ", version='" + version + '\'' +
                '}';
     }
 
@@ -0,0 +1,84 @@
+package com.icthh.xm.uaa.service.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.icthh.xm.uaa.domain.UserLogin;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A user of a CSV bulk import or export, a flat subset of {@link UserDTO} with a single login.
+ * The first CSV line is the header with the column names.
+ */
+@Getter
+@Setter
+@ToString
+@JsonIgnoreProperties(ignoreUnknown = true)
+@JsonPropertyOrder({"userKey", "login", "loginTypeKey", "firstName", "lastName", "langKey", "roleKey", "imageUrl",
+    "activated"})
+public class UserCsvRow {
+
+    /**
+     * Exported only, imported users get a new key.
+     */
+    private String userKey;
+    private String login;
+    private String loginTypeKey;
+    private String firstName;
+    private String lastName;
+    private String langKey;
+    private String roleKey;
+    private String imageUrl;
+    /**
+     * Exported only, imported users are activated.
+     */
+    private Boolean activated;
+
+    /**
+     * Build the row of an exported user, with the first of the user logins.
+     *
+     * @param user the user
+     * @return the row
+     */
+    public static UserCsvRow of(UserDTO user) {
+        UserCsvRow row = new UserCsvRow();
+        row.setUserKey(user.getUserKey());
+        if (CollectionUtils.isNotEmpty(user.getLogins())) {
+            UserLogin userLogin = user.getLogins().get(0);
+            row.setLogin(userLogin.getLogin());
+            row.setLoginTypeKey(userLogin.getTypeKey());
+        }
+        row.setFirstName(user.getFirstName());
+        row.setLastName(user.getLastName());
+        row.setLangKey(user.getLangKey());
+        row.setRoleKey(user.getRoleKey());
+        row.setImageUrl(user.getImageUrl());
+        row.setActivated(user.isActivated());
+        return row;
+    }
+
+    public UserDTO toUserDTO() {
+        UserLogin userLogin = new UserLogin();
+        userLogin.setLogin(login);
+        userLogin.setTypeKey(loginTypeKey);
+
+        UserDTO user = new UserDTO();
+        user.setFirstName(firstName);
+        user.setLastName(lastName);
+        user.setLangKey(StringUtils.defaultIfBlank(langKey, null));
+        user.setImageUrl(imageUrl);
+        if (StringUtils.isNotBlank(roleKey)) {
+            user.setAuthorities(List.of(roleKey));
+        }
+        List<UserLogin> logins = new ArrayList<>();
+        logins.add(userLogin);
+        user.setLogins(logins);
+        return user;
+    }
+}
@@ -0,0 +1,44 @@
+package com.icthh.xm.uaa.service.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Result of a single row of a bulk user import.
+ */
+@AllArgsConstructor
+@Getter
+@ToString
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class UserImportResult {
+
+    public enum Status {
+        CREATED, FAILED
+    }
+
+    /**
+     * Row number in the import, starting from 1.
+     */
+    private final int row;
+
+    private final Status status;
+
+    private final String userKey;
+
+    /**
+     * Error code of a failed row.
+     */
+    private final String error;
+
+    private final String message;
+
+    public static UserImportResult created(int row, String userKey) {
+        return new UserImportResult(row, Status.CREATED, userKey, null, null);
+    }
+
+    public static UserImportResult failed(int row, String error, String message) {
+        return new UserImportResult(row, Status.FAILED, null, error, message);
+    }
+}
@@ -3,6 +3,7 @@ package com.icthh.xm.uaa.service.query;
 import com.icthh.xm.uaa.domain.Client;
 import com.icthh.xm.uaa.domain.Client_;
 import com.icthh.xm.uaa.repository.ClientRepository;
+import com.icthh.xm.uaa.repository.KeysetRepository;
 import com.icthh.xm.uaa.service.dto.ClientDTO;
 import com.icthh.xm.uaa.service.query.filter.StrictClientFilterQuery;
 import io.github.jhipster.service.QueryService;
@@ -15,6 +16,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import javax.persistence.metamodel.SingularAttribute;
+import java.util.List;
 import java.util.Optional;
 import java.util.stream.Stream;
 
@@ -27,6 +29,7 @@ import static java.util.Optional.ofNullable;
 public class ClientQueryService extends QueryService<Client> {
 
     private final ClientRepository clientRepository;
+    private final KeysetRepository keysetRepository;
 
     public Page<ClientDTO> findAllByStrictMatch(StrictClientFilterQuery filterQuery, Pageable pageable) {
         Specification<Client> specification = createStrictSpecification(filterQuery);
@@ -34,6 +37,15 @@ public class ClientQueryService extends QueryService<Client> {
             .map(source -> new ClientDTO(source.clientSecret(PSWRD_MASK)));
     }
 
+    public KeysetPage<ClientDTO> findAllByStrictMatch(StrictClientFilterQuery filterQuery, String continuationToken,
+                                                      int size) {
+        Specification<Client> specification = createStrictSpecification(filterQuery);
+        List<Client> clients = keysetRepository.findAllAfterId(Client.class, specification,
+            KeysetPage.toAfterId(continuationToken), size + 1);
+        return KeysetPage.of(clients, size, Client::getId)
+            .map(source -> new ClientDTO(source.clientSecret(PSWRD_MASK)));
+    }
+
     private Specification<Client> createStrictSpecification(StrictClientFilterQuery filterQuery) {
         return createStrictSpecs(filterQuery)
             .filter(Optional::isPresent)
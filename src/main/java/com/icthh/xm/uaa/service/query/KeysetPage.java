@@ -0,0 +1,85 @@
+package com.icthh.xm.uaa.service.query;
+
+import static com.icthh.xm.uaa.web.constant.ErrorConstants.ERROR_CONTINUATION_TOKEN_INVALID;
+import static com.icthh.xm.uaa.web.constant.ErrorConstants.ERROR_CONTINUATION_TOKEN_INVALID_MESSAGE;
+
+import com.icthh.xm.commons.exceptions.BusinessException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * A page of entities ordered by id, which continues after the last id of the previous page instead of an offset.
+ * The total count is not known, the page only knows whether the next one exists.
+ *
+ * @param <T> the element type
+ */
+@Getter
+@AllArgsConstructor
+public class KeysetPage<T> {
+
+    private static final String TOKEN_PREFIX = "id:";
+
+    private final List<T> content;
+
+    /**
+     * Opaque token of the next page, null on the last page.
+     */
+    private final String continuationToken;
+
+    /**
+     * Build the page from rows read with the limit of one more than the page size.
+     *
+     * @param rows   the rows following the previous page
+     * @param size   the page size
+     * @param idOf   the id of a row
+     * @param <T>    the element type
+     * @return the page
+     */
+    public static <T> KeysetPage<T> of(List<T> rows, int size, Function<T, Long> idOf) {
+        if (rows.size() <= size) {
+            return new KeysetPage<>(rows, null);
+        }
+        List<T> content = rows.subList(0, size);
+        return new KeysetPage<>(content, toContinuationToken(idOf.apply(content.get(size - 1))));
+    }
+
+    public <R> KeysetPage<R> map(Function<? super T, ? extends R> mapper) {
+        return new KeysetPage<>(content.stream().map(mapper).collect(Collectors.toList()), continuationToken);
+    }
+
+    public boolean hasNext() {
+        return continuationToken != null;
+    }
+
+    /**
+     * Resolve the last id of the previous page.
+     *
+     * @param continuationToken the token of the previous page, blank for the first page
+     * @return the id to continue after, null for the first page
+     */
+    public static Long toAfterId(String continuationToken) {
+        if (StringUtils.isBlank(continuationToken)) {
+            return null;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(continuationToken), StandardCharsets.UTF_8);
+            if (decoded.startsWith(TOKEN_PREFIX)) {
+                return Long.valueOf(decoded.substring(TOKEN_PREFIX.length()));
+            }
+        } catch (IllegalArgumentException e) {
+            // NumberFormatException is an IllegalArgumentException too
+        }
+        throw new BusinessException(ERROR_CONTINUATION_TOKEN_INVALID, ERROR_CONTINUATION_TOKEN_INVALID_MESSAGE);
+    }
+
+    private static String toContinuationToken(Long id) {
+        return Base64.getUrlEncoder().withoutPadding()
+            .encodeToString((TOKEN_PREFIX + id).getBytes(StandardCharsets.UTF_8));
+    }
+}
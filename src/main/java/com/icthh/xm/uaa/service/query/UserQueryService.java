@@ -1,11 +1,18 @@
 package com.icthh.xm.uaa.service.query;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.icthh.xm.commons.migration.db.jsonb.CustomExpression;
+import com.icthh.xm.commons.migration.db.jsonb.JsonbExpression;
+import com.icthh.xm.uaa.config.ApplicationProperties;
 import com.icthh.xm.uaa.domain.User;
 import com.icthh.xm.uaa.domain.UserLogin;
 import com.icthh.xm.uaa.domain.UserLogin_;
 import com.icthh.xm.uaa.domain.User_;
+import com.icthh.xm.uaa.repository.KeysetRepository;
 import com.icthh.xm.uaa.repository.UserRepository;
+import com.icthh.xm.uaa.repository.UserSearchRepository;
+import com.icthh.xm.uaa.service.TenantPropertiesService;
 import com.icthh.xm.uaa.service.dto.UserDTO;
 import com.icthh.xm.uaa.service.query.filter.DataAttributeCriteria;
 import com.icthh.xm.uaa.service.query.filter.SoftUserFilterQuery;
@@ -14,6 +21,7 @@ import io.github.jhipster.service.QueryService;
 import io.github.jhipster.service.filter.StringFilter;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
@@ -26,12 +34,17 @@ import javax.persistence.criteria.Join;
 import javax.persistence.criteria.Root;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.regex.Pattern;
 import java.util.stream.Stream;
 
+import static com.icthh.xm.uaa.config.JsonbSqlFunctionsContributor.JSONB_CONTAINS;
 import static com.icthh.xm.uaa.service.query.filter.DataAttributeCriteria.Operation.CONTAINS;
 import static com.icthh.xm.uaa.service.query.filter.DataAttributeCriteria.Operation.EQUALS;
 import static com.icthh.xm.uaa.service.query.filter.DataAttributeCriteria.ValueType.BOOLEAN;
@@ -43,19 +56,73 @@ import static java.util.Optional.ofNullable;
 @Transactional(readOnly = true)
 public class UserQueryService extends QueryService<User> {
 
+    private static final Pattern INDEXED_PATH = Pattern.compile("\\w+(\\.\\w+)*");
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
     private final UserRepository userRepository;
     private final CustomExpression customExpression;
+    private final KeysetRepository keysetRepository;
+    private final TenantPropertiesService tenantPropertiesService;
+    private final UserSearchRepository userSearchRepository;
+    private final ApplicationProperties applicationProperties;
 
     public Page<UserDTO> findAllUsersByStrictMatch(StrictUserFilterQuery filterQuery, Pageable pageable) {
         Specification<User> specification = createStrictSpecification(filterQuery);
         return userRepository.findAll(specification, pageable).map(UserDTO::new);
     }
 
+    public KeysetPage<UserDTO> findAllUsersByStrictMatch(StrictUserFilterQuery filterQuery, String continuationToken,
+                                                         int size) {
+        return findAllAfter(createStrictSpecification(filterQuery), continuationToken, size);
+    }
+
+    /**
+     * Find users by a char sequence in the first name, last name, authorities or any login. Without an explicit sort
+     * a contains query is served by the ranked search, which returns best matches first and pages through no more
+     * than the configured number of users matching the role key and activated filters. The total is exact: when the
+     * limit is reached, the matching users are counted by a separate query.
+     */
     public Page<UserDTO> findAllUsersBySoftMatch(SoftUserFilterQuery query, Pageable pageable) {
+        String value = query.getQuery() != null ? query.getQuery().getContains() : null;
+        if (value != null && pageable.getSort().isUnsorted()) {
+            return findAllUsersByRank(value, query, pageable);
+        }
         Specification<User> specification = createSoftSpecification(query);
         return userRepository.findAll(specification, pageable).map(UserDTO::new);
     }
 
+    private Page<UserDTO> findAllUsersByRank(String value, SoftUserFilterQuery query, Pageable pageable) {
+        List<Long> ids = userSearchRepository.findRankedIds(value, query.getRoleKey(), query.getActivated());
+        int from = (int) Math.min(pageable.getOffset(), ids.size());
+        List<Long> pageIds = ids.subList(from, Math.min(from + pageable.getPageSize(), ids.size()));
+        Map<Long, User> users = userRepository.findAllById(pageIds).stream()
+            .collect(Collectors.toMap(User::getId, Function.identity()));
+        List<UserDTO> content = pageIds.stream()
+            .map(users::get)
+            .filter(Objects::nonNull)
+            .map(UserDTO::new)
+            .collect(Collectors.toList());
+        return new PageImpl<>(content, pageable, countRanked(value, query, ids));
+    }
+
+    private long countRanked(String value, SoftUserFilterQuery query, List<Long> ids) {
+        if (ids.size() < applicationProperties.getUserSearch().getMaxResults()) {
+            return ids.size();
+        }
+        return userSearchRepository.countRanked(value, query.getRoleKey(), query.getActivated());
+    }
+
+    public KeysetPage<UserDTO> findAllUsersBySoftMatch(SoftUserFilterQuery query, String continuationToken, int size) {
+        return findAllAfter(createSoftSpecification(query), continuationToken, size);
+    }
+
+    private KeysetPage<UserDTO> findAllAfter(Specification<User> specification, String continuationToken, int size) {
+        List<User> users = keysetRepository.findAllAfterId(User.class, specification,
+            KeysetPage.toAfterId(continuationToken), size + 1);
+        return KeysetPage.of(users, size, User::getId).map(UserDTO::new);
+    }
+
     private Specification<User> createStrictSpecification(StrictUserFilterQuery filterQuery) {
         return createStrictSpecs(filterQuery)
             .filter(Optional::isPresent)
@@ -64,18 +131,23 @@ public class UserQueryService extends QueryService<User> {
     }
 
     private Specification<User> createSoftSpecification(SoftUserFilterQuery query) {
+        return Specification.where(
+                getLoginSpecificationForSoft(query.getQuery())
+                    .or(buildStringSpecification(query.getQuery(), User_.lastName))
+                    .or(buildStringSpecification(query.getQuery(), User_.firstName))
+                    .or(buildSpecification(query.getQuery(), root -> root.get(User_.AUTHORITIES).as(String.class)))
+            ).and(createSoftFilterSpecification(query));
+    }
+
+    private Specification<User> createSoftFilterSpecification(SoftUserFilterQuery query) {
         return Stream.of(
                 ofNullable(query.getRoleKey()).map(fn -> buildStringSpecification(fn, User_.roleKey)),
                 ofNullable(query.getActivated()).map(fn -> buildSpecification(fn, User_.activated))
             )
             .filter(Optional::isPresent)
             .map(Optional::get)
-            .reduce(Specification.where(
-                getLoginSpecificationForSoft(query.getQuery())
-                    .or(buildStringSpecification(query.getQuery(), User_.lastName))
-                    .or(buildStringSpecification(query.getQuery(), User_.firstName))
-                    .or(buildSpecification(query.getQuery(), root -> root.get(User_.AUTHORITIES).as(String.class)))
-            ), Specification::and);
+            .reduce(Specification::and)
+            .orElse(null);
     }
 
     private Stream<Optional<Specification<User>>> createStrictSpecs(StrictUserFilterQuery filterQuery) {
@@ -187,7 +259,9 @@ public class UserQueryService extends QueryService<User> {
     }
 
     protected Specification<User> buildDataSpecification(DataAttributeCriteria dataAttributeCriteria) {
-        if (dataAttributeCriteria.getOperation() == EQUALS) {
+        if (dataAttributeCriteria.getOperation() == EQUALS && isIndexed(dataAttributeCriteria)) {
+            return containsJsonSpecification(dataAttributeCriteria);
+        } else if (dataAttributeCriteria.getOperation() == EQUALS) {
             return equalsDataSpecification(dataAttributeCriteria);
         } else if (dataAttributeCriteria.getOperation() == CONTAINS) {
             return likeDataSpecification(dataAttributeCriteria);
@@ -210,6 +284,38 @@ public class UserQueryService extends QueryService<User> {
         };
     }
 
+    /**
+     * Equality as {@code data @> '{"a":{"b":value}}'}: the containment operator is served by the GIN index on
+     * {@code data}, while the extracted attribute value can only be compared row by row.
+     */
+    protected Specification<User> containsJsonSpecification(DataAttributeCriteria dataAttributeCriteria) {
+        return (root, query, cb) -> {
+            Object value = findValueByType(dataAttributeCriteria);
+            String[] path = dataAttributeCriteria.getPath().split("\\.");
+            for (int i = path.length - 1; i >= 0; i--) {
+                value = Map.of(path[i], value);
+            }
+            return cb.isTrue(cb.function(JSONB_CONTAINS, Boolean.class, root.get(User_.DATA), cb.literal(toJson(value))));
+        };
+    }
+
+    private boolean isIndexed(DataAttributeCriteria dataAttributeCriteria) {
+        String path = dataAttributeCriteria.getPath();
+        return customExpression instanceof JsonbExpression
+            && path != null && INDEXED_PATH.matcher(path).matches()
+            && tenantPropertiesService.findTenantProps()
+                .map(props -> props.getIndexedDataAttributes().contains(path))
+                .orElse(false);
+    }
+
+    private String toJson(Object value) {
+        try {
+            return mapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Data attribute value can not be written as json", e);
+        }
+    }
+
     protected Expression<?> buildDataExpression(DataAttributeCriteria dataAttributeCriteria, Root<User> root, CriteriaBuilder builder) {
         String jsonPath = "'$." + dataAttributeCriteria.getPath() + "'";
         return customExpression.jsonQuery(builder, root, User_.DATA, jsonPath);
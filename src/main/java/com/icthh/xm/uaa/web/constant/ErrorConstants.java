@@ -15,6 +15,7 @@ public class ErrorConstants {
     public static final String TENANT_IS_SUSPENDED = "Tenant is suspended";
 
     public static final String ERROR_FORBIDDEN_ROLE = "error.role.forbidden";
+    public static final String ERROR_ROLE_CONFIG_CHANGED = "error.role.config.changed";
 
     public static final String ERROR_USER_DELETE_HIMSELF = "error.user.delete.himself";
     public static final String ERROR_USER_BLOCK_HIMSELF = "error.user.block.himself";
@@ -27,8 +28,10 @@ public class ErrorConstants {
 
     public static final String ERROR_CLIENT_IN_USE = "error.client.in.use";
     public static final String ERROR_DATA_INTEGRITY = "error.data.integrity";
+    public static final String ERROR_TOO_MANY_AUTHENTICATIONS = "error.authentication.too.many";
 
     public static final String ERROR_SUPER_ADMIN_FORBIDDEN_OPERATION = "error.super-admin.forbidden-operation";
+    public static final String ERROR_CONTINUATION_TOKEN_INVALID = "error.continuation.token.invalid";
 
     // error messages
     public static final String ERROR_USER_LOGIN_INVALID_MESSAGE = "User login type could not be determined by value: ";
@@ -39,4 +42,9 @@ public class ErrorConstants {
     public static final String ERROR_CLIENT_IN_USE_MESSAGE =
         "Client cannot be deleted because it is referenced by other records";
     public static final String ERROR_DATA_INTEGRITY_MESSAGE = "Request violates data integrity constraints";
+    public static final String ERROR_TOO_MANY_AUTHENTICATIONS_MESSAGE =
+        "Too many authentication requests, please try again later";
+    public static final String ERROR_CONTINUATION_TOKEN_INVALID_MESSAGE = "Continuation token is invalid";
+    public static final String ERROR_ROLE_CONFIG_CHANGED_MESSAGE =
+        "Role configuration was changed by another update, reload it and try again";
 }
@@ -1,10 +1,13 @@
 package com.icthh.xm.uaa.web.rest;
 
+import static com.icthh.xm.uaa.web.rest.util.PaginationUtil.CONTINUATION_PARAM;
+
 import com.codahale.metrics.annotation.Timed;
 import com.icthh.xm.commons.permission.annotation.PrivilegeDescription;
 import com.icthh.xm.uaa.domain.Client;
 import com.icthh.xm.uaa.service.ClientService;
 import com.icthh.xm.uaa.service.dto.ClientDTO;
+import com.icthh.xm.uaa.service.query.KeysetPage;
 import com.icthh.xm.uaa.service.query.filter.StrictClientFilterQuery;
 import com.icthh.xm.uaa.web.rest.util.HeaderUtil;
 import com.icthh.xm.uaa.web.rest.util.PaginationUtil;
@@ -111,6 +114,23 @@ public class ClientResource {
         return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
     }
 
+    /**
+     * GET  /clients?continuation= : get the page of clients following the continuation token, without total count.
+     *
+     * @param continuation the token of the previous page from the X-Continuation-Token header, empty for the first page
+     * @param pageable     the pagination information, only the size is used
+     * @return the ResponseEntity with status 200 (OK) and the clients ordered by id in body
+     */
+    @GetMapping(value = "/clients", params = CONTINUATION_PARAM)
+    @Timed
+    public ResponseEntity<List<ClientDTO>> getAllClients(@RequestParam(CONTINUATION_PARAM) String continuation,
+                                                         @ApiParam Pageable pageable) {
+        KeysetPage<ClientDTO> page = clientService.findAll(continuation, pageable.getPageSize(), null);
+        HttpHeaders headers = PaginationUtil.generateKeysetPaginationHttpHeaders(page, "/api/clients",
+            pageable.getPageSize());
+        return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
+    }
+
     /**
      * GET  /clients : get all the clients by filter.
      *
@@ -125,6 +145,18 @@ public class ClientResource {
         return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
     }
 
+    @GetMapping(value = "/clients/filter", params = CONTINUATION_PARAM)
+    @PostAuthorize("hasPermission({'returnObject': returnObject.body}, 'CLIENT.GET_BY_FILTER.LIST')")
+    @Timed
+    public ResponseEntity<List<ClientDTO>> getAllClientsFilter(@RequestParam(CONTINUATION_PARAM) String continuation,
+                                                               @ApiParam Pageable pageable,
+                                                               StrictClientFilterQuery query) {
+        KeysetPage<ClientDTO> page = clientService.findAllFiltered(query, continuation, pageable.getPageSize());
+        HttpHeaders headers = PaginationUtil.generateKeysetPaginationHttpHeaders(page, "/api/clients/filter",
+            pageable.getPageSize());
+        return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
+    }
+
     /**
      * GET  /clients/clientid-contains/:clientId : get the clients.
      *
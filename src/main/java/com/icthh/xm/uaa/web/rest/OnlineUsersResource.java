@@ -31,6 +31,6 @@ public class OnlineUsersResource {
     @PreAuthorize("hasPermission(null, 'USER.METRIC.ONLINE')")
     @PrivilegeDescription("Privilege to get all online users")
     public Integer getUsersOnline() {
-        return onlineUsersService.find().size();
+        return Math.toIntExact(onlineUsersService.count());
     }
 }
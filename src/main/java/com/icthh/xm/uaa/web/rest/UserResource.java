@@ -1,23 +1,30 @@
 package com.icthh.xm.uaa.web.rest;
 
+import static com.icthh.xm.uaa.web.rest.util.PaginationUtil.CONTINUATION_PARAM;
 import static com.icthh.xm.uaa.web.rest.util.VerificationUtils.assertNotSuperAdmin;
 import static org.apache.commons.collections.CollectionUtils.isNotEmpty;
 import static java.util.stream.Collectors.toList;
 
 import com.codahale.metrics.annotation.Timed;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.google.common.base.Preconditions;
 import com.icthh.xm.commons.permission.annotation.PrivilegeDescription;
 import com.icthh.xm.uaa.config.Constants;
 import com.icthh.xm.uaa.domain.OtpChannelType;
 import com.icthh.xm.uaa.domain.User;
 import com.icthh.xm.uaa.repository.kafka.ProfileEventProducer;
+import com.icthh.xm.uaa.service.UserExportService;
+import com.icthh.xm.uaa.service.UserImportService;
 import com.icthh.xm.uaa.service.UserLoginService;
 import com.icthh.xm.uaa.service.UserMailService;
 import com.icthh.xm.uaa.service.UserService;
 import com.icthh.xm.uaa.service.dto.TfaEnableRequest;
 import com.icthh.xm.uaa.service.dto.TfaOtpChannelSpec;
+import com.icthh.xm.uaa.service.dto.UserImportResult;
 import com.icthh.xm.uaa.service.dto.UserDTO;
 import com.icthh.xm.uaa.service.dto.UserPublicDTO;
+import com.icthh.xm.uaa.service.query.KeysetPage;
 import com.icthh.xm.uaa.service.query.UserQueryService;
 import com.icthh.xm.uaa.service.query.filter.SoftUserFilterQuery;
 import com.icthh.xm.uaa.service.query.filter.StrictUserFilterQuery;
@@ -25,11 +32,18 @@ import com.icthh.xm.uaa.web.rest.util.HeaderUtil;
 import com.icthh.xm.uaa.web.rest.util.PaginationUtil;
 import io.github.jhipster.web.util.ResponseUtil;
 import io.swagger.annotations.ApiParam;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
 import javax.validation.constraints.NotEmpty;
 import javax.validation.constraints.NotNull;
@@ -39,6 +53,7 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PostAuthorize;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -49,6 +64,7 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
@@ -85,6 +101,8 @@ import org.springframework.web.bind.annotation.RestController;
 public class UserResource {
 
     private static final String ENTITY_NAME = "userManagement";
+    private static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+    private static final String TEXT_CSV_VALUE = "text/csv";
 
     private final UserLoginService userLoginService;
 
@@ -96,6 +114,12 @@ public class UserResource {
 
     private final UserQueryService userQueryService;
 
+    private final UserImportService userImportService;
+
+    private final UserExportService userExportService;
+
+    private final ObjectMapper objectMapper;
+
 
     /**
      * POST /users : Creates a new user.
@@ -129,6 +153,46 @@ public class UserResource {
             .body(new UserDTO(newUser));
     }
 
+    /**
+     * POST /users/import : Creates users in bulk.
+     * Accepts JSON lines of users or CSV with a header line and streams back JSON lines with the result of each
+     * row. Created users get a random password and no mails, like users created by {@link #createUser(UserDTO)}
+     * they set their password by the password reset.
+     *
+     * @param request  the request with users to import
+     * @param response the response with import results
+     * @throws IOException on read or write failure
+     */
+    @PostMapping(value = "/users/import", consumes = {APPLICATION_NDJSON_VALUE, TEXT_CSV_VALUE},
+        produces = APPLICATION_NDJSON_VALUE)
+    @Timed
+    @PreAuthorize("hasPermission(null, 'USER.IMPORT')")
+    @PrivilegeDescription("Privilege to import users in bulk")
+    public void importUsers(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setContentType(APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        Writer out = response.getWriter();
+        ObjectWriter writer = objectMapper.writerFor(UserImportResult.class);
+        Consumer<List<UserImportResult>> listener = results -> {
+            try {
+                for (UserImportResult result : results) {
+                    out.write(writer.writeValueAsString(result));
+                    out.write('\n');
+                }
+                // results of a batch are sent as soon as it is processed
+                out.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+
+        if (MediaType.parseMediaType(request.getContentType()).isCompatibleWith(MediaType.valueOf(TEXT_CSV_VALUE))) {
+            userImportService.importCsv(request.getReader(), listener);
+        } else {
+            userImportService.importJsonLines(request.getReader(), listener);
+        }
+    }
+
     /**
      * PUT  /users : Updates an existing User.
      *
@@ -238,6 +302,54 @@ public class UserResource {
         return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
     }
 
+    /**
+     * GET  /users?continuation= : get the page of users following the continuation token.
+     * Unlike the offset paging, no total count is returned and any page is as fast as the first one.
+     *
+     * @param continuation the token of the previous page from the X-Continuation-Token header, empty for the first page
+     * @param pageable     the pagination information, only the size is used
+     * @param roleKey      the role key
+     * @return the ResponseEntity with status 200 (OK) and with body the users ordered by id
+     */
+    @GetMapping(value = "/users", params = CONTINUATION_PARAM)
+    @Timed
+    public ResponseEntity<List<UserDTO>> getAllUsers(
+        @RequestParam(CONTINUATION_PARAM) String continuation,
+        @ApiParam Pageable pageable,
+        @RequestParam(required = false) String roleKey) {
+        KeysetPage<UserDTO> page = userService.getAllManagedUsers(continuation, pageable.getPageSize(), roleKey, null);
+        HttpHeaders headers = PaginationUtil.generateKeysetPaginationHttpHeaders(page, "/api/users",
+            pageable.getPageSize());
+        return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
+    }
+
+    /**
+     * GET /users/export : Exports all users.
+     * Streams users as JSON lines, or as CSV when requested by the Accept header, without pagination.
+     *
+     * @param roleKey  the role key to export users with, all users if not set
+     * @param accept   the accepted media types
+     * @param response the response with exported users
+     * @throws IOException on write failure
+     */
+    @GetMapping(value = "/users/export", produces = {APPLICATION_NDJSON_VALUE, TEXT_CSV_VALUE})
+    @Timed
+    @PreAuthorize("hasPermission(null, 'USER.EXPORT')")
+    @PrivilegeDescription("Privilege to export all the users")
+    public void exportUsers(@RequestParam(required = false) String roleKey,
+                            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+                            HttpServletResponse response) throws IOException {
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        if (accept != null && MediaType.parseMediaTypes(accept).stream()
+            .anyMatch(mediaType -> mediaType.equalsTypeAndSubtype(MediaType.valueOf(TEXT_CSV_VALUE)))) {
+            response.setContentType(TEXT_CSV_VALUE);
+            userExportService.exportCsv(roleKey, response.getOutputStream());
+        } else {
+            response.setContentType(APPLICATION_NDJSON_VALUE);
+            userExportService.exportJsonLines(roleKey, response.getOutputStream());
+        }
+    }
+
     @GetMapping("/users/filter")
     @PostAuthorize("hasPermission({'returnObject': returnObject.body}, 'USER.GET_BY_FILTER.LIST')")
     @Timed
@@ -247,11 +359,29 @@ public class UserResource {
         return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
     }
 
+    @GetMapping(value = "/users/filter", params = CONTINUATION_PARAM)
+    @PostAuthorize("hasPermission({'returnObject': returnObject.body}, 'USER.GET_BY_FILTER.LIST')")
+    @Timed
+    public ResponseEntity<List<UserDTO>> getAllByStrictFilters(@RequestParam(CONTINUATION_PARAM) String continuation,
+                                                               @ApiParam Pageable pageable,
+                                                               StrictUserFilterQuery strictUserFilterQuery) {
+        KeysetPage<UserDTO> page = userQueryService.findAllUsersByStrictMatch(strictUserFilterQuery, continuation,
+            pageable.getPageSize());
+        HttpHeaders headers = PaginationUtil.generateKeysetPaginationHttpHeaders(page, "/api/users/filter",
+            pageable.getPageSize());
+        return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
+    }
+
     /**
      * Search user by occurrence a char sequence in firstname or lastname or login
      *
      * Doesn't support sort by logins.login
      *
+     * Without sort the users are ranked, best matches first, and no more than
+     * {@code application.user-search.max-results} users matching the roleKey and activated filters can be paged
+     * through, while X-Total-Count holds the number of all matching users. Use a sort or the continuation token to
+     * read all matching users.
+     *
      * @param pageable
      * @param query - search char sequence
      * @return
@@ -265,6 +395,19 @@ public class UserResource {
         return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
     }
 
+    @GetMapping(value = "/users/filter-soft", params = CONTINUATION_PARAM)
+    @PostAuthorize("hasPermission({'returnObject': returnObject.body}, 'USER.GET_BY_FILTER.LIST')")
+    @Timed
+    public ResponseEntity<List<UserDTO>> getAllBySoftFilters(@RequestParam(CONTINUATION_PARAM) String continuation,
+                                                             @ApiParam Pageable pageable,
+                                                             SoftUserFilterQuery query) {
+        KeysetPage<UserDTO> page = userQueryService.findAllUsersBySoftMatch(query, continuation,
+            pageable.getPageSize());
+        HttpHeaders headers = PaginationUtil.generateKeysetPaginationHttpHeaders(page, "/api/users/filter-soft",
+            pageable.getPageSize());
+        return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
+    }
+
     /**
      * GET  /users/:userKey : get the "userKey" user.
      *
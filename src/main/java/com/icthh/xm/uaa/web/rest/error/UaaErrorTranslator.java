@@ -6,6 +6,7 @@ import com.icthh.xm.commons.exceptions.ErrorConstants;
 import com.icthh.xm.commons.i18n.error.domain.vm.ErrorVM;
 import com.icthh.xm.commons.i18n.error.domain.vm.FieldErrorVM;
 import com.icthh.xm.commons.i18n.spring.service.LocalizationMessageService;
+import com.icthh.xm.uaa.security.hashing.PasswordHashingRejectedException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.ObjectProvider;
@@ -13,6 +14,7 @@ import org.springframework.core.Ordered;
 import org.springframework.core.annotation.Order;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseBody;
@@ -24,6 +26,8 @@ import java.util.stream.Collectors;
 
 import static com.icthh.xm.uaa.web.constant.ErrorConstants.ERROR_DATA_INTEGRITY;
 import static com.icthh.xm.uaa.web.constant.ErrorConstants.ERROR_DATA_INTEGRITY_MESSAGE;
+import static com.icthh.xm.uaa.web.constant.ErrorConstants.ERROR_TOO_MANY_AUTHENTICATIONS;
+import static com.icthh.xm.uaa.web.constant.ErrorConstants.ERROR_TOO_MANY_AUTHENTICATIONS_MESSAGE;
 
 /**
  * UAA specific error translation, applied on top of the common
@@ -100,6 +104,19 @@ public class UaaErrorTranslator {
         return dto;
     }
 
+    /**
+     * Password hashing executor is saturated. The caller should retry later, so the status is kept
+     * ({@code 429} for a single tenant flood, {@code 503} when the whole node is busy).
+     */
+    @ExceptionHandler(PasswordHashingRejectedException.class)
+    @ResponseBody
+    public ResponseEntity<ErrorVM> processPasswordHashingRejected(PasswordHashingRejectedException ex) {
+        log.warn("Password hashing rejected: {}", ex.getMessage());
+        ErrorDefinition error = new ErrorDefinition(ERROR_TOO_MANY_AUTHENTICATIONS,
+            ERROR_TOO_MANY_AUTHENTICATIONS_MESSAGE);
+        return ResponseEntity.status(ex.getStatus()).body(new ErrorVM(error.getCode(), localize(error)));
+    }
+
     private String localize(ErrorDefinition error) {
         return localizationMessageService.getMessage(error.getCode(), null, false, error.getDefaultMessage());
     }
@@ -1,5 +1,6 @@
 package com.icthh.xm.uaa.web.rest.util;
 
+import com.icthh.xm.uaa.service.query.KeysetPage;
 import org.springframework.data.domain.Page;
 import org.springframework.http.HttpHeaders;
 import org.springframework.web.util.UriComponentsBuilder;
@@ -13,9 +14,29 @@ import org.springframework.web.util.UriComponentsBuilder;
  */
 public final class PaginationUtil {
 
+    public static final String CONTINUATION_PARAM = "continuation";
+    public static final String CONTINUATION_TOKEN_HEADER = "X-Continuation-Token";
+
     private PaginationUtil() {
     }
 
+    /**
+     * Generate headers of a keyset page: the continuation token and the link to the next page, if any.
+     * There is no total count and no links to the last or previous pages.
+     */
+    public static HttpHeaders generateKeysetPaginationHttpHeaders(KeysetPage page, String baseUrl, int size) {
+        HttpHeaders headers = new HttpHeaders();
+        if (page.hasNext()) {
+            headers.add(CONTINUATION_TOKEN_HEADER, page.getContinuationToken());
+            String link = UriComponentsBuilder.fromUriString(baseUrl)
+                .queryParam(CONTINUATION_PARAM, page.getContinuationToken())
+                .queryParam("size", size)
+                .toUriString();
+            headers.add(HttpHeaders.LINK, "<" + link + ">; rel=\"next\"");
+        }
+        return headers;
+    }
+
     public static HttpHeaders generatePaginationHttpHeaders(Page page, String baseUrl) {
 
         HttpHeaders headers = new HttpHeaders();
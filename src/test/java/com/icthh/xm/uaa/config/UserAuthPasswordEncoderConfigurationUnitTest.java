@@ -0,0 +1,32 @@
+package com.icthh.xm.uaa.config;
+
+import com.icthh.xm.commons.tenant.TenantContextHolder;
+import com.icthh.xm.uaa.security.PasswordHashCache;
+import org.junit.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+public class UserAuthPasswordEncoderConfigurationUnitTest {
+
+    private static final String PASSWORD = "password";
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testNegativeStrengthMeansDefaultStrength() {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getSecurity().setPasswordEncoderStrength(-1);
+
+        PasswordEncoder encoder = new UserAuthPasswordEncoderConfiguration().passwordEncoder(applicationProperties,
+            mock(PasswordHashCache.class), mock(ObjectProvider.class), mock(ObjectProvider.class),
+            mock(TenantContextHolder.class));
+
+        String hash = new BCryptPasswordEncoder(10).encode(PASSWORD);
+        assertThat(encoder.upgradeEncoding(hash)).isFalse();
+        assertThat(encoder.encode(PASSWORD)).startsWith("$2a$10$");
+        assertThat(encoder.matches(PASSWORD, hash)).isTrue();
+    }
+}
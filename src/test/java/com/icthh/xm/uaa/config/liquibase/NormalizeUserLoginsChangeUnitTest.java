@@ -0,0 +1,51 @@
+package com.icthh.xm.uaa.config.liquibase;
+
+import com.icthh.xm.uaa.domain.UserLogin;
+import liquibase.database.core.H2Database;
+import liquibase.database.jvm.JdbcConnection;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class NormalizeUserLoginsChangeUnitTest {
+
+    private static final String LOGIN = "Admin.İSTANBUL@Example.COM";
+
+    private Connection connection;
+
+    @Before
+    public void setUp() throws Exception {
+        connection = DriverManager.getConnection("jdbc:h2:mem:normalize_user_logins");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("create table user_login (id bigint primary key, login varchar(255), "
+                + "normalized_login varchar(255))");
+            statement.execute("insert into user_login (id, login) values (1, '" + LOGIN + "')");
+        }
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        connection.close();
+    }
+
+    @Test
+    public void testLoginsAreNormalizedAsOnWrite() throws Exception {
+        H2Database database = new H2Database();
+        database.setConnection(new JdbcConnection(connection));
+
+        new NormalizeUserLoginsChange().execute(database);
+
+        try (Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery("select normalized_login from user_login where id = 1")) {
+            assertThat(result.next()).isTrue();
+            assertThat(result.getString(1)).isEqualTo(UserLogin.normalize(LOGIN));
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.icthh.xm.uaa.repository;
+
+import com.codahale.metrics.MetricRegistry;
+import com.icthh.xm.commons.tenant.PrivilegedTenantContext;
+import com.icthh.xm.commons.tenant.TenantContext;
+import com.icthh.xm.commons.tenant.TenantContextHolder;
+import com.icthh.xm.commons.tenant.TenantKey;
+import com.icthh.xm.uaa.config.ApplicationProperties;
+import com.icthh.xm.uaa.config.ApplicationProperties.AuditWriter.OverflowPolicy;
+import com.icthh.xm.uaa.domain.PersistentAuditEvent;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+
+import static com.icthh.xm.uaa.UaaTestConstants.DEFAULT_TENANT_KEY_VALUE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class AsyncAuditEventWriterUnitTest {
+
+    private final MetricRegistry metricRegistry = new MetricRegistry();
+    private final ApplicationProperties applicationProperties = new ApplicationProperties();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private PersistenceAuditEventRepository repository;
+    private TenantContextHolder tenantContextHolder;
+    private AsyncAuditEventWriter writer;
+
+    @Before
+    public void setUp() {
+        repository = mock(PersistenceAuditEventRepository.class);
+        TenantContext tenantContext = mock(TenantContext.class);
+        when(tenantContext.getTenantKey()).thenReturn(Optional.of(TenantKey.valueOf(DEFAULT_TENANT_KEY_VALUE)));
+        tenantContextHolder = mock(TenantContextHolder.class);
+        when(tenantContextHolder.getContext()).thenReturn(tenantContext);
+        when(tenantContextHolder.getPrivilegedContext()).thenReturn(mock(PrivilegedTenantContext.class));
+    }
+
+    @After
+    public void tearDown() throws InterruptedException {
+        release.countDown();
+        writer.shutdown();
+    }
+
+    @Test
+    public void testFlushWhenBatchIsFull() {
+        writer = createWriter(10, 3, 60000, OverflowPolicy.BLOCK);
+
+        writer.write(createEvent());
+        writer.write(createEvent());
+        writer.write(createEvent());
+
+        verify(repository, timeout(2000)).saveAll(argThat(events -> ((List<?>) events).size() == 3));
+    }
+
+    @Test
+    public void testFlushAfterInterval() {
+        writer = createWriter(10, 100, 200, OverflowPolicy.BLOCK);
+
+        writer.write(createEvent());
+
+        verify(repository, timeout(2000)).saveAll(argThat(events -> ((List<?>) events).size() == 1));
+        verify(tenantContextHolder.getPrivilegedContext(), timeout(2000)).destroyCurrentContext();
+    }
+
+    @Test
+    public void testDropWhenQueueIsFull() {
+        writer = createWriter(1, 1, 0, OverflowPolicy.DROP);
+        fillQueue();
+
+        writer.write(createEvent());
+
+        assertThat(metricRegistry.counter("audit-writer.dropped").getCount()).isEqualTo(1);
+        verify(repository, never()).save(any());
+    }
+
+    @Test
+    public void testSpillWhenQueueIsFull() {
+        writer = createWriter(1, 1, 0, OverflowPolicy.SPILL);
+        fillQueue();
+        PersistentAuditEvent event = createEvent();
+
+        writer.write(event);
+
+        verify(repository).save(event);
+        assertThat(metricRegistry.counter("audit-writer.spilled").getCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void testShutdownWritesQueuedEvents() throws InterruptedException {
+        writer = createWriter(10, 100, 60000, OverflowPolicy.BLOCK);
+
+        writer.write(createEvent());
+        writer.write(createEvent());
+        writer.shutdown();
+
+        verify(repository).saveAll(argThat(events -> ((List<?>) events).size() == 2));
+    }
+
+    private AsyncAuditEventWriter createWriter(int capacity, int batchSize, long flushIntervalMillis,
+                                               OverflowPolicy overflowPolicy) {
+        ApplicationProperties.AuditWriter properties = applicationProperties.getAuditWriter();
+        properties.setCapacity(capacity);
+        properties.setBatchSize(batchSize);
+        properties.setFlushIntervalMillis(flushIntervalMillis);
+        properties.setOverflowPolicy(overflowPolicy);
+        return new AsyncAuditEventWriter(repository, mock(PlatformTransactionManager.class), tenantContextHolder,
+            applicationProperties, metricRegistry);
+    }
+
+    /**
+     * Block the writer on the first event and queue the second one.
+     */
+    private void fillQueue() {
+        when(repository.saveAll(anyList())).thenAnswer(invocation -> {
+            release.await();
+            return invocation.getArgument(0);
+        });
+        writer.write(createEvent());
+        verify(repository, timeout(2000)).saveAll(anyList());
+        writer.write(createEvent());
+        assertThat(writer.getQueueDepth()).isEqualTo(1);
+    }
+
+    private static PersistentAuditEvent createEvent() {
+        PersistentAuditEvent event = new PersistentAuditEvent();
+        event.setPrincipal("admin");
+        event.setAuditEventType("AUTHENTICATION_SUCCESS");
+        return event;
+    }
+}
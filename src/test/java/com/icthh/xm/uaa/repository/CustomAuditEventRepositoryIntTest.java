@@ -14,6 +14,7 @@ import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.actuate.audit.AuditEvent;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -62,6 +63,9 @@ public class CustomAuditEventRepositoryIntTest {
     @Autowired
     private SeparateTransactionExecutor separateTransactionExecutor;
 
+    @Autowired
+    private ObjectProvider<AsyncAuditEventWriter> asyncAuditEventWriter;
+
     @Mock
     private ApplicationProperties applicationProperties;
 
@@ -84,7 +88,8 @@ public class CustomAuditEventRepositoryIntTest {
         customAuditEventRepository = new CustomAuditEventRepository(persistenceAuditEventRepository,
                                                                     auditEventConverter,
                                                                     applicationProperties,
-                                                                    separateTransactionExecutor);
+                                                                    separateTransactionExecutor,
+                                                                    asyncAuditEventWriter);
 
         persistenceAuditEventRepository.deleteAll();
         Instant oneHourAgo = Instant.now().minusSeconds(3600);
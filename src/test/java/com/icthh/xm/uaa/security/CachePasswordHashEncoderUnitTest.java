@@ -1,8 +1,10 @@
 package com.icthh.xm.uaa.security;
 
+import com.codahale.metrics.MetricRegistry;
 import org.junit.Test;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
@@ -11,8 +13,10 @@ import static org.mockito.Mockito.when;
 
 public class CachePasswordHashEncoderUnitTest {
 
+    MetricRegistry metricRegistry = new MetricRegistry();
+    PasswordHashCache passwordHashCache = new PasswordHashCache(3, 60, metricRegistry);
     PasswordEncoder mockEncoder = mock(PasswordEncoder.class);
-    PasswordEncoder cachedEncoder = new CachePasswordHashEncoder(mockEncoder, 3);
+    PasswordEncoder cachedEncoder = new CachePasswordHashEncoder(mockEncoder, passwordHashCache);
 
     @Test
     public void ifPasswordWasNotCachedMatchWillBeCalled() {
@@ -34,6 +38,7 @@ public class CachePasswordHashEncoderUnitTest {
         cachedEncoder.matches("rawPassword", "notCachedEncoder");
 
         verify(mockEncoder, times(2)).matches(eq("rawPassword"), eq("notCachedEncoder"));
+        assertThat(metricRegistry.counter("password-hash-cache.evictions").getCount()).isEqualTo(2);
     }
 
     @Test
@@ -42,6 +47,26 @@ public class CachePasswordHashEncoderUnitTest {
         cachedEncoder.matches("rawPassword", "notCachedEncoder");
         cachedEncoder.matches("rawPassword", "notCachedEncoder");
         verify(mockEncoder, times(1)).matches(eq("rawPassword"), eq("notCachedEncoder"));
+        assertThat(metricRegistry.counter("password-hash-cache.hits").getCount()).isEqualTo(1);
+        assertThat(metricRegistry.counter("password-hash-cache.misses").getCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void ifOtherPasswordPresentedMatchWillBeCalled() {
+        when(mockEncoder.matches(eq("rawPassword"), eq("notCachedEncoder"))).thenReturn(true);
+        cachedEncoder.matches("rawPassword", "notCachedEncoder");
+
+        assertThat(cachedEncoder.matches("wrongPassword", "notCachedEncoder")).isFalse();
+        verify(mockEncoder).matches(eq("wrongPassword"), eq("notCachedEncoder"));
+    }
+
+    @Test
+    public void ifPasswordEvictedMatchWillBeCalled() {
+        when(mockEncoder.matches(eq("rawPassword"), eq("notCachedEncoder"))).thenReturn(true);
+        cachedEncoder.matches("rawPassword", "notCachedEncoder");
+        passwordHashCache.evict("notCachedEncoder");
+        cachedEncoder.matches("rawPassword", "notCachedEncoder");
+        verify(mockEncoder, times(2)).matches(eq("rawPassword"), eq("notCachedEncoder"));
     }
 
 }
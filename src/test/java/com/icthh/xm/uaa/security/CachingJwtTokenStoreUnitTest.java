@@ -0,0 +1,154 @@
+package com.icthh.xm.uaa.security;
+
+import com.icthh.xm.commons.tenant.TenantContext;
+import com.icthh.xm.commons.tenant.TenantContextHolder;
+import com.icthh.xm.commons.tenant.TenantKey;
+import com.icthh.xm.uaa.domain.properties.TenantProperties;
+import com.icthh.xm.uaa.service.TenantPropertiesService;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.common.DefaultOAuth2AccessToken;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.OAuth2Request;
+import org.springframework.security.oauth2.provider.token.store.JwtAccessTokenConverter;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.Map;
+import java.util.Optional;
+
+import static com.icthh.xm.uaa.config.Constants.AUTH_ADDITIONAL_DETAILS;
+import static com.icthh.xm.uaa.config.Constants.AUTH_USER_KEY;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class CachingJwtTokenStoreUnitTest {
+
+    private CountingJwtAccessTokenConverter converter;
+    private CachingJwtTokenStore tokenStore;
+
+    @Before
+    public void setUp() throws Exception {
+        converter = new CountingJwtAccessTokenConverter();
+        converter.setSigningKey("secret");
+        converter.afterPropertiesSet();
+        tokenStore = new CachingJwtTokenStore(converter, 10);
+    }
+
+    @Test
+    public void testTokenIsDecodedOncePerRequest() {
+        String tokenValue = createToken(System.currentTimeMillis() + 60_000);
+
+        OAuth2AccessToken accessToken = tokenStore.readAccessToken(tokenValue);
+        OAuth2Authentication authentication = tokenStore.readAuthentication(accessToken);
+        tokenStore.readAccessToken(tokenValue);
+        tokenStore.readAuthentication(accessToken);
+
+        assertThat(authentication.getName()).isEqualTo("user");
+        assertThat(converter.decodes).isEqualTo(2);
+    }
+
+    @Test
+    public void testCachedAuthenticationIsNotShared() {
+        String tokenValue = createToken(System.currentTimeMillis() + 60_000);
+        OAuth2AccessToken accessToken = tokenStore.readAccessToken(tokenValue);
+
+        OAuth2Authentication first = tokenStore.readAuthentication(accessToken);
+        first.setDetails("request details");
+        OAuth2Authentication second = tokenStore.readAuthentication(accessToken);
+
+        assertThat(second).isNotSameAs(first);
+        assertThat(second.getDetails()).isNull();
+    }
+
+    @Test
+    public void testExpiredTokenIsNotCached() {
+        String tokenValue = createToken(System.currentTimeMillis() - 1_000);
+
+        tokenStore.readAccessToken(tokenValue);
+        tokenStore.readAccessToken(tokenValue);
+
+        assertThat(converter.decodes).isEqualTo(2);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testCachedDomainTokenDetailsAreNotShared() throws Exception {
+        DomainJwtAccessTokenConverter domainConverter = createDomainConverter();
+        tokenStore = new CachingJwtTokenStore(domainConverter, 10);
+        String tokenValue = createDomainToken(domainConverter);
+
+        OAuth2AccessToken accessToken = tokenStore.readAccessToken(tokenValue);
+        accessToken.getAdditionalInformation().put(AUTH_USER_KEY, "changed");
+        ((Map<String, Object>) accessToken.getAdditionalInformation().get(AUTH_ADDITIONAL_DETAILS)).clear();
+        OAuth2Authentication authentication = tokenStore.readAuthentication(accessToken);
+        Map<String, Object> details = (Map<String, Object>) authentication.getDetails();
+        details.put(AUTH_USER_KEY, "changed");
+        ((Map<String, Object>) details.get(AUTH_ADDITIONAL_DETAILS)).clear();
+
+        OAuth2AccessToken secondToken = tokenStore.readAccessToken(tokenValue);
+        Map<String, Object> secondDetails = (Map<String, Object>) tokenStore.readAuthentication(secondToken)
+            .getDetails();
+
+        assertThat(secondToken).isNotSameAs(accessToken);
+        assertThat(secondToken.getAdditionalInformation()).containsEntry(AUTH_USER_KEY, "userKey");
+        assertThat((Map<String, Object>) secondToken.getAdditionalInformation().get(AUTH_ADDITIONAL_DETAILS))
+            .containsEntry("phone", "123");
+        assertThat(secondDetails).containsEntry(AUTH_USER_KEY, "userKey");
+        assertThat((Map<String, Object>) secondDetails.get(AUTH_ADDITIONAL_DETAILS)).containsEntry("phone", "123");
+    }
+
+    private DomainJwtAccessTokenConverter createDomainConverter() throws Exception {
+        TenantContext tenantContext = mock(TenantContext.class);
+        when(tenantContext.getTenantKey()).thenReturn(Optional.of(TenantKey.valueOf("XM")));
+        TenantContextHolder tenantContextHolder = mock(TenantContextHolder.class);
+        when(tenantContextHolder.getContext()).thenReturn(tenantContext);
+        TenantPropertiesService tenantPropertiesService = mock(TenantPropertiesService.class);
+        when(tenantPropertiesService.getTenantProps()).thenReturn(new TenantProperties());
+
+        DomainJwtAccessTokenConverter domainConverter = new DomainJwtAccessTokenConverter(tenantContextHolder,
+            tenantPropertiesService, new DomainJwtAccessTokenDetailsPostProcessor());
+        domainConverter.setSigningKey("secret");
+        domainConverter.afterPropertiesSet();
+        return domainConverter;
+    }
+
+    private String createDomainToken(DomainJwtAccessTokenConverter domainConverter) {
+        DomainUserDetails principal = new DomainUserDetails("admin", "password",
+            Collections.singleton(new SimpleGrantedAuthority("ROLE_USER")), "XM", "userKey", false, null, null,
+            false, null);
+        principal.getAdditionalDetails().put("phone", "123");
+        DefaultOAuth2AccessToken token = new DefaultOAuth2AccessToken("token");
+        token.setExpiration(new Date(System.currentTimeMillis() + 60_000));
+        OAuth2Request request = new OAuth2Request(Collections.emptyMap(), "webapp", null, true, null, null, null,
+            null, null);
+        OAuth2Authentication authentication = new OAuth2Authentication(request,
+            new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+        return domainConverter.enhance(token, authentication).getValue();
+    }
+
+    private String createToken(long expiration) {
+        DefaultOAuth2AccessToken token = new DefaultOAuth2AccessToken("token");
+        token.setExpiration(new Date(expiration));
+        OAuth2Request request = new OAuth2Request(null, "testClient", null, true, Collections.singleton("openid"),
+            null, null, null, null);
+        OAuth2Authentication authentication = new OAuth2Authentication(request,
+            new UsernamePasswordAuthenticationToken("user", "N/A", Collections.emptyList()));
+        return converter.enhance(token, authentication).getValue();
+    }
+
+    private static class CountingJwtAccessTokenConverter extends JwtAccessTokenConverter {
+
+        private int decodes;
+
+        @Override
+        protected Map<String, Object> decode(String token) {
+            decodes++;
+            return super.decode(token);
+        }
+    }
+}
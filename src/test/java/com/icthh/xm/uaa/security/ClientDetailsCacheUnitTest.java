@@ -0,0 +1,93 @@
+package com.icthh.xm.uaa.security;
+
+import com.icthh.xm.commons.tenant.TenantContext;
+import com.icthh.xm.commons.tenant.TenantContextHolder;
+import com.icthh.xm.commons.tenant.TenantKey;
+import com.icthh.xm.uaa.config.ApplicationProperties;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.security.oauth2.provider.ClientDetails;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static com.icthh.xm.uaa.UaaTestConstants.DEFAULT_TENANT_KEY_VALUE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ClientDetailsCacheUnitTest {
+
+    private static final String CLIENT_ID = "client";
+
+    private TenantContextHolder tenantContextHolder;
+    private ClientDetailsCache cache;
+    private final AtomicInteger loads = new AtomicInteger();
+    private final Function<String, ClientDetails> loader = clientId -> {
+        loads.incrementAndGet();
+        return mock(ClientDetails.class);
+    };
+
+    @Before
+    public void setUp() {
+        TenantContext tenantContext = mock(TenantContext.class);
+        when(tenantContext.getTenantKey()).thenReturn(Optional.of(TenantKey.valueOf(DEFAULT_TENANT_KEY_VALUE)));
+        tenantContextHolder = mock(TenantContextHolder.class);
+        when(tenantContextHolder.getContext()).thenReturn(tenantContext);
+
+        cache = new ClientDetailsCache(tenantContextHolder, new ApplicationProperties());
+    }
+
+    @Test
+    public void testClientIsLoadedOnce() {
+        ClientDetails first = cache.get(CLIENT_ID, loader);
+        ClientDetails second = cache.get(CLIENT_ID, loader);
+
+        assertThat(second).isSameAs(first);
+        assertThat(loads.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void testTenantPropertiesChangeInvalidatesClients() {
+        cache.get(CLIENT_ID, loader);
+        cache.onTenantPropertiesChanged(DEFAULT_TENANT_KEY_VALUE);
+        cache.get(CLIENT_ID, loader);
+
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void testEvictCurrentTenantInvalidatesClients() {
+        cache.get(CLIENT_ID, loader);
+        cache.evictCurrentTenant();
+        cache.get(CLIENT_ID, loader);
+
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void testValueLoadedDuringInvalidationIsNotCached() {
+        cache.get(CLIENT_ID, clientId -> {
+            cache.evictCurrentTenant();
+            return loader.apply(clientId);
+        });
+        cache.get(CLIENT_ID, loader);
+
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void testExpiredClientsAreReloadedWithNewVersion() {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getSecurity().setClientDetailsCacheTtlSeconds(0);
+        cache = new ClientDetailsCache(tenantContextHolder, applicationProperties);
+
+        cache.get(CLIENT_ID, loader);
+        long version = cache.getVersion();
+        cache.get(CLIENT_ID, loader);
+
+        assertThat(loads.get()).isEqualTo(2);
+        assertThat(cache.getVersion()).isGreaterThan(version);
+    }
+}
@@ -0,0 +1,115 @@
+package com.icthh.xm.uaa.security;
+
+import static com.icthh.xm.uaa.config.Constants.AUTH_ADDITIONAL_DETAILS;
+import static com.icthh.xm.uaa.config.Constants.AUTH_TENANT_KEY;
+import static com.icthh.xm.uaa.config.Constants.AUTH_USER_KEY;
+import static com.icthh.xm.uaa.config.Constants.MULTI_ROLE_ENABLED;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+import com.icthh.xm.commons.tenant.TenantContext;
+import com.icthh.xm.commons.tenant.TenantContextHolder;
+import com.icthh.xm.commons.tenant.TenantKey;
+import com.icthh.xm.uaa.domain.properties.TenantProperties;
+import com.icthh.xm.uaa.service.TenantPropertiesService;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.common.DefaultOAuth2AccessToken;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.OAuth2Request;
+
+@RunWith(MockitoJUnitRunner.class)
+public class DomainJwtAccessTokenConverterUnitTest {
+
+    private static final String TENANT = "XM";
+
+    @Mock
+    private TenantContextHolder tenantContextHolder;
+    @Mock
+    private TenantContext tenantContext;
+    @Mock
+    private TenantPropertiesService tenantPropertiesService;
+
+    private final TenantProperties tenantProperties = new TenantProperties();
+
+    private DomainJwtAccessTokenConverter converter;
+
+    @Before
+    public void setup() {
+        when(tenantContext.getTenantKey()).thenReturn(Optional.of(TenantKey.valueOf(TENANT)));
+        when(tenantContextHolder.getContext()).thenReturn(tenantContext);
+        when(tenantPropertiesService.getTenantProps()).thenReturn(tenantProperties);
+
+        converter = new DomainJwtAccessTokenConverter(tenantContextHolder, tenantPropertiesService,
+            new DomainJwtAccessTokenDetailsPostProcessor());
+    }
+
+    @Test
+    public void testUserClaims() {
+        Map<String, Object> info = enhance(Collections.emptyMap()).getAdditionalInformation();
+
+        assertThat(info).containsEntry(AUTH_TENANT_KEY, TENANT).containsEntry(AUTH_USER_KEY, "userKey");
+        assertThat(info).doesNotContainKey(AUTH_ADDITIONAL_DETAILS);
+    }
+
+    @Test
+    public void testMultiRoleClaimMergedWithUserDetails() {
+        tenantProperties.getSecurity().setMultiRoleEnabled(true);
+
+        Map<String, Object> info = enhance(Map.of("phone", "123")).getAdditionalInformation();
+
+        assertThat((Map<String, Object>) info.get(AUTH_ADDITIONAL_DETAILS))
+            .containsEntry(MULTI_ROLE_ENABLED, true)
+            .containsEntry("phone", "123");
+    }
+
+    @Test
+    public void testTenantAdditionalDetailsAreNotShared() {
+        tenantProperties.getSecurity().setMultiRoleEnabled(true);
+
+        Map<String, Object> first = (Map<String, Object>) enhance(Collections.emptyMap())
+            .getAdditionalInformation().get(AUTH_ADDITIONAL_DETAILS);
+        first.put("phone", "123");
+        Map<String, Object> second = (Map<String, Object>) enhance(Collections.emptyMap())
+            .getAdditionalInformation().get(AUTH_ADDITIONAL_DETAILS);
+
+        assertThat(second).isNotSameAs(first).containsOnly(Map.entry(MULTI_ROLE_ENABLED, true));
+    }
+
+    @Test
+    public void testTenantClaimsRebuiltOnTenantPropertiesReload() {
+        Map<String, Object> info = enhance(Collections.emptyMap()).getAdditionalInformation();
+        assertThat(info).doesNotContainKey(AUTH_ADDITIONAL_DETAILS);
+
+        TenantProperties.Security security = new TenantProperties.Security();
+        security.setMultiRoleEnabled(true);
+        tenantProperties.setSecurity(security);
+
+        info = enhance(Collections.emptyMap()).getAdditionalInformation();
+        assertThat((Map<String, Object>) info.get(AUTH_ADDITIONAL_DETAILS))
+            .containsOnly(Map.entry(MULTI_ROLE_ENABLED, true));
+    }
+
+    private OAuth2AccessToken enhance(Map<String, String> additionalDetails) {
+        DomainUserDetails principal = new DomainUserDetails("admin", "password",
+            Collections.singleton(new SimpleGrantedAuthority("ROLE_USER")), TENANT, "userKey", false, null, null,
+            false, null);
+        principal.getAdditionalDetails().putAll(additionalDetails);
+
+        OAuth2Request request = new OAuth2Request(Collections.emptyMap(), "webapp", null, true, null, null, null,
+            null, null);
+        OAuth2Authentication authentication = new OAuth2Authentication(request,
+            new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+
+        return converter.enhance(new DefaultOAuth2AccessToken("token"), authentication);
+    }
+}
@@ -15,7 +15,6 @@ import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doCallRealMethod;
-import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
@@ -29,6 +28,7 @@ import com.icthh.xm.commons.tenant.TenantKey;
 import com.icthh.xm.uaa.config.ApplicationProperties;
 import com.icthh.xm.uaa.domain.User;
 import com.icthh.xm.uaa.domain.properties.TenantProperties;
+import com.icthh.xm.uaa.repository.kafka.SystemTopicProducer;
 import com.icthh.xm.uaa.security.provider.DefaultAuthenticationRefreshProvider;
 import com.icthh.xm.uaa.service.TenantPropertiesService;
 import com.icthh.xm.uaa.service.UserService;
@@ -89,6 +89,10 @@ public class DomainTokenServicesUnitTest {
     @Mock
     private ClientDetailsService clientDetailsService;
     @Mock
+    private ClientDetailsCache clientDetailsCache;
+    @Mock
+    private TenantContextHolder tenantContextHolder;
+    @Mock
     private UserService userService;
     @Mock
     private AuthenticationManager authenticationManager;
@@ -96,8 +100,9 @@ public class DomainTokenServicesUnitTest {
     private DefaultAuthenticationRefreshProvider authenticationRefreshProvider;
     @Mock
     private DomainJwtAccessTokenDetailsPostProcessor domainJwtAccessTokenDetailsPostProcessor;
+    @Mock
+    private SystemTopicProducer systemTopicProducer;
 
-    @InjectMocks
     private UserSecurityValidator userSecurityValidator;
 
     @InjectMocks
@@ -114,7 +119,6 @@ public class DomainTokenServicesUnitTest {
     public void setup() throws Exception {
         when(tenantContext.getTenantKey()).thenReturn(Optional.of(TenantKey.valueOf(TENANT)));
 
-        TenantContextHolder tenantContextHolder = mock(TenantContextHolder.class);
         when(tenantContextHolder.getContext()).thenReturn(tenantContext);
 
         doCallRealMethod().when(domainJwtAccessTokenDetailsPostProcessor).processJwtAccessTokenDetails(any(), any());
@@ -133,6 +137,9 @@ public class DomainTokenServicesUnitTest {
 
         when(applicationProperties.getSecurity()).thenReturn(appSecurity);
 
+        userSecurityValidator = new UserSecurityValidator(userService,
+            new UserActivationCache(tenantContextHolder, systemTopicProducer, applicationProperties));
+
         tokenServices = new DomainTokenServices();
         tokenServices.setTokenStore(tokenStore);
         tokenServices.setTokenEnhancer(converter);
@@ -0,0 +1,83 @@
+package com.icthh.xm.uaa.security;
+
+import com.icthh.xm.commons.lep.XmLepScriptConfigServerResourceLoader;
+import com.icthh.xm.commons.security.XmAuthenticationContextHolder;
+import com.icthh.xm.commons.tenant.TenantContextHolder;
+import com.icthh.xm.commons.tenant.TenantContextUtils;
+import com.icthh.xm.lep.api.LepManager;
+import com.icthh.xm.uaa.UaaApp;
+import com.icthh.xm.uaa.config.xm.LepTextConfiguration;
+import com.icthh.xm.uaa.config.xm.XmOverrideConfiguration;
+import com.icthh.xm.uaa.domain.User;
+import lombok.SneakyThrows;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.DisabledException;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import static com.icthh.xm.commons.lep.XmLepConstants.THREAD_CONTEXT_KEY_AUTH_CONTEXT;
+import static com.icthh.xm.commons.lep.XmLepConstants.THREAD_CONTEXT_KEY_TENANT_CONTEXT;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = {
+    LepTextConfiguration.class,
+    UaaApp.class,
+    XmOverrideConfiguration.class
+})
+public class DomainUserDetailsServiceLepIntTest {
+
+    private static final String LEP_PATH =
+        "/config/tenants/RESINTTEST/uaa/lep/service/user/details/LoadUserByUsername$$around.groovy";
+
+    @Autowired
+    private XmLepScriptConfigServerResourceLoader lepLoader;
+
+    @Autowired
+    private TenantContextHolder tenantContextHolder;
+
+    @Autowired
+    private XmAuthenticationContextHolder authContextHolder;
+
+    @Autowired
+    private LepManager lepManager;
+
+    @Autowired
+    private DomainUserDetailsService userDetailsService;
+
+    @SneakyThrows
+    @Before
+    public void setup() {
+        TenantContextUtils.setTenant(tenantContextHolder, "RESINTTEST");
+
+        lepManager.beginThreadContext(ctx -> {
+            ctx.setValue(THREAD_CONTEXT_KEY_TENANT_CONTEXT, tenantContextHolder.getContext());
+            ctx.setValue(THREAD_CONTEXT_KEY_AUTH_CONTEXT, authContextHolder.getContext());
+        });
+    }
+
+    @After
+    public void tearDown() {
+        lepLoader.onRefresh(LEP_PATH, null);
+        lepManager.endThreadContext();
+        tenantContextHolder.getPrivilegedContext().destroyCurrentContext();
+    }
+
+    @Test
+    public void testBuildUserDetailsRunsLoadUserByUsernameLep() {
+        lepLoader.onRefresh(LEP_PATH,
+            "throw new org.springframework.security.authentication.DisabledException('Blocked ' + lepContext.inArgs.login)");
+
+        try {
+            userDetailsService.buildUserDetails("ldap-user", new User());
+            fail("Lep LoadUserByUsername$$around.groovy was not invoked");
+        } catch (DisabledException e) {
+            assertEquals("Blocked ldap-user", e.getMessage());
+        }
+    }
+}
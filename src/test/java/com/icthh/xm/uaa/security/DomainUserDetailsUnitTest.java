@@ -3,9 +3,18 @@ package com.icthh.xm.uaa.security;
 import org.junit.Test;
 
 import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
 
 public class DomainUserDetailsUnitTest {
 
@@ -41,4 +50,41 @@ public class DomainUserDetailsUnitTest {
 
         assertNotEquals(details1, details2);
     }
+
+    @Test
+    public void testTfaOtpSecretGeneratedOnDemand() {
+        DomainUserDetails details = new DomainUserDetails("admin", "password", Collections.emptySet(), "xm", "key", true, null, null, false, null);
+        DomainUserDetails withSecret = new DomainUserDetails("admin", "password", Collections.emptySet(), "xm", "key", true, "SECRET", null, false, null);
+
+        assertNotNull(details.getTfaOtpSecret());
+        assertEquals(details.getTfaOtpSecret(), details.getTfaOtpSecret());
+        assertEquals("SECRET", withSecret.getTfaOtpSecret());
+    }
+
+    @Test
+    public void testTfaOtpSecretSameForConcurrentCallers() throws Exception {
+        DomainUserDetails details = new DomainUserDetails("admin", "password", Collections.emptySet(), "xm", "key", true, null, null, false, null);
+        List<Callable<String>> calls = IntStream.range(0, 16)
+            .mapToObj(i -> (Callable<String>) details::getTfaOtpSecret)
+            .collect(Collectors.toList());
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            Set<String> secrets = executor.invokeAll(calls).stream()
+                .map(DomainUserDetailsUnitTest::get)
+                .collect(Collectors.toSet());
+
+            assertEquals(Set.of(details.getTfaOtpSecret()), secrets);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static String get(Future<String> future) {
+        try {
+            return future.get();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
 }
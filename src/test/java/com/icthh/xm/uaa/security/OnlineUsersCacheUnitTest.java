@@ -0,0 +1,127 @@
+package com.icthh.xm.uaa.security;
+
+import com.icthh.xm.commons.tenant.TenantContext;
+import com.icthh.xm.commons.tenant.TenantContextHolder;
+import com.icthh.xm.commons.tenant.TenantKey;
+import com.icthh.xm.uaa.config.ApplicationProperties;
+import com.icthh.xm.uaa.config.Constants;
+import com.icthh.xm.uaa.repository.kafka.SystemTopicProducer;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.boot.actuate.audit.AuditEvent;
+import org.springframework.boot.actuate.audit.listener.AuditApplicationEvent;
+
+import java.util.List;
+import java.util.Optional;
+
+import static com.icthh.xm.uaa.UaaTestConstants.DEFAULT_TENANT_KEY_VALUE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.boot.actuate.security.AuthenticationAuditListener.AUTHENTICATION_FAILURE;
+import static org.springframework.boot.actuate.security.AuthenticationAuditListener.AUTHENTICATION_SUCCESS;
+
+public class OnlineUsersCacheUnitTest {
+
+    private static final String PRINCIPAL = "admin";
+    private static final String OTHER_TENANT = "DEMO";
+
+    private OnlineUsersCache cache;
+    private SystemTopicProducer systemTopicProducer;
+    private TenantContextHolder tenantContextHolder;
+    private TokenConstraintsService tokenConstraintsService;
+    private ApplicationProperties applicationProperties;
+
+    @Before
+    public void setUp() {
+        TenantContext tenantContext = mock(TenantContext.class);
+        when(tenantContext.getTenantKey()).thenReturn(Optional.of(TenantKey.valueOf(DEFAULT_TENANT_KEY_VALUE)));
+        tenantContextHolder = mock(TenantContextHolder.class);
+        when(tenantContextHolder.getContext()).thenReturn(tenantContext);
+        tokenConstraintsService = mock(TokenConstraintsService.class);
+        when(tokenConstraintsService.getDefaultAccessTokenValiditySeconds()).thenReturn(300);
+        systemTopicProducer = mock(SystemTopicProducer.class);
+        applicationProperties = new ApplicationProperties();
+        applicationProperties.getSecurity().setOnlineUsersBroadcastEnabled(true);
+
+        cache = createCache();
+    }
+
+    @Test
+    public void testDistinctPrincipalsAreCounted() {
+        cache.onAuditEvent(new AuditApplicationEvent(PRINCIPAL, AUTHENTICATION_SUCCESS));
+        cache.touch(PRINCIPAL);
+        cache.touch("user");
+
+        assertThat(cache.count()).isEqualTo(2);
+        verify(systemTopicProducer).sendUserOnline(DEFAULT_TENANT_KEY_VALUE, "user");
+    }
+
+    @Test
+    public void testFailedAuthenticationAndAnonymousAreNotCounted() {
+        cache.onAuditEvent(new AuditApplicationEvent(PRINCIPAL, AUTHENTICATION_FAILURE));
+        cache.onAuditEvent(new AuditApplicationEvent(new AuditEvent(Constants.ANONYMOUS_USER, AUTHENTICATION_SUCCESS)));
+
+        assertThat(cache.count()).isZero();
+        verify(systemTopicProducer, never()).sendUserOnline(anyString(), anyString());
+    }
+
+    @Test
+    public void testUsersOfOtherTenantAreNotCounted() {
+        cache.touch(OTHER_TENANT.toLowerCase(), PRINCIPAL);
+
+        assertThat(cache.count()).isZero();
+
+        cache.touch(DEFAULT_TENANT_KEY_VALUE.toLowerCase(), PRINCIPAL);
+
+        assertThat(cache.count()).isEqualTo(1);
+    }
+
+    @Test
+    public void testRemove() {
+        cache.touch(PRINCIPAL);
+        cache.remove(PRINCIPAL);
+
+        assertThat(cache.count()).isZero();
+        verify(systemTopicProducer).sendUsersOffline(DEFAULT_TENANT_KEY_VALUE, List.of(PRINCIPAL));
+    }
+
+    @Test
+    public void testRemoveFromOtherInstance() {
+        cache.touch(PRINCIPAL);
+        cache.remove(DEFAULT_TENANT_KEY_VALUE.toLowerCase(), List.of(PRINCIPAL));
+
+        assertThat(cache.count()).isZero();
+    }
+
+    @Test
+    public void testOnlineUsersAreNotSentWhenBroadcastIsDisabled() {
+        applicationProperties.getSecurity().setOnlineUsersBroadcastEnabled(false);
+        cache = createCache();
+
+        cache.touch(PRINCIPAL);
+
+        assertThat(cache.count()).isEqualTo(1);
+        verify(systemTopicProducer, never()).sendUserOnline(anyString(), anyString());
+    }
+
+    @Test
+    public void testCacheSizeIsBounded() {
+        applicationProperties.getSecurity().setOnlineUsersCacheSize(2);
+        cache = createCache();
+
+        cache.touch(PRINCIPAL);
+        cache.touch("user");
+        cache.touch("other");
+
+        assertThat(cache.count()).isEqualTo(2);
+    }
+
+    private OnlineUsersCache createCache() {
+        return new OnlineUsersCache(tenantContextHolder, systemTopicProducer, tokenConstraintsService,
+            applicationProperties);
+    }
+}
@@ -1,9 +1,15 @@
 package com.icthh.xm.uaa.security;
 
+import static com.icthh.xm.uaa.UaaTestConstants.DEFAULT_TENANT_KEY_VALUE;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.icthh.xm.commons.tenant.TenantContext;
+import com.icthh.xm.commons.tenant.TenantContextHolder;
+import com.icthh.xm.commons.tenant.TenantKey;
 import com.icthh.xm.uaa.config.ApplicationProperties;
 import com.icthh.xm.uaa.domain.properties.TenantProperties;
 import com.icthh.xm.uaa.service.TenantPropertiesService;
@@ -19,6 +25,7 @@ import org.springframework.security.oauth2.provider.OAuth2Authentication;
 import org.springframework.security.oauth2.provider.OAuth2Request;
 
 import java.util.Collections;
+import java.util.Optional;
 
 /**
  * Unit tests for per-client token lifetime resolution in {@link TokenConstraintsService}.
@@ -45,11 +52,19 @@ public class TokenConstraintsServiceUnitTest {
     @Mock
     private ClientDetailsService clientDetailsService;
 
+    private ClientDetailsCache clientDetailsCache;
     private TokenConstraintsService service;
 
     @Before
     public void setUp() {
-        service = new TokenConstraintsService(tenantPropertiesService, applicationProperties, clientDetailsService);
+        TenantContext tenantContext = mock(TenantContext.class);
+        when(tenantContext.getTenantKey()).thenReturn(Optional.of(TenantKey.valueOf(DEFAULT_TENANT_KEY_VALUE)));
+        TenantContextHolder tenantContextHolder = mock(TenantContextHolder.class);
+        when(tenantContextHolder.getContext()).thenReturn(tenantContext);
+
+        clientDetailsCache = new ClientDetailsCache(tenantContextHolder, new ApplicationProperties());
+        service = new TokenConstraintsService(tenantPropertiesService, applicationProperties, clientDetailsService,
+            clientDetailsCache, tenantContextHolder);
 
         TenantProperties.Security security = new TenantProperties.Security();
         security.setAccessTokenValiditySeconds(GLOBAL_ACCESS_SECONDS);
@@ -274,6 +289,35 @@ public class TokenConstraintsServiceUnitTest {
         assertThat(result.getRefreshTokenValiditySeconds()).isEqualTo(clientRefresh);
     }
 
+    // -----------------------------------------------------------------------
+    // Tests: client level validity is resolved once until client details are invalidated
+    // -----------------------------------------------------------------------
+
+    @Test
+    public void givenResolvedValidity_whenGetTokenValidityAgain_thenClientIsNotReloaded() {
+        ClientDetails clientDetails = clientWithValidity(900, 28800);
+        when(clientDetailsService.loadClientByClientId(CLIENT_A)).thenReturn(clientDetails);
+
+        service.getTokenValidity(buildAuthentication(CLIENT_A));
+        TokenValidity result = service.getTokenValidity(buildAuthentication(CLIENT_A));
+
+        assertThat(result.getAccessTokenValiditySeconds()).isEqualTo(900);
+        verify(clientDetailsService, times(1)).loadClientByClientId(CLIENT_A);
+    }
+
+    @Test
+    public void givenClientChanged_whenGetTokenValidity_thenReturnsUpdatedClientValue() {
+        ClientDetails clientDetails = clientWithValidity(900, 28800);
+        ClientDetails updatedClientDetails = clientWithValidity(600, 28800);
+        when(clientDetailsService.loadClientByClientId(CLIENT_A)).thenReturn(clientDetails, updatedClientDetails);
+
+        service.getTokenValidity(buildAuthentication(CLIENT_A));
+        clientDetailsCache.evictCurrentTenant();
+        TokenValidity result = service.getTokenValidity(buildAuthentication(CLIENT_A));
+
+        assertThat(result.getAccessTokenValiditySeconds()).isEqualTo(600);
+    }
+
     // -----------------------------------------------------------------------
     // Helpers
     // -----------------------------------------------------------------------
@@ -27,6 +27,9 @@ import com.icthh.xm.uaa.domain.User;
 import com.icthh.xm.uaa.domain.properties.TenantProperties;
 import com.icthh.xm.uaa.domain.properties.TenantProperties.PublicSettings;
 import com.icthh.xm.uaa.security.ldap.LdapAuthenticationProviderBuilder;
+import com.icthh.xm.uaa.security.ldap.LdapContextSourceCache;
+import com.icthh.xm.uaa.security.ldap.LdapProviderCache;
+import com.icthh.xm.uaa.service.PasswordUpgradeService;
 import com.icthh.xm.uaa.service.TenantPropertiesService;
 import com.icthh.xm.uaa.service.UserService;
 import java.nio.charset.Charset;
@@ -40,6 +43,7 @@ import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
@@ -113,8 +117,13 @@ public class UaaAuthenticationProviderIntTest {
     @Autowired
     private ApplicationProperties applicationProperties;
 
+    @Mock
+    private PasswordUpgradeService passwordUpgradeService;
+
     private UaaAuthenticationProvider uaaAuthenticationProvider;
 
+    private LdapContextSourceCache ldapContextSourceCache;
+
     private TenantProperties tenantProperties;
 
     @Rule
@@ -142,14 +151,17 @@ public class UaaAuthenticationProviderIntTest {
 
         setTenantProps(tenantProperties1 -> {});
 
-        LdapAuthenticationProviderBuilder providerBuilder =
-            new LdapAuthenticationProviderBuilder(tenantPropertiesService, userDetailsService, userService);
+        ldapContextSourceCache = new LdapContextSourceCache(tenantContextHolder, tenantPropertiesService);
+        LdapAuthenticationProviderBuilder providerBuilder = new LdapAuthenticationProviderBuilder(
+            tenantPropertiesService, userDetailsService, userService,
+            new LdapProviderCache(tenantContextHolder, tenantPropertiesService), ldapContextSourceCache);
 
         uaaAuthenticationProvider = new UaaAuthenticationProvider(daoAuthenticationProvider,
                                                                   providerBuilder,
                                                                   userService,
                                                                   tenantPropertiesService,
-                                                                  applicationProperties);
+                                                                  applicationProperties,
+                                                                  passwordUpgradeService);
         uaaAuthenticationProvider.setSelf(uaaAuthenticationProvider);
         lepManager.beginThreadContext(ctx -> {
             ctx.setValue(THREAD_CONTEXT_KEY_TENANT_CONTEXT, tenantContextHolder.getContext());
@@ -159,6 +171,7 @@ public class UaaAuthenticationProviderIntTest {
 
     @After
     public void destroy() {
+        ldapContextSourceCache.destroy();
         lepManager.endThreadContext();
     }
 
@@ -4,6 +4,7 @@ import com.icthh.xm.uaa.config.ApplicationProperties;
 import com.icthh.xm.uaa.domain.User;
 import com.icthh.xm.uaa.domain.properties.TenantProperties;
 import com.icthh.xm.uaa.domain.properties.TenantProperties.Security;
+import com.icthh.xm.uaa.service.PasswordUpgradeService;
 import com.icthh.xm.uaa.service.TenantPropertiesService;
 import com.icthh.xm.uaa.service.UserService;
 import org.junit.Before;
@@ -43,6 +44,9 @@ public class UaaAuthenticationProviderUnitTest {
     @Mock
     private ApplicationProperties applicationProperties;
 
+    @Mock
+    private PasswordUpgradeService passwordUpgradeService;
+
     private UaaAuthenticationProvider uaaAuthenticationProvider;
 
     private TenantProperties tenantProperties;
@@ -60,7 +64,8 @@ public class UaaAuthenticationProviderUnitTest {
                                                                   null,
                                                                   userService,
                                                                   tenantPropertiesService,
-                                                                  applicationProperties);
+                                                                  applicationProperties,
+                                                                  passwordUpgradeService);
         uaaAuthenticationProvider.setSelf(uaaAuthenticationProvider);
     }
 
@@ -100,6 +105,13 @@ public class UaaAuthenticationProviderUnitTest {
         verifyNoMoreInteractions(authenticationProvider, userService);
     }
 
+    @Test
+    public void testPasswordUpgradeRequestedOnSuccessfulLogin() {
+        testUserPassword(DEFAULT_USER_ROLE_KEY, Instant.now().minusSeconds(3600), 5);
+
+        verify(passwordUpgradeService).upgradeIfNeeded(DEFAULT_USER_KEY, "hash", "password");
+    }
+
     private void testUserPassword(String roleKey, Instant updatePasswordDate, int passwordExpirationPeriod) {
         tenantProperties = new TenantProperties();
         tenantProperties.setSecurity(new Security());
@@ -116,7 +128,9 @@ public class UaaAuthenticationProviderUnitTest {
         Authentication authentication = mock(Authentication.class);
         DomainUserDetails userDetails = mock(DomainUserDetails.class);
         when(userDetails.getUserKey()).thenReturn(DEFAULT_USER_KEY);
+        when(userDetails.getPassword()).thenReturn("hash");
         when(authentication.getPrincipal()).thenReturn(userDetails);
+        when(authentication.getCredentials()).thenReturn("password");
         when(authenticationProvider.authenticate(authentication)).thenReturn(authentication);
         uaaAuthenticationProvider.authenticate(authentication);
     }
@@ -0,0 +1,105 @@
+package com.icthh.xm.uaa.security;
+
+import com.icthh.xm.commons.tenant.TenantContext;
+import com.icthh.xm.commons.tenant.TenantContextHolder;
+import com.icthh.xm.commons.tenant.TenantKey;
+import com.icthh.xm.uaa.config.ApplicationProperties;
+import com.icthh.xm.uaa.domain.User;
+import com.icthh.xm.uaa.domain.UserLogin;
+import com.icthh.xm.uaa.repository.kafka.SystemTopicProducer;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+import static com.icthh.xm.uaa.UaaTestConstants.DEFAULT_TENANT_KEY_VALUE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class UserActivationCacheUnitTest {
+
+    private static final String LOGIN = "admin@xm.com";
+
+    private UserActivationCache cache;
+    private SystemTopicProducer systemTopicProducer;
+    private boolean activated = true;
+    private final AtomicInteger loads = new AtomicInteger();
+    private final Predicate<String> loader = login -> {
+        loads.incrementAndGet();
+        return activated;
+    };
+
+    @Before
+    public void setUp() {
+        TenantContext tenantContext = mock(TenantContext.class);
+        when(tenantContext.getTenantKey()).thenReturn(Optional.of(TenantKey.valueOf(DEFAULT_TENANT_KEY_VALUE)));
+        TenantContextHolder tenantContextHolder = mock(TenantContextHolder.class);
+        when(tenantContextHolder.getContext()).thenReturn(tenantContext);
+        systemTopicProducer = mock(SystemTopicProducer.class);
+
+        cache = new UserActivationCache(tenantContextHolder, systemTopicProducer, new ApplicationProperties());
+    }
+
+    @Test
+    public void testActivatedUserIsLoadedOnce() {
+        assertThat(cache.isActivated(LOGIN, loader)).isTrue();
+        assertThat(cache.isActivated(LOGIN.toUpperCase(), loader)).isTrue();
+
+        assertThat(loads.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void testNotActivatedUserIsNotCached() {
+        activated = false;
+
+        assertThat(cache.isActivated(LOGIN, loader)).isFalse();
+        assertThat(cache.isActivated(LOGIN, loader)).isFalse();
+
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void testEvictUserInvalidatesLoginsAndNotifiesOtherInstances() {
+        cache.isActivated(LOGIN, loader);
+        activated = false;
+
+        cache.evict(createUser());
+
+        assertThat(cache.isActivated(LOGIN, loader)).isFalse();
+        assertThat(loads.get()).isEqualTo(2);
+        verify(systemTopicProducer).sendUserActivationChanged(DEFAULT_TENANT_KEY_VALUE.toUpperCase(), List.of(LOGIN));
+    }
+
+    @Test
+    public void testEvictFromOtherInstance() {
+        cache.isActivated(LOGIN, loader);
+        cache.evict(DEFAULT_TENANT_KEY_VALUE.toLowerCase(), List.of(LOGIN.toUpperCase()));
+        cache.isActivated(LOGIN, loader);
+
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void testValueLoadedDuringEvictionIsNotCached() {
+        cache.isActivated(LOGIN, login -> {
+            cache.evict(DEFAULT_TENANT_KEY_VALUE, List.of(LOGIN));
+            return loader.test(login);
+        });
+        cache.isActivated(LOGIN, loader);
+
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    private static User createUser() {
+        UserLogin userLogin = new UserLogin();
+        userLogin.setLogin(LOGIN);
+        User user = new User();
+        user.getLogins().add(userLogin);
+        return user;
+    }
+}
@@ -0,0 +1,87 @@
+package com.icthh.xm.uaa.security.hashing;
+
+import com.icthh.xm.uaa.domain.properties.TenantProperties.Security.PasswordEncoding;
+import org.junit.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.UnaryOperator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AdaptivePasswordEncoderUnitTest {
+
+    private static final String PASSWORD = "password";
+
+    private PasswordEncoding encoding;
+
+    private final PasswordEncoder encoder = new AdaptivePasswordEncoder(4, () -> Optional.ofNullable(encoding),
+        Map.of("pbkdf2", new Pbkdf2PasswordEncoder()), UnaryOperator.identity());
+
+    @Test
+    public void testBcryptHashIsStoredWithoutPrefix() {
+        String hash = encoder.encode(PASSWORD);
+
+        assertThat(hash).startsWith("$2a$04$").hasSize(60);
+        assertThat(encoder.matches(PASSWORD, hash)).isTrue();
+        assertThat(encoder.matches("wrong", hash)).isFalse();
+        assertThat(encoder.upgradeEncoding(hash)).isFalse();
+    }
+
+    @Test
+    public void testMatchesPrefixedHash() {
+        String hash = "{bcrypt}" + new BCryptPasswordEncoder(4).encode(PASSWORD);
+
+        assertThat(encoder.matches(PASSWORD, hash)).isTrue();
+        assertThat(encoder.upgradeEncoding(hash)).isFalse();
+    }
+
+    @Test
+    public void testUpgradeWhenTenantStrengthChanged() {
+        String hash = new BCryptPasswordEncoder(5).encode(PASSWORD);
+        assertThat(encoder.upgradeEncoding(hash)).isTrue();
+
+        encoding = encoding(null, 5);
+        assertThat(encoder.upgradeEncoding(hash)).isFalse();
+        assertThat(encoder.encode(PASSWORD)).startsWith("$2a$05$");
+    }
+
+    @Test
+    public void testNonPositiveTenantStrengthMeansDefaultStrength() {
+        String hash = encoder.encode(PASSWORD);
+        encoding = encoding(null, -1);
+
+        assertThat(encoder.upgradeEncoding(hash)).isFalse();
+        assertThat(encoder.encode(PASSWORD)).startsWith("$2a$04$");
+    }
+
+    @Test
+    public void testUpgradeWhenTenantAlgorithmChanged() {
+        String bcryptHash = encoder.encode(PASSWORD);
+        encoding = encoding("pbkdf2", null);
+
+        String hash = encoder.encode(PASSWORD);
+
+        assertThat(hash).startsWith("{pbkdf2}");
+        assertThat(encoder.matches(PASSWORD, hash)).isTrue();
+        assertThat(encoder.matches(PASSWORD, bcryptHash)).isTrue();
+        assertThat(encoder.upgradeEncoding(bcryptHash)).isTrue();
+        assertThat(encoder.upgradeEncoding(hash)).isFalse();
+    }
+
+    @Test
+    public void testUnknownAlgorithmDoesNotMatch() {
+        assertThat(encoder.matches(PASSWORD, "{unknown}" + PASSWORD)).isFalse();
+        assertThat(encoder.matches(PASSWORD, null)).isFalse();
+    }
+
+    private static PasswordEncoding encoding(String algorithm, Integer strength) {
+        PasswordEncoding encoding = new PasswordEncoding();
+        encoding.setAlgorithm(algorithm);
+        encoding.setStrength(strength);
+        return encoding;
+    }
+}
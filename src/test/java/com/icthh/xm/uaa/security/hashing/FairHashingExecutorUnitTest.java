@@ -0,0 +1,113 @@
+package com.icthh.xm.uaa.security.hashing;
+
+import com.codahale.metrics.MetricRegistry;
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.http.HttpStatus;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowableOfType;
+
+public class FairHashingExecutorUnitTest {
+
+    private final MetricRegistry metricRegistry = new MetricRegistry();
+    private final CountDownLatch started = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final ExecutorService callers = Executors.newCachedThreadPool();
+    private FairHashingExecutor executor;
+
+    @After
+    public void tearDown() {
+        release.countDown();
+        executor.shutdown();
+        callers.shutdownNow();
+    }
+
+    @Test
+    public void testRejectWhenTenantQueueIsFull() throws Exception {
+        executor = new FairHashingExecutor(1, 2, 1, metricRegistry);
+        blockWorker();
+        submit("XM", 1);
+
+        PasswordHashingRejectedException e = catchThrowableOfType(() -> executor.execute("XM", () -> "rejected"),
+            PasswordHashingRejectedException.class);
+
+        assertThat(e.getStatus()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+        assertThat(metricRegistry.counter("password-hashing.rejected").getCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void testRejectWhenQueueIsFull() throws Exception {
+        executor = new FairHashingExecutor(1, 2, 1, metricRegistry);
+        blockWorker();
+        submit("XM", 1);
+        submit("DEMO", 2);
+
+        PasswordHashingRejectedException e = catchThrowableOfType(() -> executor.execute("TEST", () -> "rejected"),
+            PasswordHashingRejectedException.class);
+
+        assertThat(e.getStatus()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(e.getHttpErrorCode()).isEqualTo(503);
+    }
+
+    @Test
+    public void testTenantsAreServedRoundRobin() throws Exception {
+        executor = new FairHashingExecutor(1, 10, 10, metricRegistry);
+        List<String> order = new CopyOnWriteArrayList<>();
+        blockWorker();
+        CompletableFuture<?> xm1 = submit("XM", () -> order.add("XM-1"), 1);
+        CompletableFuture<?> xm2 = submit("XM", () -> order.add("XM-2"), 2);
+        CompletableFuture<?> demo = submit("DEMO", () -> order.add("DEMO-1"), 3);
+
+        release.countDown();
+        CompletableFuture.allOf(xm1, xm2, demo).get(5, TimeUnit.SECONDS);
+
+        assertThat(order).containsExactly("XM-1", "DEMO-1", "XM-2");
+        assertThat(executor.getQueueDepth()).isZero();
+    }
+
+    @Test
+    public void testTaskExceptionIsRethrown() {
+        executor = new FairHashingExecutor(1, 10, 10, metricRegistry);
+
+        IllegalArgumentException e = catchThrowableOfType(() -> executor.execute(null, () -> {
+            throw new IllegalArgumentException("bad hash");
+        }), IllegalArgumentException.class);
+
+        assertThat(e).hasMessage("bad hash");
+    }
+
+    private void blockWorker() throws InterruptedException {
+        CompletableFuture.runAsync(() -> executor.execute("BLOCKER", () -> {
+            started.countDown();
+            return release.await(5, TimeUnit.SECONDS);
+        }), callers);
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    private CompletableFuture<?> submit(String tenantKey, int expectedDepth) throws InterruptedException {
+        return submit(tenantKey, () -> { }, expectedDepth);
+    }
+
+    private CompletableFuture<?> submit(String tenantKey, Runnable task,
+                                        int expectedDepth) throws InterruptedException {
+        CompletableFuture<?> future = CompletableFuture.runAsync(() -> executor.execute(tenantKey, () -> {
+            task.run();
+            return true;
+        }), callers);
+        long deadline = System.currentTimeMillis() + 5000;
+        while (executor.getQueueDepth() < expectedDepth && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(executor.getQueueDepth()).isEqualTo(expectedDepth);
+        return future;
+    }
+}
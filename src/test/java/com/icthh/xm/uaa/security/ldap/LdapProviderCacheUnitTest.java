@@ -0,0 +1,100 @@
+package com.icthh.xm.uaa.security.ldap;
+
+import com.icthh.xm.commons.tenant.TenantContext;
+import com.icthh.xm.commons.tenant.TenantContextHolder;
+import com.icthh.xm.commons.tenant.TenantKey;
+import com.icthh.xm.uaa.domain.properties.TenantProperties;
+import com.icthh.xm.uaa.domain.properties.TenantProperties.Ldap;
+import com.icthh.xm.uaa.service.TenantPropertiesService;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.security.authentication.AuthenticationProvider;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static com.icthh.xm.uaa.UaaTestConstants.DEFAULT_TENANT_KEY_VALUE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class LdapProviderCacheUnitTest {
+
+    private static final String DOMAIN = "xm.com";
+
+    private LdapProviderCache cache;
+    private TenantPropertiesService tenantPropertiesService;
+    private final AtomicInteger builds = new AtomicInteger();
+    private final Function<Ldap, AuthenticationProvider> builder = conf -> {
+        builds.incrementAndGet();
+        return mock(AuthenticationProvider.class);
+    };
+
+    @Before
+    public void setUp() {
+        TenantContext tenantContext = mock(TenantContext.class);
+        when(tenantContext.getTenantKey()).thenReturn(Optional.of(TenantKey.valueOf(DEFAULT_TENANT_KEY_VALUE)));
+        TenantContextHolder tenantContextHolder = mock(TenantContextHolder.class);
+        when(tenantContextHolder.getContext()).thenReturn(tenantContext);
+        tenantPropertiesService = mock(TenantPropertiesService.class);
+
+        cache = new LdapProviderCache(tenantContextHolder, tenantPropertiesService);
+    }
+
+    @Test
+    public void testProviderIsBuiltOnceForEqualConfiguration() {
+        AuthenticationProvider first = cache.get(createLdap("ldap://localhost:1389"), builder);
+        AuthenticationProvider second = cache.get(createLdap("ldap://localhost:1389"), builder);
+
+        assertThat(second).isSameAs(first);
+        assertThat(builds.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void testProviderIsRebuiltOnChangedConfiguration() {
+        AuthenticationProvider first = cache.get(createLdap("ldap://localhost:1389"), builder);
+        AuthenticationProvider second = cache.get(createLdap("ldap://localhost:1390"), builder);
+
+        assertThat(second).isNotSameAs(first);
+        assertThat(builds.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void testTenantPropertiesChangeKeepsUnchangedProvider() {
+        cache.get(createLdap("ldap://localhost:1389"), builder);
+        mockTenantLdap(createLdap("ldap://localhost:1389"));
+
+        cache.onTenantPropertiesChanged(DEFAULT_TENANT_KEY_VALUE);
+        cache.get(createLdap("ldap://localhost:1389"), builder);
+
+        assertThat(builds.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void testTenantPropertiesChangeEvictsRemovedProvider() {
+        cache.get(createLdap("ldap://localhost:1389"), builder);
+        mockTenantLdap();
+
+        cache.onTenantPropertiesChanged(DEFAULT_TENANT_KEY_VALUE);
+        cache.get(createLdap("ldap://localhost:1389"), builder);
+
+        assertThat(builds.get()).isEqualTo(2);
+    }
+
+    private void mockTenantLdap(Ldap... ldap) {
+        TenantProperties tenantProperties = new TenantProperties();
+        tenantProperties.setLdap(List.of(ldap));
+        when(tenantPropertiesService.getTenantProps(any(TenantKey.class))).thenReturn(tenantProperties);
+    }
+
+    private static Ldap createLdap(String providerUrl) {
+        Ldap ldap = new Ldap();
+        ldap.setDomain(DOMAIN);
+        ldap.setProviderUrl(providerUrl);
+        ldap.setRole(new Ldap.Role("ROLE-USER", null));
+        return ldap;
+    }
+}
@@ -66,7 +66,7 @@ public class UaaLdapUserDetailsContextMapperUnitTest {
 
     @Before
     public void setUp() {
-        when(userDetailsService.loadUserByUsername(anyString())).thenReturn(mockDomainUserDetails);
+        when(userDetailsService.buildUserDetails(anyString(), any())).thenReturn(mockDomainUserDetails);
         when(mockDomainUserDetails.getAdditionalDetails()).thenReturn(capturedAdditionalDetails);
         when(ldapConf.getDomain()).thenReturn(LDAP_DOMAIN);
     }
@@ -76,7 +76,8 @@ public class UaaLdapUserDetailsContextMapperUnitTest {
         User user = whenFindUserByLogin();
         when(ldapConf.getRole()).thenReturn(new TenantProperties.Ldap.Role("DEFAULT_ROLE", null));
         uaaLdapUserDetailsContextMapper.mapUserFromContext(ctx, LOGIN, List.of());
-        verify(userDetailsService).loadUserByUsername(eq(LOGIN));
+        verify(userDetailsService).buildUserDetails(eq(LOGIN), eq(user));
+        verify(userDetailsService, never()).loadUserByUsername(anyString());
         verify(userService, never()).saveUser(any(User.class));
         assertTrue(user.getAuthorities().contains("ROLE_ADMIN"));
         assertEquals(LDAP_DOMAIN, capturedAdditionalDetails.get("ldapDomain"));
@@ -88,7 +89,7 @@ public class UaaLdapUserDetailsContextMapperUnitTest {
         when(ldapConf.getRole()).thenReturn(new TenantProperties.Ldap.Role("DEFAULT_ROLE", GROUP_MAPPING));
         uaaLdapUserDetailsContextMapper.mapUserFromContext(ctx, LOGIN,
             newArrayList((GrantedAuthority) () -> "GROUP1", (GrantedAuthority) () -> "GROUP3"));
-        verify(userDetailsService).loadUserByUsername(eq(LOGIN));
+        verify(userDetailsService).buildUserDetails(eq(LOGIN), any());
 
         ArgumentCaptor<User> captor = ArgumentCaptor.forClass(User.class);
         verify(userService, times(1))
@@ -105,7 +106,7 @@ public class UaaLdapUserDetailsContextMapperUnitTest {
         whenFindUserByLogin();
         when(ldapConf.getRole()).thenReturn(new TenantProperties.Ldap.Role("DEFAULT_ROLE", GROUP_MAPPING));
         uaaLdapUserDetailsContextMapper.mapUserFromContext(ctx, LOGIN, newArrayList((GrantedAuthority) () -> "GROUP1"));
-        verify(userDetailsService).loadUserByUsername(eq(LOGIN));
+        verify(userDetailsService).buildUserDetails(eq(LOGIN), any());
 
         ArgumentCaptor<User> captor = ArgumentCaptor.forClass(User.class);
         verify(userService, times(1))
@@ -121,7 +122,7 @@ public class UaaLdapUserDetailsContextMapperUnitTest {
         when(ldapConf.getRole()).thenReturn(new TenantProperties.Ldap.Role("DEFAULT_ROLE", null));
         when(ldapConf.getAttribute()).thenReturn(new TenantProperties.Ldap.Attribute("Homer", "Simpson"));
         uaaLdapUserDetailsContextMapper.mapUserFromContext(ctx, LOGIN, newArrayList((GrantedAuthority) () -> "GROUP1"));
-        verify(userDetailsService).loadUserByUsername(eq(LOGIN));
+        verify(userDetailsService).buildUserDetails(eq(LOGIN), any());
 
         ArgumentCaptor<UserDTO> captor = ArgumentCaptor.forClass(UserDTO.class);
         verify(userService, times(1))
@@ -131,6 +132,38 @@ public class UaaLdapUserDetailsContextMapperUnitTest {
         assertEquals(LDAP_DOMAIN, capturedAdditionalDetails.get("ldapDomain"));
     }
 
+    @Test
+    public void userMustBeUpdatedWhenNameChanged() {
+        User user = whenFindUserByLogin();
+        user.setFirstName("Homer");
+        user.setLastName("Simpson");
+        when(ldapConf.getRole()).thenReturn(new TenantProperties.Ldap.Role("DEFAULT_ROLE", null));
+        when(ldapConf.getAttribute()).thenReturn(new TenantProperties.Ldap.Attribute("givenName", "sn"));
+        when(ctx.getStringAttribute("givenName")).thenReturn("Homer");
+        when(ctx.getStringAttribute("sn")).thenReturn("Simpsons");
+
+        uaaLdapUserDetailsContextMapper.mapUserFromContext(ctx, LOGIN, List.of());
+
+        verify(userService).saveUser(user);
+        verify(userDetailsService).buildUserDetails(eq(LOGIN), eq(user));
+        assertEquals("Simpsons", user.getLastName());
+    }
+
+    @Test
+    public void userMustNotBeUpdatedWhenNameNotChanged() {
+        User user = whenFindUserByLogin();
+        user.setFirstName("Homer");
+        user.setLastName("Simpson");
+        when(ldapConf.getRole()).thenReturn(new TenantProperties.Ldap.Role("DEFAULT_ROLE", null));
+        when(ldapConf.getAttribute()).thenReturn(new TenantProperties.Ldap.Attribute("givenName", "sn"));
+        when(ctx.getStringAttribute("givenName")).thenReturn("Homer");
+        when(ctx.getStringAttribute("sn")).thenReturn("Simpson");
+
+        uaaLdapUserDetailsContextMapper.mapUserFromContext(ctx, LOGIN, List.of());
+
+        verify(userService, never()).saveUser(any(User.class));
+    }
+
     private User whenFindUserByLogin() {
         User user = new User();
         user.setRoleKey("ROLE_ADMIN");
@@ -41,7 +41,6 @@ import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 import java.util.Set;
 
 import static com.icthh.xm.commons.domain.idp.IdpConstants.IDP_PUBLIC_SETTINGS_CONFIG_PATH_PATTERN;
@@ -53,7 +52,6 @@ import static com.icthh.xm.uaa.security.oauth2.idp.IdpTokenGranter.GRANT_TYPE_ID
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -97,7 +95,7 @@ public class IdpTokenGranterUnitTest {
 
         UserLoginService userLoginService = new UserLoginService(userLoginRepository);
 
-        when(userLoginRepository.findOneByLoginIgnoreCase(eq("devtest046@gmail.com"))).thenReturn(Optional.empty());
+        when(userLoginRepository.findAllByNormalizedLoginIn(List.of("devtest046@gmail.com"))).thenReturn(List.of());
 
         TenantProperties tenantProps = buildTenantProps();
         tenantProps.getSecurity().setDefaultUserRole("SUPER-ADMIN");
@@ -149,7 +147,7 @@ public class IdpTokenGranterUnitTest {
 
         UserLoginService userLoginService = new UserLoginService(userLoginRepository);
 
-        when(userLoginRepository.findOneByLoginIgnoreCase(eq("devtest046@gmail.com"))).thenReturn(Optional.empty());
+        when(userLoginRepository.findAllByNormalizedLoginIn(List.of("devtest046@gmail.com"))).thenReturn(List.of());
 
         TenantProperties tenantProps = buildTenantProps();
         tenantProps.getSecurity().setIdp(buildIdpUserMappingConfig());
@@ -17,6 +17,7 @@ import com.icthh.xm.uaa.domain.properties.TenantProperties;
 import com.icthh.xm.uaa.repository.RegistrationLogRepository;
 import com.icthh.xm.uaa.repository.UserRepository;
 import com.icthh.xm.uaa.repository.kafka.ProfileEventProducer;
+import com.icthh.xm.uaa.security.PasswordHashCache;
 import com.icthh.xm.uaa.security.oauth2.otp.EmailOtpSender;
 import com.icthh.xm.uaa.security.oauth2.otp.OtpSenderFactory;
 import com.icthh.xm.uaa.security.oauth2.otp.SmsOtpSender;
@@ -101,6 +102,9 @@ public class AccountServiceUnitTest {
     @Mock
     private EmailOtpSender emailOtpSender;
 
+    @Mock
+    private PasswordHashCache passwordHashCache;
+
     private AccountService accountService;
 
     private User mockUser;
@@ -128,7 +132,7 @@ public class AccountServiceUnitTest {
 
         accountService = new AccountService(userRepository, passwordEncoder, registrationLogRepository,
             authContextHolder, tenantPropertiesService, userService, userLoginService, profileEventProducer,
-            otpSenderFactory);
+            otpSenderFactory, passwordHashCache);
 
         accountService.setSelf(accountService);
     }
@@ -7,6 +7,7 @@ import com.icthh.xm.commons.tenant.TenantContextHolder;
 import com.icthh.xm.uaa.config.ApplicationProperties;
 import com.icthh.xm.uaa.domain.Client;
 import com.icthh.xm.uaa.repository.ClientRepository;
+import com.icthh.xm.uaa.security.ClientDetailsCache;
 import com.icthh.xm.uaa.service.dto.ClientDTO;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -52,6 +53,8 @@ class ClientServiceUnitTest {
     private ClientRepository clientRepository;
     @Mock
     private ApplicationProperties applicationProperties;
+    @Mock
+    private ClientDetailsCache clientDetailsCache;
 
     @Test
     void shouldCreateClientWhenRoleExistsInConfiguration() {
@@ -0,0 +1,93 @@
+package com.icthh.xm.uaa.service;
+
+import com.icthh.xm.commons.tenant.TenantContext;
+import com.icthh.xm.commons.tenant.TenantContextHolder;
+import com.icthh.xm.commons.tenant.TenantKey;
+import com.icthh.xm.uaa.config.ApplicationProperties;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static com.icthh.xm.uaa.UaaTestConstants.DEFAULT_TENANT_KEY_VALUE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class LdapSearchCacheUnitTest {
+
+    private static final String TEMPLATE_KEY = "test_template";
+
+    private final ApplicationProperties applicationProperties = new ApplicationProperties();
+    private final AtomicInteger searches = new AtomicInteger();
+    private final Supplier<Set<Map<String, List<String>>>> search = () -> {
+        searches.incrementAndGet();
+        return Set.of(Map.of("uid", List.of("test")));
+    };
+    private LdapSearchCache cache;
+
+    @Before
+    public void setUp() {
+        TenantContext tenantContext = mock(TenantContext.class);
+        when(tenantContext.getTenantKey()).thenReturn(Optional.of(TenantKey.valueOf(DEFAULT_TENANT_KEY_VALUE)));
+        TenantContextHolder tenantContextHolder = mock(TenantContextHolder.class);
+        when(tenantContextHolder.getContext()).thenReturn(tenantContext);
+
+        cache = new LdapSearchCache(tenantContextHolder, applicationProperties);
+    }
+
+    @Test
+    public void testSearchIsNotCachedByDefault() {
+        cache.get(TEMPLATE_KEY, List.of("test"), search);
+        cache.get(TEMPLATE_KEY, List.of("test"), search);
+
+        assertThat(searches.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void testResultIsCachedByTemplateAndParams() {
+        applicationProperties.getLdapSearch().setCacheTtlSeconds(60);
+
+        cache.get(TEMPLATE_KEY, List.of("test"), search);
+        cache.get(TEMPLATE_KEY, List.of("test"), search);
+        cache.get(TEMPLATE_KEY, List.of("other"), search);
+        cache.get("other_template", List.of("test"), search);
+
+        assertThat(searches.get()).isEqualTo(3);
+    }
+
+    @Test
+    public void testCachedResultIsUnmodifiableCopy() {
+        applicationProperties.getLdapSearch().setCacheTtlSeconds(60);
+        List<String> uids = new ArrayList<>(List.of("test"));
+        Set<Map<String, List<String>>> found = new HashSet<>(Set.of(new HashMap<>(Map.of("uid", uids))));
+
+        Set<Map<String, List<String>>> result = cache.get(TEMPLATE_KEY, List.of("test"), () -> found);
+        uids.add("changed");
+
+        assertThat(cache.get(TEMPLATE_KEY, List.of("test"), search)).isEqualTo(Set.of(Map.of("uid", List.of("test"))));
+        assertThatThrownBy(() -> result.clear()).isInstanceOf(UnsupportedOperationException.class);
+        assertThatThrownBy(() -> result.iterator().next().get("uid").add("changed"))
+            .isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    public void testTenantPropertiesChangeInvalidatesResults() {
+        applicationProperties.getLdapSearch().setCacheTtlSeconds(60);
+
+        cache.get(TEMPLATE_KEY, List.of("test"), search);
+        cache.onTenantPropertiesChanged(DEFAULT_TENANT_KEY_VALUE);
+        cache.get(TEMPLATE_KEY, List.of("test"), search);
+
+        assertThat(searches.get()).isEqualTo(2);
+    }
+}
@@ -2,6 +2,8 @@ package com.icthh.xm.uaa.service;
 
 import com.icthh.xm.commons.config.client.repository.CommonConfigRepository;
 import com.icthh.xm.commons.config.client.repository.TenantConfigRepository;
+import com.icthh.xm.commons.config.domain.Configuration;
+import com.icthh.xm.commons.exceptions.BusinessException;
 import com.icthh.xm.commons.permission.config.PermissionProperties;
 import com.icthh.xm.commons.permission.service.PermissionMappingService;
 import com.icthh.xm.commons.security.XmAuthenticationContext;
@@ -16,6 +18,7 @@ import com.icthh.xm.uaa.service.dto.PermissionDTO;
 import com.icthh.xm.uaa.service.dto.RoleDTO;
 import com.icthh.xm.uaa.service.dto.RoleMatrixDTO;
 import java.util.List;
+import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.Before;
 import org.junit.Test;
@@ -27,10 +30,14 @@ import org.mockito.Spy;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.client.HttpClientErrorException;
 
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
 import java.util.Optional;
 
 import static com.icthh.xm.commons.permission.constants.RoleConstant.SUPER_ADMIN;
 import static com.icthh.xm.uaa.utils.FileUtil.getSingleConfigMap;
+import static com.icthh.xm.uaa.web.constant.ErrorConstants.ERROR_ROLE_CONFIG_CHANGED;
 import static com.icthh.xm.uaa.utils.FileUtil.readConfigFile;
 import static java.util.Collections.emptyList;
 import static java.util.Collections.singletonList;
@@ -38,6 +45,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
@@ -54,6 +62,9 @@ public class TenantRoleServiceUnitTest {
     private static final String PERMISSIONS_PATH_INIT = "/config/tenants/XM/permissions_removeDefault_init.yml";
     private static final String PERMISSIONS_PATH_EXPECTED = "/config/tenants/XM/permissions_removeDefault_expected.yml";
     private static final String MOCK_ROLE = "MOCK_ROLE";
+    private static final String ROLES_KEY = "/config/tenants/XM/roles.yml";
+    private static final String PERMISSIONS_KEY = "/config/tenants/XM/permissions.yml";
+    private static final String PRIVILEGES_KEY = "/config/tenants/privileges.yml";
 
     @InjectMocks
     TenantRoleService tenantRoleService;
@@ -107,23 +118,32 @@ public class TenantRoleServiceUnitTest {
         when(tenantConfigRepository.getConfigFullPath(XM_TENANT, ROLES_PATH)).thenReturn("");
         assertTrue(tenantRoleService.getRoles().isEmpty());
 
-        when(tenantConfigRepository.getConfigFullPath(XM_TENANT, ROLES_PATH)).thenReturn(null);
+        tenantRoleService.onRefresh(ROLES_KEY, null);
         assertTrue(tenantRoleService.getRoles().isEmpty());
 
-        when(tenantConfigRepository.getConfigFullPath(XM_TENANT, ROLES_PATH)).thenReturn("---");
+        tenantRoleService.onRefresh(ROLES_KEY, "---");
         assertTrue(tenantRoleService.getRoles().isEmpty());
 
-        when(tenantConfigRepository.getConfigFullPath(XM_TENANT, ROLES_PATH))
-            .thenReturn(readConfigFile("/config/tenants/XM/roles.yml"));
+        tenantRoleService.onRefresh(ROLES_KEY, readConfigFile("/config/tenants/XM/roles.yml"));
         assertEquals("test", tenantRoleService.getRoles().get("ROLE_USER").getDescription());
         assertEquals("test2", tenantRoleService.getRoles().get(SUPER_ADMIN).getDescription());
 
-        when(tenantConfigRepository.getConfigFullPath(XM_TENANT, ROLES_PATH))
-            .thenReturn("---");
+        tenantRoleService.onRefresh(ROLES_KEY, "---");
         assertTrue(tenantRoleService.getRoles().isEmpty());
 
-        verify(tenantConfigRepository, times(6)).getConfigFullPath(eq(XM_TENANT), anyString());
+        // loaded once, then served from the snapshot updated by refresh
+        verify(tenantConfigRepository, times(1)).getConfigFullPath(eq(XM_TENANT), anyString());
+
+    }
+
+    @Test
+    public void testGetRolesReturnsModifiableCopy() {
+        tenantRoleService.onRefresh(ROLES_KEY, readConfigFile("/config/tenants/XM/roles.yml"));
+
+        tenantRoleService.getRoles().remove("ROLE_USER");
 
+        assertTrue(tenantRoleService.getRoles().containsKey("ROLE_USER"));
+        verify(tenantConfigRepository, never()).getConfigFullPath(anyString(), anyString());
     }
 
     @Test
@@ -134,23 +154,21 @@ public class TenantRoleServiceUnitTest {
         when(tenantConfigRepository.getConfigFullPath(XM_TENANT, PERMISSIONS_PATH)).thenReturn("");
         assertTrue(tenantRoleService.getRolePermissions(roleKey).isEmpty());
 
-        when(tenantConfigRepository.getConfigFullPath(XM_TENANT, PERMISSIONS_PATH)).thenReturn(null);
+        tenantRoleService.onRefresh(PERMISSIONS_KEY, null);
         assertTrue(tenantRoleService.getRolePermissions(roleKey).isEmpty());
 
-        when(tenantConfigRepository.getConfigFullPath(XM_TENANT, PERMISSIONS_PATH)).thenReturn("---");
+        tenantRoleService.onRefresh(PERMISSIONS_KEY, "---");
         assertTrue(tenantRoleService.getRolePermissions(roleKey).isEmpty());
 
-        when(tenantConfigRepository.getConfigFullPath(XM_TENANT, PERMISSIONS_PATH))
-            .thenReturn(readConfigFile("/config/tenants/XM/permissions.yml"));
+        tenantRoleService.onRefresh(PERMISSIONS_KEY, readConfigFile("/config/tenants/XM/permissions.yml"));
         assertFalse(tenantRoleService.getRolePermissions(roleKey).isEmpty());
         assertEquals("ROLE_ADMIN", tenantRoleService.getRolePermissions(roleKey).get(0).getRoleKey());
         assertEquals("ATTACHMENT.CREATE", tenantRoleService.getRolePermissions(roleKey).get(0).getPrivilegeKey());
 
-        when(tenantConfigRepository.getConfigFullPath(XM_TENANT, PERMISSIONS_PATH))
-            .thenReturn("");
+        tenantRoleService.onRefresh(PERMISSIONS_KEY, "");
         assertTrue(tenantRoleService.getRolePermissions(roleKey).isEmpty());
 
-        verify(tenantConfigRepository, times(7)).getConfigFullPath(eq(XM_TENANT), eq(PERMISSIONS_PATH));
+        verify(tenantConfigRepository, times(1)).getConfigFullPath(eq(XM_TENANT), eq(PERMISSIONS_PATH));
     }
 
     @Test
@@ -200,18 +218,11 @@ public class TenantRoleServiceUnitTest {
         assertFalse(tenantRoleService.getRole(roleKey).isPresent());
 
         // privileges.yml exists
-        when(tenantConfigRepository.getConfigFullPath(XM_TENANT, ROLES_PATH)).thenReturn("");
-        when(tenantConfigRepository.getConfigFullPath(XM_TENANT, PERMISSIONS_PATH)).thenReturn("");
-        when(commonConfigRepository.getConfig(isNull(), eq(singletonList(privilegesPath))))
-            .thenReturn(getSingleConfigMap(privilegesPath, readConfigFile("/config/tenants/privileges.yml")));
+        tenantRoleService.onRefresh(PRIVILEGES_KEY, readConfigFile("/config/tenants/privileges.yml"));
         assertFalse(tenantRoleService.getRole(roleKey).isPresent());
 
         // roles.yml and privileges.yml exist
-        when(tenantConfigRepository.getConfigFullPath(XM_TENANT, ROLES_PATH))
-            .thenReturn(readConfigFile("/config/tenants/XM/roles.yml"));
-        when(tenantConfigRepository.getConfigFullPath(XM_TENANT, PERMISSIONS_PATH)).thenReturn("");
-        when(commonConfigRepository.getConfig(isNull(), eq(singletonList(privilegesPath))))
-            .thenReturn(getSingleConfigMap(privilegesPath, readConfigFile("/config/tenants/privileges.yml")));
+        tenantRoleService.onRefresh(ROLES_KEY, readConfigFile("/config/tenants/XM/roles.yml"));
         Optional<RoleDTO> role = tenantRoleService.getRole(roleKey);
         log.info("ROLE DTO = {}", role);
         assertTrue(role.isPresent());
@@ -219,12 +230,7 @@ public class TenantRoleServiceUnitTest {
         assertTrue(role.get().getPermissions().stream().noneMatch(PermissionDTO::isEnabled));
 
         // roles, privileges and permissions exists
-        when(tenantConfigRepository.getConfigFullPath(XM_TENANT, ROLES_PATH))
-            .thenReturn(readConfigFile("/config/tenants/XM/roles.yml"));
-        when(tenantConfigRepository.getConfigFullPath(XM_TENANT, PERMISSIONS_PATH))
-            .thenReturn(readConfigFile("/config/tenants/XM/permissions.yml"));
-        when(commonConfigRepository.getConfig(isNull(), eq(singletonList(privilegesPath))))
-            .thenReturn(getSingleConfigMap(privilegesPath, readConfigFile("/config/tenants/privileges.yml")));
+        tenantRoleService.onRefresh(PERMISSIONS_KEY, readConfigFile("/config/tenants/XM/permissions.yml"));
         role = tenantRoleService.getRole(roleKey);
         log.info("ROLE DTO = {}", role);
         assertTrue(role.isPresent());
@@ -234,6 +240,32 @@ public class TenantRoleServiceUnitTest {
         assertTrue(role.get().getPermissions().stream().noneMatch(p -> p.getPrivilegeKey().equals("MISSING.PRIVILEGE")
                                                                       && !p.isEnabled()));
 
+        verify(tenantConfigRepository, times(1)).getConfigFullPath(XM_TENANT, ROLES_PATH);
+        verify(tenantConfigRepository, times(1)).getConfigFullPath(XM_TENANT, PERMISSIONS_PATH);
+    }
+
+    @Test
+    public void testRoleMatrixIsServedFromSnapshot() {
+        mockCustomPrivileges();
+
+        tenantRoleService.getRoleMatrix();
+        tenantRoleService.getRoleMatrix();
+        tenantRoleService.getRole("ROLE_ADMIN");
+        tenantRoleService.getAllRoles();
+
+        verify(tenantConfigRepository, times(1)).getConfigFullPath(XM_TENANT, ROLES_PATH);
+        verify(tenantConfigRepository, times(1)).getConfigFullPath(XM_TENANT, PERMISSIONS_PATH);
+        verify(tenantConfigRepository, times(1)).getConfigFullPath(XM_TENANT, CUSTOM_PRIVILEGES_PATH);
+        verify(commonConfigRepository, times(1)).getConfig(isNull(), anyList());
+    }
+
+    @Test
+    public void testIsListeningRoleConfiguration() {
+        assertTrue(tenantRoleService.isListeningConfiguration(ROLES_KEY));
+        assertTrue(tenantRoleService.isListeningConfiguration(PERMISSIONS_KEY));
+        assertTrue(tenantRoleService.isListeningConfiguration(PRIVILEGES_KEY));
+        assertTrue(tenantRoleService.isListeningConfiguration("/config/tenants/XM/custom-privileges.yml"));
+        assertFalse(tenantRoleService.isListeningConfiguration("/config/tenants/XM/uaa/uaa.yml"));
     }
 
     @Test
@@ -370,10 +402,16 @@ public class TenantRoleServiceUnitTest {
 
         tenantRoleService.updateRole(newRole);
 
-        verify(tenantConfigRepository).updateConfigFullPath(eq(XM_TENANT), eq(ROLES_PATH), anyString());
+        verify(commonConfigRepository).updateConfigFullPath(argThat(config -> ROLES_KEY.equals(config.getPath())),
+            eq(sha1Hex(readConfigFile("/config/tenants/XM/roles.yml"))));
+        assertEquals(readConfigFile("/RoleResourceIntTest/updatedPermissions.yml"),
+            captureUpdatedContent(PERMISSIONS_KEY));
 
-        verify(tenantConfigRepository)
-            .updateConfigFullPath(XM_TENANT, PERMISSIONS_PATH, readConfigFile("/RoleResourceIntTest/updatedPermissions.yml"));
+        // the update is visible before the config server pushes it back
+        assertEquals("Test update existing role", tenantRoleService.getRole("ROLE_ADMIN").get().getDescription());
+        assertTrue(tenantRoleService.getRolePermissions("ROLE_ADMIN").stream()
+            .noneMatch(permission -> "ATTACHMENT.CREATE".equals(permission.getPrivilegeKey())
+                && permission.isEnabled()));
     }
 
     @Test
@@ -397,10 +435,7 @@ public class TenantRoleServiceUnitTest {
 
         tenantRoleService.updateRole(roleDto);
 
-        ArgumentCaptor<String> yamlCaptor = ArgumentCaptor.forClass(String.class);
-        verify(tenantConfigRepository).updateConfigFullPath(eq(XM_TENANT), eq(PERMISSIONS_PATH), yamlCaptor.capture());
-
-        assertThat(yamlCaptor.getValue())
+        assertThat(captureUpdatedContent(PERMISSIONS_KEY))
             .contains("ATTACHMENT.CREATE")
             .doesNotContain(": null");
     }
@@ -438,10 +473,111 @@ public class TenantRoleServiceUnitTest {
 
         tenantRoleService.deleteRole(MOCK_ROLE);
 
-        verify(tenantConfigRepository).updateConfigFullPath(eq(XM_TENANT), eq(ROLES_PATH), anyString());
+        // roles file is unchanged and not written
+        verify(commonConfigRepository, never())
+            .updateConfigFullPath(argThat(config -> ROLES_KEY.equals(config.getPath())), any());
+        assertEquals(readConfigFile("/config/tenants/XM/permissions_removeDefault_expected.yml"),
+            captureUpdatedContent(PERMISSIONS_KEY));
+    }
+
+    @Test
+    public void updateRoleMatrixWritesPermissionsOnce() {
+        updateRoleMoks();
+        mockPrivileges();
+        when(tenantPropertiesService.getTenantProps()).thenReturn(new TenantProperties());
+        RoleMatrixDTO roleMatrix = tenantRoleService.getRoleMatrix();
+        roleMatrix.getPermissions().forEach(permission -> permission.getRoles().add("ROLE_USER"));
+
+        tenantRoleService.updateRoleMatrix(roleMatrix);
+
+        verify(commonConfigRepository).updateConfigFullPath(any(), any());
+        verify(tenantConfigRepository, times(1)).getConfigFullPath(XM_TENANT, PERMISSIONS_PATH);
+        assertThat(captureUpdatedContent(PERMISSIONS_KEY)).contains("ROLE_USER");
+        assertFalse(roleMatrix.getVersion().equals(tenantRoleService.getRoleConfigVersion()));
+    }
+
+    @Test
+    public void updateRoleWithOutdatedVersionIsRejected() {
+        updateRoleMoks();
+        RoleDTO role = tenantRoleService.getRole("ROLE_ADMIN").get();
+        tenantRoleService.onRefresh(PERMISSIONS_KEY, readConfigFile("/RoleResourceIntTest/updatedPermissions.yml"));
+
+        try {
+            tenantRoleService.updateRole(role);
+            fail("Outdated role update must be rejected");
+        } catch (BusinessException e) {
+            assertEquals(ERROR_ROLE_CONFIG_CHANGED, e.getCode());
+        }
+        verify(commonConfigRepository, never()).updateConfigFullPath(any(), any());
+    }
+
+    @Test
+    public void updateRoleConflictOnConfigServerIsRejected() {
+        updateRoleMoks();
+        when(tenantPropertiesService.getTenantProps()).thenReturn(new TenantProperties());
+        doThrow(new HttpClientErrorException(HttpStatus.CONFLICT))
+            .when(commonConfigRepository).updateConfigFullPath(any(), any());
+        RoleDTO role = tenantRoleService.getRole("ROLE_ADMIN").get();
+        role.setDescription("Concurrent update");
+
+        try {
+            tenantRoleService.updateRole(role);
+            fail("Conflicting role update must be rejected");
+        } catch (BusinessException e) {
+            assertEquals(ERROR_ROLE_CONFIG_CHANGED, e.getCode());
+        }
+        // outdated snapshots are reloaded
+        tenantRoleService.getRole("ROLE_ADMIN");
+        verify(tenantConfigRepository, times(2)).getConfigFullPath(XM_TENANT, ROLES_PATH);
+    }
+
+    @Test
+    public void updateRoleConflictOnPermissionsRestoresRoles() {
+        updateRoleMoks();
+        when(tenantPropertiesService.getTenantProps()).thenReturn(new TenantProperties());
+        doThrow(new HttpClientErrorException(HttpStatus.CONFLICT)).when(commonConfigRepository)
+            .updateConfigFullPath(argThat(config -> PERMISSIONS_KEY.equals(config.getPath())), any());
+        RoleDTO role = tenantRoleService.getRole("ROLE_ADMIN").get();
+        role.setDescription("Concurrent update");
+        role.getPermissions().forEach(permission -> permission.setEnabled(!permission.isEnabled()));
+
+        try {
+            tenantRoleService.updateRole(role);
+            fail("Conflicting role update must be rejected");
+        } catch (BusinessException e) {
+            assertEquals(ERROR_ROLE_CONFIG_CHANGED, e.getCode());
+        }
+
+        String roles = readConfigFile("/config/tenants/XM/roles.yml");
+        ArgumentCaptor<Configuration> captor = ArgumentCaptor.forClass(Configuration.class);
+        ArgumentCaptor<String> hashCaptor = ArgumentCaptor.forClass(String.class);
+        verify(commonConfigRepository, times(2))
+            .updateConfigFullPath(argThat(config -> ROLES_KEY.equals(config.getPath())), any());
+        verify(commonConfigRepository, times(3)).updateConfigFullPath(captor.capture(), hashCaptor.capture());
+        String writtenRoles = captor.getAllValues().get(0).getContent();
+        assertThat(writtenRoles).contains("Concurrent update");
+        assertEquals(sha1Hex(roles), hashCaptor.getAllValues().get(0));
+        // roles are written back over the roles of the failed batch
+        assertEquals(roles, captor.getAllValues().get(2).getContent());
+        assertEquals(sha1Hex(writtenRoles), hashCaptor.getAllValues().get(2));
+    }
+
+    private String captureUpdatedContent(String path) {
+        ArgumentCaptor<Configuration> captor = ArgumentCaptor.forClass(Configuration.class);
+        verify(commonConfigRepository, atLeastOnce()).updateConfigFullPath(captor.capture(), any());
+        return captor.getAllValues().stream()
+            .filter(config -> path.equals(config.getPath()))
+            .map(Configuration::getContent)
+            .reduce((first, second) -> {
+                throw new AssertionError("Config " + path + " was updated more than once");
+            })
+            .orElseThrow(() -> new AssertionError("Config " + path + " was not updated"));
+    }
 
-        verify(tenantConfigRepository)
-            .updateConfigFullPath(XM_TENANT, PERMISSIONS_PATH, readConfigFile("/config/tenants/XM/permissions_removeDefault_expected.yml"));
+    @SneakyThrows
+    private static String sha1Hex(String content) {
+        byte[] digest = MessageDigest.getInstance("SHA-1").digest(content.getBytes(StandardCharsets.UTF_8));
+        return String.format("%040x", new BigInteger(1, digest));
     }
 
 }
@@ -10,9 +10,15 @@ import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 
 import java.util.List;
-import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -49,7 +55,7 @@ public class UserLoginServiceUnitTest {
     public void shouldVerifyLoginNotExists() {
         UserLogin userLogin = new UserLogin();
         userLogin.setLogin("login");
-        when(loginRepository.findOneByLoginIgnoreCase("login")).thenReturn(Optional.of(userLogin));
+        when(loginRepository.findAllByNormalizedLoginIn(List.of("login"))).thenReturn(List.of(userLogin));
 
         testedInstance.verifyLoginsNotExist(List.of(userLogin));
 
@@ -62,7 +68,7 @@ public class UserLoginServiceUnitTest {
         Long userId = 1L;
         UserLogin userLogin = new UserLogin();
         userLogin.setLogin("login");
-        when(loginRepository.findOneByLoginIgnoreCaseAndUserIdNot("login", userId)).thenReturn(Optional.empty());
+        when(loginRepository.findAllByNormalizedLoginInAndUserIdNot(List.of("login"), userId)).thenReturn(List.of());
 
         testedInstance.verifyLoginsNotExist(List.of(userLogin), userId);
 
@@ -76,12 +82,40 @@ public class UserLoginServiceUnitTest {
         userLogin.setLogin("login");
 
         UserLogin existLogin = new UserLogin();
-        userLogin.setId(2L);
-        userLogin.setLogin("login");
-        when(loginRepository.findOneByLoginIgnoreCaseAndUserIdNot("login", userId)).thenReturn(Optional.of(existLogin));
+        existLogin.setId(2L);
+        existLogin.setLogin("login");
+        when(loginRepository.findAllByNormalizedLoginInAndUserIdNot(List.of("login"), userId))
+            .thenReturn(List.of(existLogin));
 
         testedInstance.verifyLoginsNotExist(List.of(userLogin), userId);
 
         // should fail
     }
+
+    @Test
+    public void shouldReportFirstUsedLoginInOneQuery() {
+        UserLogin free = new UserLogin();
+        free.setLogin("Free@xm.com");
+        UserLogin used = new UserLogin();
+        used.setLogin("Used@xm.com");
+        when(loginRepository.findAllByNormalizedLoginIn(List.of("free@xm.com", "used@xm.com")))
+            .thenReturn(List.of(used));
+
+        assertThatThrownBy(() -> testedInstance.verifyLoginsNotExist(List.of(free, used)))
+            .isInstanceOf(BusinessException.class);
+        verify(loginRepository).findAllByNormalizedLoginIn(List.of("free@xm.com", "used@xm.com"));
+    }
+
+    @Test
+    public void shouldFindExistingLoginsInChunks() {
+        List<String> logins = IntStream.range(0, 1500).mapToObj(i -> "Login" + i).collect(Collectors.toList());
+        when(loginRepository.findNormalizedLoginsIn(anyCollection()))
+            .thenReturn(List.of("login1"))
+            .thenReturn(List.of("login1001"));
+
+        Set<String> existing = testedInstance.findExistingLogins(logins);
+
+        assertThat(existing).containsExactlyInAnyOrder("login1", "login1001");
+        verify(loginRepository, times(2)).findNormalizedLoginsIn(anyCollection());
+    }
 }
@@ -374,6 +374,27 @@ public class UserServiceIntTest {
         userRepository.delete(user);
     }
 
+    @Test
+    public void findOneByLoginIgnoresCase() {
+        UserLogin userLogin = new UserLogin();
+        userLogin.setTypeKey(UserLoginType.EMAIL.getValue());
+        userLogin.setLogin("Admin@Localhost");
+
+        User user = new User();
+        user.setUserKey("test");
+        user.setRoleKey(ROLE_USER);
+        user.setPassword(RandomStringUtils.random(60));
+        user.setActivated(true);
+        user.getLogins().add(userLogin);
+        userLogin.setUser(user);
+
+        userRepository.saveAndFlush(user);
+
+        assertThat(userLogin.getNormalizedLogin()).isEqualTo("admin@localhost");
+        assertThat(userService.findOneByLogin("ADMIN@localhost")).contains(user);
+        assertThat(userService.findOneByLogin("admin@localhost.com")).isEmpty();
+    }
+
     private void validateByTwoRegexp(long passwordPoliciesMinimalMatchCount) throws JsonProcessingException {
         ObjectMapper objectMapper = new ObjectMapper();
         TenantProperties tenantProperties = new TenantProperties();
@@ -9,7 +9,10 @@ import com.icthh.xm.uaa.domain.UserLoginType;
 import com.icthh.xm.uaa.domain.properties.TenantProperties;
 import com.icthh.xm.uaa.repository.UserLoginRepository;
 import com.icthh.xm.uaa.repository.UserRepository;
+import com.icthh.xm.uaa.security.OnlineUsersCache;
+import com.icthh.xm.uaa.security.PasswordHashCache;
 import com.icthh.xm.uaa.security.TokenConstraintsService;
+import com.icthh.xm.uaa.security.UserActivationCache;
 import com.icthh.xm.uaa.service.dto.AccPermissionDTO;
 import com.icthh.xm.uaa.service.dto.PermissionContextDto;
 import com.icthh.xm.uaa.service.dto.UserDTO;
@@ -68,6 +71,12 @@ public class UserServiceUnitTest {
     private TenantPermissionService tenantPermissionService;
     @Mock
     private PermissionContextProvider permissionContextProvider;
+    @Mock
+    private PasswordHashCache passwordHashCache;
+    @Mock
+    private UserActivationCache userActivationCache;
+    @Mock
+    private OnlineUsersCache onlineUsersCache;
 
     @Before
     public void setUp() throws Exception {
@@ -161,9 +170,13 @@ public class UserServiceUnitTest {
     public void shouldDeleteUser() {
         String userKey = "uk";
         given(xmAuthenticationContextHolder.getContext()).willReturn(getDummyCTX());
-        given(userRepository.findOneWithLoginsByUserKey(userKey)).willReturn(Optional.of(createUser(userKey, "dummyRole")));
+        User user = createUser(userKey, "dummyRole");
+        user.getLogins().add(createUserLogin(user));
+        given(userRepository.findOneWithLoginsByUserKey(userKey)).willReturn(Optional.of(user));
         service.deleteUser(userKey);
         verify(userRepository, times(1)).delete(any());
+        verify(userActivationCache).evict(any(User.class));
+        verify(onlineUsersCache).remove(List.of(USER_LOGIN));
     }
 
     @Test
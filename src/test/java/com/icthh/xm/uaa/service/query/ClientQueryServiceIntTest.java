@@ -1,5 +1,6 @@
 package com.icthh.xm.uaa.service.query;
 
+import com.icthh.xm.commons.exceptions.BusinessException;
 import com.icthh.xm.uaa.UaaApp;
 import com.icthh.xm.uaa.config.xm.XmOverrideConfiguration;
 import com.icthh.xm.uaa.domain.ClientState;
@@ -120,4 +121,28 @@ public class ClientQueryServiceIntTest {
         assertEquals(1, page.getTotalElements());
         assertEquals(1, page.getContent().size());
     }
+
+    @Test
+    public void findAllByStrictMatch_continuationToken() {
+        StrictClientFilterQuery filterQuery = new StrictClientFilterQuery();
+        filterQuery.setClientId(new StringFilter().setContains("test-client-"));
+        filterQuery.setScopes(new StringFilter().setContains(SCOPE_1));
+
+        KeysetPage<ClientDTO> first = clientQueryService.findAllByStrictMatch(filterQuery, "", 1);
+        assertEquals(1, first.getContent().size());
+        assertTrue(first.hasNext());
+
+        KeysetPage<ClientDTO> second = clientQueryService.findAllByStrictMatch(filterQuery,
+            first.getContinuationToken(), 1);
+        assertEquals(1, second.getContent().size());
+        assertFalse(second.hasNext());
+        assertTrue(second.getContent().get(0).getId() > first.getContent().get(0).getId());
+    }
+
+    @Test
+    public void findAllByStrictMatch_invalidContinuationToken() {
+        StrictClientFilterQuery filterQuery = new StrictClientFilterQuery();
+
+        assertThrows(BusinessException.class, () -> clientQueryService.findAllByStrictMatch(filterQuery, "123", 1));
+    }
 }
@@ -1,6 +1,7 @@
 package com.icthh.xm.uaa.service.query;
 
 import com.icthh.xm.uaa.UaaApp;
+import com.icthh.xm.uaa.config.ApplicationProperties;
 import com.icthh.xm.uaa.config.xm.XmOverrideConfiguration;
 import com.icthh.xm.uaa.domain.User;
 import com.icthh.xm.uaa.domain.UserLogin;
@@ -24,8 +25,12 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.test.context.junit4.SpringRunner;
 
 import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import javax.persistence.EntityManagerFactory;
 
 import static com.icthh.xm.uaa.utils.FileUtil.readConfigFile;
+import static com.icthh.xm.uaa.utils.QueryCountUtil.countStatements;
 import static java.lang.Boolean.TRUE;
 
 /**
@@ -63,6 +68,12 @@ public class UserQueryServiceIntTest {
     @Autowired
     private TenantPropertiesService tenantPropertiesService;
 
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ApplicationProperties applicationProperties;
+
     @Before
     public void before() {
         tenantPropertiesService.onInit(UAA_CONFIG_PATH, readConfigFile(UAA_CONFIG_PATH));
@@ -86,6 +97,24 @@ public class UserQueryServiceIntTest {
         Assert.assertEquals(1, page.getContent().size());
     }
 
+    @Test
+    public void findAllUsersByStrictMatch_loadsLoginsInBatches() {
+        for (int i = 0; i < 30; i++) {
+            createTestUser("batch" + i, "batch" + i + "@gmail.com");
+        }
+        StrictUserFilterQuery filterQuery = new StrictUserFilterQuery();
+        filterQuery.setActivated((BooleanFilter) new BooleanFilter().setEquals(TRUE));
+
+        AtomicReference<Page<UserDTO>> page = new AtomicReference<>();
+        long statements = countStatements(entityManagerFactory,
+            () -> page.set(userQueryService.findAllUsersByStrictMatch(filterQuery, PageRequest.of(0, 100))));
+
+        Assert.assertEquals(32, page.get().getContent().size());
+        page.get().getContent().forEach(user -> Assert.assertEquals(1, user.getLogins().size()));
+        // users and a couple of login batches, instead of a logins select per user
+        Assert.assertTrue("Statements executed: " + statements, statements <= 3);
+    }
+
     @Test
     public void findAllUsersByStrictMatch_equals() {
 
@@ -184,7 +213,93 @@ public class UserQueryServiceIntTest {
         Assert.assertEquals(1, page.getContent().size());
     }
 
-    private void createTestUser(String userKey, String email) {
+    @Test
+    public void findAllUsersBySoftMatch_returnsBestMatchesFirst() {
+        User exactMatch = createTestUser("softExact", "exact@gmail.com");
+        exactMatch.setLastName("First");
+        userRepository.saveAndFlush(exactMatch);
+
+        SoftUserFilterQuery filterQuery = new SoftUserFilterQuery();
+        filterQuery.setQuery(new StringFilter().setContains("first"));
+
+        Page<UserDTO> page = userQueryService.findAllUsersBySoftMatch(filterQuery, PageRequest.of(0, 2));
+
+        Assert.assertEquals(3, page.getTotalElements());
+        Assert.assertEquals(List.of("softExact", FIRST_USER_KEY),
+            page.getContent().stream().map(UserDTO::getUserKey).collect(Collectors.toList()));
+
+        page = userQueryService.findAllUsersBySoftMatch(filterQuery, PageRequest.of(1, 2));
+
+        Assert.assertEquals(List.of(SECOND_USER_KEY),
+            page.getContent().stream().map(UserDTO::getUserKey).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void findAllUsersBySoftMatch_filtersBeforeLimit() {
+        User second = userRepository.findOneWithLoginsByUserKey(SECOND_USER_KEY).orElseThrow();
+        second.setRoleKey(ROLE_B2B_MANAGER);
+        userRepository.saveAndFlush(second);
+
+        SoftUserFilterQuery filterQuery = new SoftUserFilterQuery();
+        filterQuery.setQuery(new StringFilter().setContains(FIRST_NAME));
+        filterQuery.setRoleKey((StringFilter) new StringFilter().setEquals(ROLE_B2B_MANAGER));
+        filterQuery.setActivated((BooleanFilter) new BooleanFilter().setEquals(TRUE));
+
+        int maxResults = applicationProperties.getUserSearch().getMaxResults();
+        applicationProperties.getUserSearch().setMaxResults(1);
+        try {
+            Page<UserDTO> page = userQueryService.findAllUsersBySoftMatch(filterQuery, PageRequest.of(0, 10));
+
+            Assert.assertEquals(1, page.getTotalElements());
+            Assert.assertEquals(SECOND_USER_KEY, page.getContent().get(0).getUserKey());
+        } finally {
+            applicationProperties.getUserSearch().setMaxResults(maxResults);
+        }
+    }
+
+    @Test
+    public void findAllUsersBySoftMatch_exactTotalOverLimit() {
+        SoftUserFilterQuery filterQuery = new SoftUserFilterQuery();
+        filterQuery.setQuery(new StringFilter().setContains(FIRST_NAME));
+
+        int maxResults = applicationProperties.getUserSearch().getMaxResults();
+        applicationProperties.getUserSearch().setMaxResults(1);
+        try {
+            Page<UserDTO> page = userQueryService.findAllUsersBySoftMatch(filterQuery, PageRequest.of(0, 10));
+
+            Assert.assertEquals(2, page.getTotalElements());
+            Assert.assertEquals(1, page.getContent().size());
+        } finally {
+            applicationProperties.getUserSearch().setMaxResults(maxResults);
+        }
+    }
+
+    @Test
+    public void findAllUsersByStrictMatch_continuationTokenWithSeveralMatchingLogins() {
+        User first = userRepository.findOneWithLoginsByUserKey(FIRST_USER_KEY).orElseThrow();
+        UserLogin nickname = new UserLogin();
+        nickname.setTypeKey(UserLoginType.NICKNAME.getValue());
+        nickname.setLogin("firstTestNickname");
+        nickname.setUser(first);
+        first.getLogins().add(nickname);
+        userRepository.saveAndFlush(first);
+
+        StrictUserFilterQuery filterQuery = new StrictUserFilterQuery();
+        filterQuery.setLogin(new StringFilter().setContains("Test"));
+
+        KeysetPage<UserDTO> firstPage = userQueryService.findAllUsersByStrictMatch(filterQuery, "", 1);
+        Assert.assertEquals(List.of(FIRST_USER_KEY),
+            firstPage.getContent().stream().map(UserDTO::getUserKey).collect(Collectors.toList()));
+        Assert.assertTrue(firstPage.hasNext());
+
+        KeysetPage<UserDTO> secondPage = userQueryService.findAllUsersByStrictMatch(filterQuery,
+            firstPage.getContinuationToken(), 1);
+        Assert.assertEquals(List.of(SECOND_USER_KEY),
+            secondPage.getContent().stream().map(UserDTO::getUserKey).collect(Collectors.toList()));
+        Assert.assertFalse(secondPage.hasNext());
+    }
+
+    private User createTestUser(String userKey, String email) {
         UserLogin userLogin = new UserLogin();
         userLogin.setTypeKey(UserLoginType.EMAIL.getValue());
         userLogin.setLogin(email);
@@ -201,6 +316,6 @@ public class UserQueryServiceIntTest {
         user.setFirstName(FIRST_NAME);
         user.setLastName(LAST_NAME);
 
-        userRepository.saveAndFlush(user);
+        return userRepository.saveAndFlush(user);
     }
 }
@@ -1,6 +1,8 @@
 package com.icthh.xm.uaa.service.query;
 
 import com.icthh.xm.commons.migration.db.jsonb.JsonbExpression;
+import com.icthh.xm.commons.tenant.TenantContextHolder;
+import com.icthh.xm.commons.tenant.TenantContextUtils;
 import com.icthh.xm.uaa.UaaApp;
 import com.icthh.xm.uaa.config.xm.XmOverrideConfiguration;
 import com.icthh.xm.uaa.domain.User;
@@ -16,6 +18,7 @@ import com.icthh.xm.uaa.service.query.filter.StrictUserFilterQuery;
 import io.github.jhipster.service.filter.StringFilter;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.RandomStringUtils;
+import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.ClassRule;
@@ -36,7 +39,9 @@ import org.testcontainers.containers.PostgreSQLContainer;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
+import static com.icthh.xm.uaa.UaaTestConstants.DEFAULT_TENANT_KEY_VALUE;
 import static com.icthh.xm.uaa.service.query.filter.DataAttributeCriteria.Operation.CONTAINS;
 import static com.icthh.xm.uaa.service.query.filter.DataAttributeCriteria.Operation.EQUALS;
 import static com.icthh.xm.uaa.service.query.filter.DataAttributeCriteria.ValueType.BOOLEAN;
@@ -71,10 +76,12 @@ public class UserQueryServicePostgresIntTest {
     private static final String FIRST_USER_KEY = "strictFirst";
     private static final String SECOND_USER_KEY = "strictSecond";
     private static final String THIRD_USER_KEY = "strictThird";
+    private static final String FOURTH_USER_KEY = "strictFourth";
 
     private static final String FIRST_USER_LOGIN = "firstTest@gmail.com";
     private static final String SECOND_USER_LOGIN = "secondTest@gmail.com";
     private static final String THIRD_USER_LOGIN = "thirdTest@gmail.com";
+    private static final String FOURTH_USER_LOGIN = "fourthTest@gmail.com";
 
     private static final String FIRST_NAME = "firstName";
     private static final String LAST_NAME = "lastName";
@@ -86,6 +93,9 @@ public class UserQueryServicePostgresIntTest {
     private static final String PART_FIRST_VALUE_STRING = "first";
     private static final Double SECOND_VALUE_NUMBER = 888.1D;
     private static final Boolean THIRD_VALUE_BOOLEAN = true;
+    private static final String NESTED_KEY = "address";
+    private static final String NESTED_PATH = "address.city";
+    private static final String NESTED_VALUE = "Kyiv";
 
     @ClassRule
     public static PostgreSQLContainer postgreSQLContainer = new PostgreSQLContainer("postgres:17")
@@ -114,6 +124,9 @@ public class UserQueryServicePostgresIntTest {
     @Autowired
     private TenantPropertiesService tenantPropertiesService;
 
+    @Autowired
+    private TenantContextHolder tenantContextHolder;
+
     @Before
     public void before() {
         tenantPropertiesService.onInit(UAA_CONFIG_PATH, readConfigFile(UAA_CONFIG_PATH));
@@ -206,6 +219,36 @@ public class UserQueryServicePostgresIntTest {
         Assert.assertEquals(THIRD_USER_KEY, page.getContent().get(0).getUserKey());
     }
 
+    @Test
+    public void findAllUsersByIndexedDataValue_equals() {
+        TenantContextUtils.setTenant(tenantContextHolder, DEFAULT_TENANT_KEY_VALUE);
+        tenantPropertiesService.getTenantProps().setIndexedDataAttributes(Set.of(SECOND_KEY, NESTED_PATH));
+        createTestUser(FOURTH_USER_KEY, FOURTH_USER_LOGIN, Map.of(NESTED_KEY, Map.of("city", NESTED_VALUE)));
+
+        StrictUserFilterQuery filterQuery = new StrictUserFilterQuery();
+        filterQuery.setDataAttributes(buildDataAttributesCriteria(SECOND_KEY, SECOND_VALUE_NUMBER.toString(), NUMBER, EQUALS));
+        Page<UserDTO> page = userQueryService.findAllUsersByStrictMatch(filterQuery, PageRequest.of(0, 3));
+
+        Assert.assertEquals(1, page.getTotalElements());
+        Assert.assertEquals(SECOND_USER_KEY, page.getContent().get(0).getUserKey());
+
+        filterQuery.setDataAttributes(buildDataAttributesCriteria(NESTED_PATH, NESTED_VALUE, STRING, EQUALS));
+        page = userQueryService.findAllUsersByStrictMatch(filterQuery, PageRequest.of(0, 3));
+
+        Assert.assertEquals(1, page.getTotalElements());
+        Assert.assertEquals(FOURTH_USER_KEY, page.getContent().get(0).getUserKey());
+
+        filterQuery.setDataAttributes(buildDataAttributesCriteria(NESTED_PATH, PART_FIRST_VALUE_STRING, STRING, EQUALS));
+        page = userQueryService.findAllUsersByStrictMatch(filterQuery, PageRequest.of(0, 3));
+
+        Assert.assertEquals(0, page.getTotalElements());
+    }
+
+    @After
+    public void after() {
+        tenantContextHolder.getPrivilegedContext().destroyCurrentContext();
+    }
+
     private static List<DataAttributeCriteria> buildDataAttributesCriteria(String path, String value, ValueType type, Operation operation) {
         return List.of(new DataAttributeCriteria().toBuilder()
             .path(path)
@@ -0,0 +1,23 @@
+package com.icthh.xm.uaa.utils;
+
+import lombok.experimental.UtilityClass;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * Counts SQL statements executed by an action, based on Hibernate statistics
+ * ({@code hibernate.generate_statistics} is enabled in the test configuration).
+ * Not thread safe: statistics are shared by the whole session factory.
+ */
+@UtilityClass
+public class QueryCountUtil {
+
+    public static long countStatements(EntityManagerFactory entityManagerFactory, Runnable action) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        action.run();
+        return statistics.getPrepareStatementCount();
+    }
+}
@@ -24,6 +24,7 @@ import com.icthh.xm.uaa.repository.RegistrationLogRepository;
 import com.icthh.xm.uaa.repository.UserLoginRepository;
 import com.icthh.xm.uaa.repository.UserRepository;
 import com.icthh.xm.uaa.repository.kafka.ProfileEventProducer;
+import com.icthh.xm.uaa.security.PasswordHashCache;
 import com.icthh.xm.uaa.security.oauth2.otp.EmailOtpSender;
 import com.icthh.xm.uaa.security.oauth2.otp.OtpSenderFactory;
 import com.icthh.xm.uaa.security.oauth2.otp.SmsOtpSender;
@@ -133,6 +134,9 @@ public class AccountResourceIntTest {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private PasswordHashCache passwordHashCache;
+
     @Autowired
     private ExceptionTranslator exceptionTranslator;
 
@@ -249,7 +253,7 @@ public class AccountResourceIntTest {
 
         AccountService accountService = new AccountService(userRepository, passwordEncoder, registrationLogRepository,
             xmAuthenticationContextHolder, tenantPropertiesService, userService, userLoginService, profileEventProducer,
-            otpSenderFactory);
+            otpSenderFactory, passwordHashCache);
 
         accountService.setSelf(accountService);
 
@@ -10,6 +10,7 @@ import com.icthh.xm.commons.tenant.TenantContextUtils;
 import com.icthh.xm.lep.api.LepManager;
 import com.icthh.xm.uaa.UaaApp;
 import com.icthh.xm.uaa.commons.XmRequestContextHolder;
+import com.icthh.xm.uaa.config.ApplicationProperties;
 import com.icthh.xm.uaa.config.xm.LepTextConfiguration;
 import com.icthh.xm.uaa.config.xm.XmOverrideConfiguration;
 import com.icthh.xm.uaa.domain.User;
@@ -19,6 +20,8 @@ import com.icthh.xm.uaa.domain.properties.TenantProperties;
 import com.icthh.xm.uaa.repository.UserRepository;
 import com.icthh.xm.uaa.repository.kafka.ProfileEventProducer;
 import com.icthh.xm.uaa.service.TenantPropertiesService;
+import com.icthh.xm.uaa.service.UserExportService;
+import com.icthh.xm.uaa.service.UserImportService;
 import com.icthh.xm.uaa.service.UserLoginService;
 import com.icthh.xm.uaa.service.UserMailService;
 import com.icthh.xm.uaa.service.UserService;
@@ -38,11 +41,14 @@ import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.data.web.PageableHandlerMethodArgumentResolver;
 import org.springframework.http.MediaType;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.oauth2.provider.OAuth2Authentication;
 import org.springframework.security.oauth2.provider.authentication.OAuth2AuthenticationDetails;
 import org.springframework.security.test.context.support.WithMockUser;
@@ -51,10 +57,12 @@ import org.springframework.test.context.transaction.BeforeTransaction;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.ReflectionUtils;
 
 import javax.persistence.EntityManager;
+import javax.validation.Validator;
 import java.time.Instant;
 import java.util.Collections;
 import org.apache.commons.lang3.StringUtils;
@@ -70,6 +78,7 @@ import static com.icthh.xm.uaa.UaaTestConstants.DEFAULT_TENANT_KEY_VALUE;
 import static com.icthh.xm.uaa.web.constant.ErrorConstants.*;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.stringContainsInOrder;
 import static org.hamcrest.collection.IsCollectionWithSize.hasSize;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
@@ -167,6 +176,28 @@ public class UserResourceIntTest {
     @Mock
     private ProfileEventProducer profileEventProducer;
 
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ApplicationProperties applicationProperties;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private UserExportService userExportService;
+
+    @Autowired
+    @Qualifier("userImportHashingExecutor")
+    private AsyncTaskExecutor userImportHashingExecutor;
+
     private MockMvc restUserMockMvc;
 
     private User user;
@@ -196,11 +227,17 @@ public class UserResourceIntTest {
         TenantContextUtils.setTenant(tenantContextHolder, DEFAULT_TENANT_KEY_VALUE);
         setTenantProps(tenantProperties -> {});
         doNothing().when(profileEventProducer).send(any());
+        UserImportService userImportService = new UserImportService(userService, userLoginService, passwordEncoder,
+            tenantContextHolder, transactionManager, profileEventProducer, applicationProperties, objectMapper,
+            validator, em, userImportHashingExecutor);
         UserResource userResource = new UserResource(userLoginService,
             mailService,
             userService,
             profileEventProducer,
-            userQueryService);
+            userQueryService,
+            userImportService,
+            userExportService,
+            objectMapper);
         this.restUserMockMvc = MockMvcBuilders.standaloneSetup(userResource)
             .setCustomArgumentResolvers(pageableArgumentResolver)
             .setControllerAdvice(exceptionTranslator)
@@ -277,6 +314,120 @@ public class UserResourceIntTest {
         assertThat(testUser.getAutoLogoutTimeoutSeconds()).isEqualTo(AUTO_LOGOUT_TIME);
     }
 
+    @Test
+    @Transactional
+    public void importUsersFromJsonLines() throws Exception {
+        int databaseSizeBeforeImport = userRepository.findAll().size();
+
+        String content = "{\"firstName\":\"first\","
+            + "\"logins\":[{\"typeKey\":\"LOGIN.EMAIL\",\"login\":\" Import1@xm.com\"}]}\n"
+            + "{\"logins\":[{\"typeKey\":\"LOGIN.EMAIL\",\"login\":\"import1@xm.com\"}]}\n"
+            + "\n"
+            + "not a json\n"
+            + "{\"logins\":[]}\n"
+            + "{\"authorities\":[\"SUPER-ADMIN\"],\"logins\":[{\"typeKey\":\"LOGIN.EMAIL\",\"login\":\"import2@xm.com\"}]}\n";
+
+        String result = restUserMockMvc.perform(post("/api/users/import")
+            .contentType("application/x-ndjson")
+            .content(content))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString();
+
+        List<String> lines = List.of(result.split("\n"));
+        assertThat(lines).hasSize(5);
+        assertThat(lines.get(0)).contains("\"row\":1", "\"status\":\"CREATED\"");
+        assertThat(lines.get(1)).contains("\"row\":2", "\"status\":\"FAILED\"", "error.login.already.used");
+        assertThat(lines.get(2)).contains("\"row\":4", "\"status\":\"FAILED\"", "error.user.import.invalid.row");
+        assertThat(lines.get(3)).contains("\"row\":5", "\"status\":\"FAILED\"", "error.validation");
+        assertThat(lines.get(4)).contains("\"row\":6", "\"status\":\"FAILED\"", ERROR_SUPER_ADMIN_FORBIDDEN_OPERATION);
+
+        assertThat(userRepository.findAll()).hasSize(databaseSizeBeforeImport + 1);
+        User imported = userLoginService.getUserByLogin("import1@xm.com").get().getUser();
+        assertThat(imported.getFirstName()).isEqualTo("first");
+        assertThat(imported.isActivated()).isTrue();
+    }
+
+    @Test
+    @Transactional
+    public void importUsersInOneBatch() throws Exception {
+        String content = "{\"logins\":[{\"typeKey\":\"LOGIN.EMAIL\",\"login\":\"batch1@xm.com\"},"
+            + "{\"typeKey\":\"LOGIN.NICKNAME\",\"login\":\"batch1\"}]}\n"
+            + "{\"logins\":[{\"typeKey\":\"LOGIN.EMAIL\",\"login\":\"BATCH1@xm.com\"}]}\n"
+            + "{\"logins\":[{\"typeKey\":\"LOGIN.EMAIL\",\"login\":\"batch2@xm.com\"}]}\n";
+
+        restUserMockMvc.perform(post("/api/users/import")
+            .contentType("application/x-ndjson")
+            .content(content))
+            .andExpect(status().isOk())
+            .andExpect(content().string(stringContainsInOrder(List.of("\"row\":1,\"status\":\"CREATED\"",
+                "\"row\":2,\"status\":\"FAILED\"", "\"row\":3,\"status\":\"CREATED\""))));
+
+        User imported = userLoginService.getUserByLogin("batch2@xm.com").get().getUser();
+        assertThat(imported.getPassword()).isNotBlank();
+        assertThat(imported.isPasswordSetByUser()).isFalse();
+        // inserts grouped by hibernate.order_inserts keep every login linked to its own user
+        User first = userLoginService.getUserByLogin("batch1").get().getUser();
+        assertThat(first.getLogins()).extracting(UserLogin::getLogin)
+            .containsExactlyInAnyOrder("batch1@xm.com", "batch1");
+        assertThat(first.getUserKey()).isNotEqualTo(imported.getUserKey());
+    }
+
+    @Test
+    @Transactional
+    public void importUsersFromCsv() throws Exception {
+        String content = "login,loginTypeKey,firstName,lastName\n"
+            + "csv1@xm.com,LOGIN.EMAIL,first,last\n"
+            + "csv2@xm.com,LOGIN.EMAIL,,\n";
+
+        restUserMockMvc.perform(post("/api/users/import")
+            .contentType("text/csv")
+            .content(content))
+            .andExpect(status().isOk())
+            .andExpect(content().string(stringContainsInOrder(
+                List.of("\"row\":1,\"status\":\"CREATED\"", "\"row\":2,\"status\":\"CREATED\""))));
+
+        assertThat(userLoginService.getUserByLogin("csv1@xm.com").get().getUser().getLastName()).isEqualTo("last");
+        assertThat(userLoginService.getUserByLogin("csv2@xm.com")).isPresent();
+    }
+
+    @Test
+    @Transactional
+    public void exportUsersAsJsonLines() throws Exception {
+        userRepository.saveAndFlush(user);
+        superAdminUser.getLogins().get(0).setLogin("export-admin");
+        userRepository.saveAndFlush(superAdminUser);
+
+        String result = restUserMockMvc.perform(get("/api/users/export")
+            .accept("application/x-ndjson"))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString();
+
+        List<String> lines = List.of(result.split("\n"));
+        assertThat(lines).hasSize(2);
+        assertThat(lines.get(0)).contains(user.getUserKey(), user.getLogins().get(0).getLogin());
+        assertThat(lines.get(1)).contains(superAdminUser.getUserKey());
+    }
+
+    @Test
+    @Transactional
+    public void exportUsersAsCsvByRoleKey() throws Exception {
+        userRepository.saveAndFlush(user);
+        superAdminUser.getLogins().get(0).setLogin("export-admin");
+        userRepository.saveAndFlush(superAdminUser);
+
+        String result = restUserMockMvc.perform(get("/api/users/export")
+            .param("roleKey", ROLE_USER)
+            .accept("text/csv"))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString();
+
+        List<String> lines = List.of(result.split("\n"));
+        assertThat(lines).hasSize(2);
+        assertThat(lines.get(0)).isEqualTo(
+            "userKey,login,loginTypeKey,firstName,lastName,langKey,roleKey,imageUrl,activated");
+        assertThat(lines.get(1)).startsWith(user.getUserKey() + "," + user.getLogins().get(0).getLogin() + ",");
+    }
+
     @Test
     @Transactional
     public void createUserWithLongName() throws Exception {